@@ -0,0 +1,185 @@
+package olsh.backend.api_gateway.benchmark;
+
+import com.google.protobuf.Timestamp;
+import com.olsh.users.proto.GetUserInfoRequest;
+import com.olsh.users.proto.UserInfo;
+import com.olsh.users.proto.UserInfoResponse;
+import com.olsh.users.proto.UsersServiceGrpc;
+import io.grpc.BindableService;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import olsh.backend.api_gateway.config.BackendResilienceConfiguration;
+import olsh.backend.api_gateway.config.GrpcCallPolicyConfiguration;
+import olsh.backend.api_gateway.config.GrpcLoadBalancingConfiguration;
+import olsh.backend.api_gateway.grpc.client.CallAttemptMetrics;
+import olsh.backend.api_gateway.grpc.client.GrpcChannelPool;
+import olsh.backend.api_gateway.grpc.proto.AuthServiceGrpc;
+import olsh.backend.api_gateway.grpc.proto.LabProto;
+import olsh.backend.api_gateway.grpc.proto.LabServiceGrpc;
+import olsh.backend.api_gateway.grpc.proto.ValidateTokenRequest;
+import olsh.backend.api_gateway.grpc.proto.ValidateTokenResponse;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * In-process stand-ins for the backends the benchmarked code calls, answering with canned data.
+ * <p>
+ * The gateway side is the real one: the clients get their channels from a {@link GrpcChannelPool} with
+ * the default configuration, so every call passes the same interceptors as in production. Only the
+ * transport is replaced, both ends run on the calling thread to keep scheduling noise out of the numbers.
+ */
+public class StandInBackends implements AutoCloseable {
+
+    public static final String VALID_TOKEN = "valid-token";
+    public static final int AUTHORS = 5;
+
+    private final String prefix = "stand-in-" + UUID.randomUUID() + "-";
+    private final List<Server> servers = new ArrayList<>();
+    private final List<ManagedChannel> channels = new ArrayList<>();
+    private final GrpcChannelPool channelPool;
+
+    public StandInBackends() throws IOException {
+        start("auth-service", new AuthStandIn());
+        start("user-service", new UsersStandIn());
+        start("lab-service", new LabStandIn());
+        channelPool = new GrpcChannelPool(
+                (name, options) -> channel(name),
+                new GrpcLoadBalancingConfiguration(),
+                new BackendResilienceConfiguration(),
+                new GrpcCallPolicyConfiguration(),
+                new CallAttemptMetrics(new SimpleMeterRegistry()));
+    }
+
+    public GrpcChannelPool channelPool() {
+        return channelPool;
+    }
+
+    public static Timestamp timestamp(long epochSecond) {
+        return Timestamp.newBuilder().setSeconds(epochSecond).setNanos(123_000_000).build();
+    }
+
+    public static LabProto.Lab lab(long labId) {
+        return LabProto.Lab.newBuilder()
+                .setLabId(labId)
+                .setOwnerId(labId % AUTHORS + 1)
+                .setTitle("Lab " + labId)
+                .setAbstract("Measuring the throughput of lab " + labId)
+                .setCreatedAt(timestamp(1_700_000_000L + labId))
+                .setUpdatedAt(timestamp(1_700_000_000L + labId))
+                .setViews(labId * 10)
+                .setSubmissions(labId)
+                .build();
+    }
+
+    @Override
+    public void close() {
+        channels.forEach(ManagedChannel::shutdownNow);
+        servers.forEach(Server::shutdownNow);
+    }
+
+    private void start(String name, BindableService service) throws IOException {
+        servers.add(InProcessServerBuilder.forName(prefix + name)
+                .directExecutor()
+                .addService(service)
+                .build()
+                .start());
+    }
+
+    private synchronized ManagedChannel channel(String name) {
+        ManagedChannel channel = InProcessChannelBuilder.forName(prefix + name)
+                .directExecutor()
+                .build();
+        channels.add(channel);
+        return channel;
+    }
+
+    private static class AuthStandIn extends AuthServiceGrpc.AuthServiceImplBase {
+        @Override
+        public void validateToken(ValidateTokenRequest request, StreamObserver<ValidateTokenResponse> observer) {
+            ValidateTokenResponse.Builder response = ValidateTokenResponse.newBuilder();
+            if (VALID_TOKEN.equals(request.getToken())) {
+                response.setValid(true)
+                        .setExpirationTime(System.currentTimeMillis() + 3_600_000)
+                        .setUserInfo(olsh.backend.api_gateway.grpc.proto.UserInfo.newBuilder()
+                                .setUserId(1)
+                                .setUsername("bench")
+                                .setFirstName("Bench")
+                                .setLastName("Mark")
+                                .setRole("USER"));
+            } else {
+                response.setValid(false).setErrorMessage("Invalid token");
+            }
+            observer.onNext(response.build());
+            observer.onCompleted();
+        }
+    }
+
+    private static class UsersStandIn extends UsersServiceGrpc.UsersServiceImplBase {
+        @Override
+        public void getUserInfo(GetUserInfoRequest request, StreamObserver<UserInfoResponse> observer) {
+            observer.onNext(UserInfoResponse.newBuilder()
+                    .setUserInfo(UserInfo.newBuilder()
+                            .setUserId(request.getUserId())
+                            .setUsername("user" + request.getUserId())
+                            .setFirstName("First" + request.getUserId())
+                            .setLastName("Last" + request.getUserId())
+                            .setRole("USER")
+                            .setEmail("user" + request.getUserId() + "@example.com"))
+                    .build());
+            observer.onCompleted();
+        }
+    }
+
+    private static class LabStandIn extends LabServiceGrpc.LabServiceImplBase {
+        @Override
+        public void getLab(LabProto.GetLabRequest request, StreamObserver<LabProto.Lab> observer) {
+            observer.onNext(lab(request.getLabId()));
+            observer.onCompleted();
+        }
+
+        @Override
+        public void getLabs(LabProto.GetLabsRequest request, StreamObserver<LabProto.LabList> observer) {
+            LabProto.LabList.Builder labs = LabProto.LabList.newBuilder().setTotalCount(1_000);
+            long first = (long) request.getPageNumber() * request.getPageSize();
+            for (long labId = first + 1; labId <= first + request.getPageSize(); labId++) {
+                labs.addLabs(lab(labId));
+            }
+            observer.onNext(labs.build());
+            observer.onCompleted();
+        }
+
+        @Override
+        public StreamObserver<LabProto.UploadAssetRequest> uploadAsset(StreamObserver<LabProto.Asset> observer) {
+            return new StreamObserver<>() {
+                private final LabProto.Asset.Builder asset = LabProto.Asset.newBuilder().setAssetId(1);
+
+                @Override
+                public void onNext(LabProto.UploadAssetRequest request) {
+                    if (request.hasMetadata()) {
+                        asset.setLabId(request.getMetadata().getLabId())
+                                .setFilename(request.getMetadata().getFilename());
+                    } else {
+                        asset.setTotalSize(asset.getTotalSize() + request.getChunk().size());
+                    }
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                }
+
+                @Override
+                public void onCompleted() {
+                    observer.onNext(asset.setUploadDate(timestamp(1_700_000_000L)).build());
+                    observer.onCompleted();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package olsh.backend.api_gateway.grpc.client;
+
+import olsh.backend.api_gateway.benchmark.StandInBackends;
+import olsh.backend.api_gateway.config.AssetCompressionConfiguration;
+import olsh.backend.api_gateway.config.UploadFileConfiguration;
+import olsh.backend.api_gateway.grpc.proto.LabProto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Uploads of an asset to lab-service, split into chunks by {@code streamFileContent} for multipart
+ * files and by the upload stream observer for streamed request bodies.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UploadChunkingBenchmark {
+
+    @Param({"1048576"})
+    private int fileSize;
+
+    @Param({"4096", "65536"})
+    private int chunkSize;
+
+    private StandInBackends backends;
+    private LabServiceClient labServiceClient;
+    private byte[] content;
+    private MockMultipartFile file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        backends = new StandInBackends();
+        UploadFileConfiguration uploadConfig = new UploadFileConfiguration();
+        uploadConfig.setChunkSize(chunkSize);
+        // Binary content, so the upload is not gzip-compressed and only the chunking is measured
+        labServiceClient = new LabServiceClient(backends.channelPool(), uploadConfig, new AssetCompressionConfiguration());
+        content = new byte[fileSize];
+        new Random(42).nextBytes(content);
+        file = new MockMultipartFile("file", "measurements.bin", "application/octet-stream", content);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        backends.close();
+    }
+
+    @Benchmark
+    public void multipartUpload() {
+        labServiceClient.uploadAsset(7L, file);
+    }
+
+    @Benchmark
+    public LabProto.Asset streamedUpload() {
+        return labServiceClient.uploadAsset(7L, "measurements.bin", new ByteArrayInputStream(content));
+    }
+}
@@ -0,0 +1,81 @@
+package olsh.backend.api_gateway.interceptor;
+
+import olsh.backend.api_gateway.annotation.RequireAuth;
+import olsh.backend.api_gateway.benchmark.StandInBackends;
+import olsh.backend.api_gateway.grpc.client.AuthServiceClient;
+import olsh.backend.api_gateway.service.AuthService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the authentication check in front of every protected endpoint, including the token
+ * validation call to auth-service.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthInterceptorBenchmark {
+
+    private StandInBackends backends;
+    private AuthInterceptor authInterceptor;
+    private HandlerMethod protectedHandler;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        backends = new StandInBackends();
+        authInterceptor = new AuthInterceptor(new AuthService(new AuthServiceClient(backends.channelPool())));
+        protectedHandler = new HandlerMethod(new ProtectedController(), "handle");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        backends.close();
+    }
+
+    @Benchmark
+    public boolean validToken() throws Exception {
+        return preHandle("Bearer " + StandInBackends.VALID_TOKEN);
+    }
+
+    @Benchmark
+    public boolean invalidToken() throws Exception {
+        return preHandle("Bearer expired-token");
+    }
+
+    @Benchmark
+    public boolean missingToken() throws Exception {
+        return preHandle(null);
+    }
+
+    private boolean preHandle(String authorization) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/labs/my");
+        if (authorization != null) {
+            request.addHeader("Authorization", authorization);
+        }
+        return authInterceptor.preHandle(request, new MockHttpServletResponse(), protectedHandler);
+    }
+
+    public static class ProtectedController {
+        @RequireAuth
+        public void handle() {
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package olsh.backend.api_gateway.service;
+
+import olsh.backend.api_gateway.benchmark.StandInBackends;
+import olsh.backend.api_gateway.dto.response.CommentListResponse;
+import olsh.backend.api_gateway.dto.response.CommentResponse;
+import olsh.backend.api_gateway.grpc.client.UserServiceClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Enrichment of a page of comments with the names of their authors, one users-service call per
+ * distinct author.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CommentServiceBenchmark {
+
+    @Param({"20"})
+    private int comments;
+
+    @Param({"1", "5", "20"})
+    private int distinctAuthors;
+
+    private StandInBackends backends;
+    private CommentService commentService;
+    private CommentListResponse page;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        backends = new StandInBackends();
+        // Enrichment only talks to users-service, the comment and lab clients stay unused
+        commentService = new CommentService(null, null, new UserService(new UserServiceClient(backends.channelPool())));
+
+        List<CommentResponse> commentList = new ArrayList<>(comments);
+        for (int i = 0; i < comments; i++) {
+            commentList.add(CommentResponse.builder()
+                    .id("comment-" + i)
+                    .labId(7L)
+                    .userId((long) (i % distinctAuthors + 1))
+                    .content("Comment number " + i + " on the measurements of lab 7")
+                    .createdAt("2025-01-01T10:00:00Z")
+                    .updatedAt("2025-01-01T10:00:00Z")
+                    .build());
+        }
+        page = CommentListResponse.builder()
+                .comments(commentList)
+                .pagination(CommentListResponse.PaginationResponse.builder()
+                        .currentPage(1)
+                        .totalPages(1)
+                        .totalItems(comments)
+                        .build())
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        backends.close();
+    }
+
+    @Benchmark
+    public CommentListResponse enrichCommentsWithUserInfo() {
+        return commentService.enrichCommentsWithUserInfo(page);
+    }
+}
@@ -0,0 +1,101 @@
+package olsh.backend.api_gateway.service;
+
+import com.google.protobuf.Timestamp;
+import olsh.backend.api_gateway.benchmark.StandInBackends;
+import olsh.backend.api_gateway.cache.AssetContentCache;
+import olsh.backend.api_gateway.config.AssetCacheConfiguration;
+import olsh.backend.api_gateway.config.AssetCompressionConfiguration;
+import olsh.backend.api_gateway.config.UploadFileConfiguration;
+import olsh.backend.api_gateway.dto.request.GetLabsRequest;
+import olsh.backend.api_gateway.dto.response.LabListResponse;
+import olsh.backend.api_gateway.dto.response.LabResponse;
+import olsh.backend.api_gateway.dto.response.UserResponse;
+import olsh.backend.api_gateway.grpc.client.LabServiceClient;
+import olsh.backend.api_gateway.grpc.client.UserServiceClient;
+import olsh.backend.api_gateway.grpc.proto.LabProto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping of labs to REST responses, alone and as part of a catalogue page with its author lookups.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LabServiceBenchmark {
+
+    private StandInBackends backends;
+    private LabService labService;
+    private LabProto.Lab lab;
+    private UserResponse author;
+    private Timestamp timestamp;
+
+    @State(Scope.Benchmark)
+    public static class CatalogPage {
+        @Param({"10", "50"})
+        private int pageSize;
+
+        private GetLabsRequest request;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            request = new GetLabsRequest();
+            request.setPage(1);
+            request.setLimit(pageSize);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        backends = new StandInBackends();
+        UploadFileConfiguration uploadConfig = new UploadFileConfiguration();
+        AssetCacheConfiguration cacheConfig = new AssetCacheConfiguration();
+        cacheConfig.setEnabled(false);
+        labService = new LabService(
+                new LabServiceClient(backends.channelPool(), uploadConfig, new AssetCompressionConfiguration()),
+                uploadConfig,
+                new UserService(new UserServiceClient(backends.channelPool())),
+                new AssetContentCache(cacheConfig),
+                new MultipartStreamReader(uploadConfig));
+        lab = StandInBackends.lab(7);
+        author = new UserResponse(lab.getOwnerId(), "author", "Ada", "Lovelace", "ada@example.com");
+        timestamp = lab.getCreatedAt();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        backends.close();
+    }
+
+    @Benchmark
+    public String convertTimestamp() {
+        return labService.convertTimestampToIso(timestamp);
+    }
+
+    @Benchmark
+    public LabResponse buildLabResponse() {
+        return labService.buildLabResponse(lab, author);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public LabListResponse catalogPage(CatalogPage page) {
+        return labService.getLabs(page.request);
+    }
+}
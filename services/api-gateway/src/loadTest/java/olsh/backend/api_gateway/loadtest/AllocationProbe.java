@@ -0,0 +1,67 @@
+package olsh.backend.api_gateway.loadtest;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Heap allocation and garbage collection over a measured phase.
+ * <p>
+ * Fakes, driver and gateway share the JVM, so besides the process total the bytes allocated by the Tomcat
+ * request threads are counted on their own: they run the controllers, services and blocking gRPC calls and
+ * are the part of the total a deployed gateway would see.
+ */
+class AllocationProbe {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final long startNanos = System.nanoTime();
+    private final long processBytes = THREADS.getTotalThreadAllocatedBytes();
+    private final Map<Long, Long> requestThreadBytes = requestThreadBytes();
+    private final long gcCount = gcCount();
+    private final long gcMillis = gcMillis();
+
+    record Result(double seconds, long processBytes, long requestThreadBytes, long gcCount, long gcMillis) {
+    }
+
+    Result stop() {
+        long requestThreads = 0;
+        for (Map.Entry<Long, Long> thread : requestThreadBytes().entrySet()) {
+            // Threads started during the phase allocated everything within it
+            requestThreads += thread.getValue() - requestThreadBytes.getOrDefault(thread.getKey(), 0L);
+        }
+        return new Result((System.nanoTime() - startNanos) / 1e9,
+                THREADS.getTotalThreadAllocatedBytes() - processBytes,
+                requestThreads,
+                gcCount() - gcCount,
+                gcMillis() - gcMillis);
+    }
+
+    private static Map<Long, Long> requestThreadBytes() {
+        Map<Long, Long> bytes = new HashMap<>();
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            String name = thread.getName();
+            if (name.startsWith("http-nio-") && name.contains("-exec-")) {
+                long allocated = THREADS.getThreadAllocatedBytes(thread.threadId());
+                if (allocated >= 0) {
+                    bytes.put(thread.threadId(), allocated);
+                }
+            }
+        }
+        return bytes;
+    }
+
+    private static long gcCount() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionCount)
+                .sum();
+    }
+
+    private static long gcMillis() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionTime)
+                .sum();
+    }
+}
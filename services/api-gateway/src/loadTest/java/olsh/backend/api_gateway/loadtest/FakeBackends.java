@@ -0,0 +1,318 @@
+package olsh.backend.api_gateway.loadtest;
+
+import com.google.protobuf.Timestamp;
+import com.olsh.users.proto.GetUserInfoRequest;
+import com.olsh.users.proto.UserInfo;
+import com.olsh.users.proto.UserInfoResponse;
+import com.olsh.users.proto.UsersServiceGrpc;
+import io.grpc.BindableService;
+import io.grpc.Grpc;
+import io.grpc.InsecureServerCredentials;
+import io.grpc.Server;
+import io.grpc.ServerInterceptors;
+import io.grpc.stub.StreamObserver;
+import olsh.backend.api_gateway.grpc.proto.ArticleProto;
+import olsh.backend.api_gateway.grpc.proto.ArticleServiceGrpc;
+import olsh.backend.api_gateway.grpc.proto.AuthServiceGrpc;
+import olsh.backend.api_gateway.grpc.proto.FeedbackProto;
+import olsh.backend.api_gateway.grpc.proto.FeedbackServiceGrpc;
+import olsh.backend.api_gateway.grpc.proto.LabProto;
+import olsh.backend.api_gateway.grpc.proto.LabServiceGrpc;
+import olsh.backend.api_gateway.grpc.proto.ValidateTokenRequest;
+import olsh.backend.api_gateway.grpc.proto.ValidateTokenResponse;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fakes of the backends behind the gateway, served over real sockets so the gateway talks to them exactly as
+ * it talks to the deployed services.
+ * <p>
+ * Every fake answers from generated data of a fixed size: {@link #LABS} labs and as many articles, written by
+ * {@link #USERS} users, each lab with {@link #ASSETS_PER_LAB} assets and pages of comments with replies.
+ * Tokens starting with {@link #TOKEN_PREFIX} are valid. Latency and failures come from the
+ * {@link FaultProfile} of each backend.
+ */
+class FakeBackends implements AutoCloseable {
+
+    static final String TOKEN_PREFIX = "load-test-";
+    static final int LABS = 1_000;
+    static final int USERS = 200;
+    static final int ASSETS_PER_LAB = 3;
+    static final int REPLIES_PER_COMMENT = 5;
+    // Authors of the comments under one lab, the gateway looks each of them up once per page
+    static final int COMMENT_AUTHORS_PER_LAB = 8;
+
+    private static final Timestamp CREATED = Timestamp.newBuilder().setSeconds(1_700_000_000L).build();
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final List<Server> servers = new ArrayList<>();
+    // Gateway property naming the address of a backend -> host:port of its fake
+    private final Map<String, String> addresses = new LinkedHashMap<>();
+
+    FakeBackends(Map<String, FaultProfile> profiles) throws IOException {
+        start("AUTH_SERVICE_ADDRESS", new AuthFake(), profiles.get("auth"));
+        start("USER_SERVICE_ADDRESS", new UsersFake(), profiles.get("users"));
+        start("LAB_SERVICE_ADDRESS", new LabFake(), profiles.get("labs"));
+        start("ARTICLE_SERVICE_ADDRESS", new ArticleFake(), profiles.get("articles"));
+        start("FEEDBACK_SERVICE_ADDRESS", new FeedbackFake(), profiles.get("feedback"));
+    }
+
+    /**
+     * Command line arguments pointing the gateway channels at the fakes.
+     */
+    List<String> gatewayArguments() {
+        List<String> arguments = new ArrayList<>();
+        addresses.forEach((property, address) -> arguments.add("--" + property + "=" + address));
+        return arguments;
+    }
+
+    @Override
+    public void close() {
+        servers.forEach(Server::shutdownNow);
+        executor.shutdownNow();
+    }
+
+    private void start(String addressProperty, BindableService service, FaultProfile profile) throws IOException {
+        Server server = Grpc.newServerBuilderForPort(0, InsecureServerCredentials.create())
+                .executor(executor)
+                .addService(ServerInterceptors.intercept(service, new FaultInjectingInterceptor(profile)))
+                .build()
+                .start();
+        servers.add(server);
+        addresses.put(addressProperty, "localhost:" + server.getPort());
+    }
+
+    private static long owner(long id) {
+        return id % USERS + 1;
+    }
+
+    private static class AuthFake extends AuthServiceGrpc.AuthServiceImplBase {
+        @Override
+        public void validateToken(ValidateTokenRequest request, StreamObserver<ValidateTokenResponse> observer) {
+            ValidateTokenResponse.Builder response = ValidateTokenResponse.newBuilder();
+            String token = request.getToken();
+            if (token.startsWith(TOKEN_PREFIX)) {
+                long userId = Long.parseLong(token.substring(TOKEN_PREFIX.length()));
+                response.setValid(true)
+                        .setExpirationTime(System.currentTimeMillis() + 3_600_000)
+                        .setUserInfo(olsh.backend.api_gateway.grpc.proto.UserInfo.newBuilder()
+                                .setUserId(userId)
+                                .setUsername("user" + userId)
+                                .setFirstName("First" + userId)
+                                .setLastName("Last" + userId)
+                                .setRole("USER"));
+            } else {
+                response.setValid(false).setErrorMessage("Invalid token");
+            }
+            observer.onNext(response.build());
+            observer.onCompleted();
+        }
+    }
+
+    private static class UsersFake extends UsersServiceGrpc.UsersServiceImplBase {
+        @Override
+        public void getUserInfo(GetUserInfoRequest request, StreamObserver<UserInfoResponse> observer) {
+            long userId = request.getUserId();
+            observer.onNext(UserInfoResponse.newBuilder()
+                    .setUserInfo(UserInfo.newBuilder()
+                            .setUserId(userId)
+                            .setUsername("user" + userId)
+                            .setFirstName("First" + userId)
+                            .setLastName("Last" + userId)
+                            .setRole("USER")
+                            .setEmail("user" + userId + "@example.com"))
+                    .build());
+            observer.onCompleted();
+        }
+    }
+
+    private static class LabFake extends LabServiceGrpc.LabServiceImplBase {
+        private final AtomicLong nextLabId = new AtomicLong(LABS);
+        private final AtomicLong nextAssetId = new AtomicLong(LABS * ASSETS_PER_LAB);
+
+        @Override
+        public void getLab(LabProto.GetLabRequest request, StreamObserver<LabProto.Lab> observer) {
+            observer.onNext(lab(request.getLabId()));
+            observer.onCompleted();
+        }
+
+        @Override
+        public void getLabs(LabProto.GetLabsRequest request, StreamObserver<LabProto.LabList> observer) {
+            LabProto.LabList.Builder labs = LabProto.LabList.newBuilder().setTotalCount(LABS);
+            long first = (long) Math.max(request.getPageNumber() - 1, 0) * request.getPageSize() + 1;
+            for (long labId = first; labId < first + request.getPageSize() && labId <= LABS; labId++) {
+                labs.addLabs(lab(labId));
+            }
+            observer.onNext(labs.build());
+            observer.onCompleted();
+        }
+
+        @Override
+        public void listAssets(LabProto.ListAssetsRequest request, StreamObserver<LabProto.AssetList> observer) {
+            LabProto.AssetList.Builder assets = LabProto.AssetList.newBuilder().setTotalCount(ASSETS_PER_LAB);
+            for (int i = 0; i < ASSETS_PER_LAB; i++) {
+                assets.addAssets(LabProto.Asset.newBuilder()
+                        .setAssetId(request.getLabId() * ASSETS_PER_LAB + i)
+                        .setLabId(request.getLabId())
+                        .setFilename(i == 0 ? "lab.md" : "data-" + i + ".csv")
+                        .setTotalSize(16_384L * (i + 1))
+                        .setUploadDate(CREATED));
+            }
+            observer.onNext(assets.build());
+            observer.onCompleted();
+        }
+
+        @Override
+        public void createLab(LabProto.CreateLabRequest request, StreamObserver<LabProto.Lab> observer) {
+            observer.onNext(LabProto.Lab.newBuilder()
+                    .setLabId(nextLabId.incrementAndGet())
+                    .setOwnerId(request.getOwnerId())
+                    .setTitle(request.getTitle())
+                    .setAbstract(request.getAbstract())
+                    .setCreatedAt(CREATED)
+                    .setUpdatedAt(CREATED)
+                    .build());
+            observer.onCompleted();
+        }
+
+        @Override
+        public void deleteLab(LabProto.DeleteLabRequest request, StreamObserver<LabProto.DeleteLabResponse> observer) {
+            observer.onNext(LabProto.DeleteLabResponse.newBuilder().setSuccess(true).build());
+            observer.onCompleted();
+        }
+
+        @Override
+        public StreamObserver<LabProto.UploadAssetRequest> uploadAsset(StreamObserver<LabProto.Asset> observer) {
+            return new StreamObserver<>() {
+                private final LabProto.Asset.Builder asset = LabProto.Asset.newBuilder();
+
+                @Override
+                public void onNext(LabProto.UploadAssetRequest request) {
+                    if (request.hasMetadata()) {
+                        asset.setLabId(request.getMetadata().getLabId())
+                                .setFilename(request.getMetadata().getFilename());
+                    } else {
+                        asset.setTotalSize(asset.getTotalSize() + request.getChunk().size());
+                    }
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                }
+
+                @Override
+                public void onCompleted() {
+                    observer.onNext(asset.setAssetId(nextAssetId.incrementAndGet()).setUploadDate(CREATED).build());
+                    observer.onCompleted();
+                }
+            };
+        }
+
+        private static LabProto.Lab lab(long labId) {
+            return LabProto.Lab.newBuilder()
+                    .setLabId(labId)
+                    .setOwnerId(owner(labId))
+                    .setTitle("Lab " + labId)
+                    .setAbstract("Measuring the throughput of lab " + labId)
+                    .setCreatedAt(CREATED)
+                    .setUpdatedAt(CREATED)
+                    .setViews(labId * 10)
+                    .setSubmissions(labId)
+                    .build();
+        }
+    }
+
+    private static class ArticleFake extends ArticleServiceGrpc.ArticleServiceImplBase {
+        @Override
+        public void getArticle(ArticleProto.GetArticleRequest request, StreamObserver<ArticleProto.Article> observer) {
+            observer.onNext(article(request.getArticleId()));
+            observer.onCompleted();
+        }
+
+        @Override
+        public void getArticles(ArticleProto.GetArticlesRequest request,
+                                StreamObserver<ArticleProto.ArticleList> observer) {
+            ArticleProto.ArticleList.Builder articles = ArticleProto.ArticleList.newBuilder().setTotalCount(LABS);
+            long first = (long) Math.max(request.getPageNumber() - 1, 0) * request.getPageSize() + 1;
+            for (long articleId = first; articleId < first + request.getPageSize() && articleId <= LABS; articleId++) {
+                articles.addArticles(article(articleId));
+            }
+            observer.onNext(articles.build());
+            observer.onCompleted();
+        }
+
+        private static ArticleProto.Article article(long articleId) {
+            return ArticleProto.Article.newBuilder()
+                    .setArticleId(articleId)
+                    .setOwnerId(owner(articleId * 7))
+                    .setTitle("Article " + articleId)
+                    .setAbstract("Findings behind article " + articleId)
+                    .setCreatedAt(CREATED)
+                    .setUpdatedAt(CREATED)
+                    .setViews(articleId * 3)
+                    .build();
+        }
+    }
+
+    private static class FeedbackFake extends FeedbackServiceGrpc.FeedbackServiceImplBase {
+        @Override
+        public void listLabComments(FeedbackProto.ListLabCommentsRequest request,
+                                    StreamObserver<FeedbackProto.ListLabCommentsResponse> observer) {
+            FeedbackProto.ListLabCommentsResponse.Builder comments = FeedbackProto.ListLabCommentsResponse.newBuilder()
+                    .setTotalCount(100);
+            int first = Math.max(request.getPage() - 1, 0) * request.getLimit();
+            for (int i = first; i < first + request.getLimit() && i < 100; i++) {
+                comments.addComments(comment(request.getLabId(), "c-" + request.getLabId() + "-" + i, null, i));
+            }
+            observer.onNext(comments.build());
+            observer.onCompleted();
+        }
+
+        @Override
+        public void getCommentReplies(FeedbackProto.GetCommentRepliesRequest request,
+                                      StreamObserver<FeedbackProto.GetCommentRepliesResponse> observer) {
+            FeedbackProto.GetCommentRepliesResponse.Builder replies = FeedbackProto.GetCommentRepliesResponse.newBuilder()
+                    .setTotalCount(REPLIES_PER_COMMENT);
+            long labId = labOf(request.getCommentId());
+            for (int i = 0; i < Math.min(REPLIES_PER_COMMENT, request.getLimit()); i++) {
+                replies.addComments(comment(labId, request.getCommentId() + "-r" + i, request.getCommentId(), i + 1));
+            }
+            observer.onNext(replies.build());
+            observer.onCompleted();
+        }
+
+        @Override
+        public void getComment(FeedbackProto.GetCommentRequest request,
+                               StreamObserver<FeedbackProto.LabComment> observer) {
+            observer.onNext(comment(labOf(request.getId()), request.getId(), null, 0));
+            observer.onCompleted();
+        }
+
+        private static FeedbackProto.LabComment comment(long labId, String id, String parentId, int position) {
+            FeedbackProto.LabComment.Builder comment = FeedbackProto.LabComment.newBuilder()
+                    .setId(id)
+                    .setLabId(labId)
+                    .setUserId(owner(labId + position % COMMENT_AUTHORS_PER_LAB))
+                    .setContent("Comment " + id + " on the results of lab " + labId)
+                    .setCreatedAt(CREATED)
+                    .setUpdatedAt(CREATED);
+            if (parentId != null) {
+                comment.setParentId(parentId);
+            }
+            return comment.build();
+        }
+
+        private static long labOf(String commentId) {
+            // Ids are c-<labId>-<n>[-r<n>]
+            String[] parts = commentId.split("-");
+            return parts.length > 1 ? Long.parseLong(parts[1]) : 1;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package olsh.backend.api_gateway.loadtest;
+
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Delays every call of a fake backend and fails a share of them as described by its {@link FaultProfile}.
+ * <p>
+ * The delay is spent once the client has sent everything, so streamed uploads are slowed down like a backend
+ * that writes the file before answering. Fake servers run calls on virtual threads, a sleeping call does not
+ * keep others from being served.
+ */
+class FaultInjectingInterceptor implements ServerInterceptor {
+
+    private final FaultProfile profile;
+
+    FaultInjectingInterceptor(FaultProfile profile) {
+        this.profile = profile;
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call,
+                                                                 Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> next) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long latencyNanos = profile.sampleLatencyNanos(random);
+        boolean fail = profile.sampleFailure(random);
+
+        return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(next.startCall(call, headers)) {
+            @Override
+            public void onHalfClose() {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(latencyNanos);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    call.close(Status.CANCELLED.withDescription("Fake backend interrupted"), new Metadata());
+                    return;
+                }
+                if (fail) {
+                    call.close(Status.fromCode(profile.errorCode()).withDescription("Injected failure"),
+                            new Metadata());
+                    return;
+                }
+                super.onHalfClose();
+            }
+        };
+    }
+}
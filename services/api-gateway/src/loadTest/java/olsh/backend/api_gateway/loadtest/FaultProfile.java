@@ -0,0 +1,77 @@
+package olsh.backend.api_gateway.loadtest;
+
+import io.grpc.Status;
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.random.RandomGenerator;
+
+/**
+ * Latency and error distribution of one fake backend.
+ * <p>
+ * Latencies are drawn from a log-normal distribution fixed by its median and 99th percentile, which has the
+ * long right tail of a real database backed service. A profile is written as
+ * {@code median=2ms,p99=20ms,error-rate=0.01,error-code=UNAVAILABLE}, keys left out keep the defaults.
+ */
+record FaultProfile(Duration median, Duration p99, double errorRate, Status.Code errorCode) {
+
+    static final FaultProfile DEFAULT = new FaultProfile(Duration.ofMillis(2), Duration.ofMillis(20), 0,
+            Status.Code.UNAVAILABLE);
+
+    // Standard normal quantile of the 99th percentile
+    private static final double Z_99 = 2.3263;
+
+    FaultProfile {
+        if (median.isNegative() || p99.compareTo(median) < 0) {
+            throw new IllegalArgumentException("Latency needs 0 <= median <= p99, got " + median + " and " + p99);
+        }
+        if (errorRate < 0 || errorRate > 1) {
+            throw new IllegalArgumentException("Error rate must be between 0 and 1, got " + errorRate);
+        }
+    }
+
+    static FaultProfile parse(String spec, FaultProfile defaults) {
+        if (spec == null || spec.isBlank()) {
+            return defaults;
+        }
+        Duration median = defaults.median();
+        Duration p99 = defaults.p99();
+        double errorRate = defaults.errorRate();
+        Status.Code errorCode = defaults.errorCode();
+        for (String entry : spec.split(",")) {
+            String[] keyValue = entry.split("=", 2);
+            if (keyValue.length != 2) {
+                throw new IllegalArgumentException("Expected key=value in fault profile, got '" + entry + "'");
+            }
+            String value = keyValue[1].trim();
+            switch (keyValue[0].trim()) {
+                case "median" -> median = DurationStyle.detectAndParse(value);
+                case "p99" -> p99 = DurationStyle.detectAndParse(value);
+                case "error-rate" -> errorRate = Double.parseDouble(value);
+                case "error-code" -> errorCode = Status.Code.valueOf(value.toUpperCase(Locale.ROOT));
+                default -> throw new IllegalArgumentException("Unknown fault profile key '" + keyValue[0] + "'");
+            }
+        }
+        return new FaultProfile(median, p99, errorRate, errorCode);
+    }
+
+    long sampleLatencyNanos(RandomGenerator random) {
+        long medianNanos = median.toNanos();
+        if (medianNanos == 0) {
+            return 0;
+        }
+        double sigma = Math.log((double) p99.toNanos() / medianNanos) / Z_99;
+        return (long) (medianNanos * Math.exp(sigma * random.nextGaussian()));
+    }
+
+    boolean sampleFailure(RandomGenerator random) {
+        return errorRate > 0 && random.nextDouble() < errorRate;
+    }
+
+    @Override
+    public String toString() {
+        return "median=" + median.toMillis() + "ms, p99=" + p99.toMillis() + "ms, errors="
+                + errorRate * 100 + "% " + errorCode;
+    }
+}
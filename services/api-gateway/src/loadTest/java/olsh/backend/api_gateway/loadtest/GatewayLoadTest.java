@@ -0,0 +1,108 @@
+package olsh.backend.api_gateway.loadtest;
+
+import olsh.backend.api_gateway.ApiGatewayApplication;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.PrintStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Capacity test of the gateway without the rest of the stack: starts the fake backends, the gateway on a free
+ * port pointed at them, then drives the traffic mix and prints throughput, latency percentiles and allocation.
+ * <p>
+ * Run with {@code gradle loadTest}, see the README for the properties shaping a run. Program arguments are
+ * passed on to the gateway, e.g. {@code --GRPC_CHANNELS_PER_BACKEND=4}.
+ */
+public class GatewayLoadTest {
+
+    private static final PrintStream OUT = System.out;
+
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        try (FakeBackends backends = new FakeBackends(settings.faultProfiles());
+             ConfigurableApplicationContext gateway = startGateway(backends, args)) {
+            int port = ((WebServerApplicationContext) gateway).getWebServer().getPort();
+            TrafficDriver driver = new TrafficDriver(URI.create("http://localhost:" + port), settings);
+            printSettings(settings);
+
+            OUT.printf("Warming up for %s...%n", settings.warmup());
+            driver.run(settings.warmup());
+
+            OUT.printf("Measuring for %s...%n", settings.duration());
+            AllocationProbe allocation = new AllocationProbe();
+            Measurements measurements = driver.run(settings.duration());
+            printReport(measurements, allocation.stop());
+        }
+    }
+
+    private static ConfigurableApplicationContext startGateway(FakeBackends backends, String[] args) throws Exception {
+        List<String> arguments = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--LOG_LEVEL_ROOT=WARN",
+                "--LOG_LEVEL_APP=WARN",
+                "--LOG_LEVEL_GRPC=WARN",
+                "--ASSET_CACHE_DISK_DIRECTORY=" + Files.createTempDirectory("load-test-asset-cache")));
+        arguments.addAll(backends.gatewayArguments());
+        // Given last so they win over the defaults above
+        arguments.addAll(List.of(args));
+        return SpringApplication.run(ApiGatewayApplication.class, arguments.toArray(String[]::new));
+    }
+
+    private static void printSettings(LoadTestSettings settings) {
+        OUT.printf("%nRate %d journeys/s, mix %s, uploads of %d KB%n", settings.rate(), settings.mix(),
+                settings.uploadSize().toKilobytes());
+        settings.faultProfiles().forEach((backend, profile) -> OUT.printf("  %-9s %s%n", backend, profile));
+    }
+
+    private static void printReport(Measurements measurements, AllocationProbe.Result allocation) {
+        double seconds = measurements.elapsedSeconds();
+        OUT.printf("%n%-36s %9s %9s %8s %9s %9s %9s %9s %9s%n", "Journey / request", "count", "per sec",
+                "failed", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        measurements.journeys().forEach((scenario, series) -> {
+            if (series.latencies().getTotalCount() > 0) {
+                printRow(scenario.key(), series, seconds);
+            }
+        });
+        OUT.println();
+        Map<String, Measurements.Series> requests = measurements.requests();
+        requests.forEach((route, series) -> printRow(route, series, seconds));
+
+        OUT.println();
+        requests.forEach((route, series) -> series.failuresByReason().forEach((reason, count) ->
+                OUT.printf("Failed %-36s %-24s %d%n", route, reason, count)));
+        if (measurements.dropped() > 0) {
+            OUT.printf("Dropped %d journeys, more than the in-flight limit were running%n", measurements.dropped());
+        }
+
+        long requestCount = measurements.requestCount();
+        OUT.printf("Allocation: process %.1f MB/s, gateway request threads %.1f MB/s (%.1f KB per request)%n",
+                allocation.processBytes() / allocation.seconds() / 1e6,
+                allocation.requestThreadBytes() / allocation.seconds() / 1e6,
+                requestCount == 0 ? 0 : allocation.requestThreadBytes() / 1024.0 / requestCount);
+        OUT.printf("GC: %d collections, %d ms paused or concurrent%n", allocation.gcCount(), allocation.gcMillis());
+    }
+
+    private static void printRow(String name, Measurements.Series series, double seconds) {
+        Histogram latencies = series.latencies();
+        OUT.printf("%-36s %9d %9.1f %8d %9.2f %9.2f %9.2f %9.2f %9.2f%n", name,
+                latencies.getTotalCount(),
+                latencies.getTotalCount() / seconds,
+                series.failed(),
+                millis(latencies.getValueAtPercentile(50)),
+                millis(latencies.getValueAtPercentile(90)),
+                millis(latencies.getValueAtPercentile(99)),
+                millis(latencies.getValueAtPercentile(99.9)),
+                millis(latencies.getMaxValue()));
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
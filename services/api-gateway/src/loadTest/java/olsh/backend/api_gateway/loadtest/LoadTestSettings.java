@@ -0,0 +1,66 @@
+package olsh.backend.api_gateway.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shape of a load test run, read from {@code load.*} and {@code fake.*} system properties.
+ *
+ * @param rate          journeys started per second, independent of how fast the gateway answers
+ * @param warmup        time the traffic runs before anything is measured
+ * @param duration      measured time
+ * @param mix           relative weight of each journey
+ * @param uploadSize    size of the asset sent with each upload
+ * @param maxInFlight   journeys running at once before new ones are dropped instead of queued
+ * @param faultProfiles latency and errors of each fake backend
+ */
+record LoadTestSettings(int rate,
+                        Duration warmup,
+                        Duration duration,
+                        Map<Scenario, Integer> mix,
+                        DataSize uploadSize,
+                        int maxInFlight,
+                        Map<String, FaultProfile> faultProfiles) {
+
+    static final List<String> BACKENDS = List.of("auth", "users", "labs", "articles", "feedback");
+
+    static LoadTestSettings fromSystemProperties() {
+        FaultProfile defaultProfile = FaultProfile.parse(System.getProperty("fake.default"), FaultProfile.DEFAULT);
+        Map<String, FaultProfile> faultProfiles = new LinkedHashMap<>();
+        for (String backend : BACKENDS) {
+            faultProfiles.put(backend, FaultProfile.parse(System.getProperty("fake." + backend), defaultProfile));
+        }
+        return new LoadTestSettings(
+                Integer.parseInt(System.getProperty("load.rate", "200")),
+                DurationStyle.detectAndParse(System.getProperty("load.warmup", "15s")),
+                DurationStyle.detectAndParse(System.getProperty("load.duration", "30s")),
+                parseMix(System.getProperty("load.mix", "browse=50,lab-view=30,comments=15,upload=5")),
+                DataSize.parse(System.getProperty("load.upload-size", "256KB")),
+                Integer.parseInt(System.getProperty("load.max-in-flight", "2000")),
+                faultProfiles);
+    }
+
+    private static Map<Scenario, Integer> parseMix(String spec) {
+        Map<Scenario, Integer> mix = new EnumMap<>(Scenario.class);
+        for (String entry : spec.split(",")) {
+            String[] keyValue = entry.split("=", 2);
+            if (keyValue.length != 2) {
+                throw new IllegalArgumentException("Expected scenario=weight in traffic mix, got '" + entry + "'");
+            }
+            int weight = Integer.parseInt(keyValue[1].trim());
+            if (weight > 0) {
+                mix.put(Scenario.fromKey(keyValue[0].trim()), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("Traffic mix '" + spec + "' has no scenario with a positive weight");
+        }
+        return mix;
+    }
+}
@@ -0,0 +1,96 @@
+package olsh.backend.api_gateway.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and failures collected during one phase of a run, per journey and per gateway route.
+ * <p>
+ * Journey latencies are taken from the moment the journey was scheduled to start rather than from the moment
+ * it actually started, so time spent waiting behind a saturated gateway is not hidden (coordinated omission).
+ */
+class Measurements {
+
+    private final Map<Scenario, Series> journeys = new EnumMap<>(Scenario.class);
+    private final Map<String, Series> requests = new ConcurrentHashMap<>();
+    private final LongAdder dropped = new LongAdder();
+    private final long startNanos = System.nanoTime();
+    private volatile long endNanos;
+
+    Measurements() {
+        for (Scenario scenario : Scenario.values()) {
+            journeys.put(scenario, new Series());
+        }
+    }
+
+    void recordJourney(Scenario scenario, long latencyNanos, boolean succeeded) {
+        journeys.get(scenario).record(latencyNanos, succeeded ? null : "failed");
+    }
+
+    void recordRequest(String route, long latencyNanos, String failure) {
+        requests.computeIfAbsent(route, name -> new Series()).record(latencyNanos, failure);
+    }
+
+    void recordDropped() {
+        dropped.increment();
+    }
+
+    void finish() {
+        endNanos = System.nanoTime();
+    }
+
+    double elapsedSeconds() {
+        return (endNanos - startNanos) / 1e9;
+    }
+
+    Map<Scenario, Series> journeys() {
+        return journeys;
+    }
+
+    Map<String, Series> requests() {
+        return new TreeMap<>(requests);
+    }
+
+    long dropped() {
+        return dropped.sum();
+    }
+
+    long requestCount() {
+        return requests.values().stream().mapToLong(series -> series.latencies().getTotalCount()).sum();
+    }
+
+    static class Series {
+        // Microseconds, resized on demand so a stuck request is recorded instead of failing the run
+        private final Histogram latencies = new ConcurrentHistogram(3);
+        // Failure reason, e.g. an HTTP status or an exception name -> occurrences
+        private final Map<String, LongAdder> failures = new ConcurrentHashMap<>();
+
+        void record(long latencyNanos, String failure) {
+            latencies.recordValue(TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+            if (failure != null) {
+                failures.computeIfAbsent(failure, reason -> new LongAdder()).increment();
+            }
+        }
+
+        Histogram latencies() {
+            return latencies;
+        }
+
+        long failed() {
+            return failures.values().stream().mapToLong(LongAdder::sum).sum();
+        }
+
+        Map<String, Long> failuresByReason() {
+            Map<String, Long> byReason = new TreeMap<>();
+            failures.forEach((reason, count) -> byReason.put(reason, count.sum()));
+            return byReason;
+        }
+    }
+}
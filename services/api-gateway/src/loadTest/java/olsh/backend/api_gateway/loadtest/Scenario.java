@@ -0,0 +1,82 @@
+package olsh.backend.api_gateway.loadtest;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The user journeys the traffic mix is made of, each one a short sequence of gateway requests.
+ * <p>
+ * Lab ids are skewed towards low ids, a few popular labs get most of the views like on the real catalogue.
+ */
+enum Scenario {
+
+    BROWSE("browse") {
+        @Override
+        boolean run(TrafficDriver driver, String token, ThreadLocalRandom random)
+                throws IOException, InterruptedException {
+            int page = random.nextInt(1, 6);
+            return driver.get(token, "GET /api/v1/labs", "/api/v1/labs?page=" + page + "&limit=20")
+                    && driver.get(token, "GET /api/v1/articles", "/api/v1/articles?page=" + page + "&limit=20");
+        }
+    },
+    LAB_VIEW("lab-view") {
+        @Override
+        boolean run(TrafficDriver driver, String token, ThreadLocalRandom random)
+                throws IOException, InterruptedException {
+            long labId = popularLab(random);
+            return driver.get(token, "GET /api/v1/labs/{id}", "/api/v1/labs/" + labId)
+                    && driver.get(token, "GET /api/v1/labs/{id}/assets", "/api/v1/labs/" + labId + "/assets");
+        }
+    },
+    COMMENTS("comments") {
+        @Override
+        boolean run(TrafficDriver driver, String token, ThreadLocalRandom random)
+                throws IOException, InterruptedException {
+            long labId = popularLab(random);
+            String commentId = "c-" + labId + "-" + random.nextInt(20);
+            return driver.get(token, "GET /api/v1/labs/{id}/comments",
+                            "/api/v1/labs/" + labId + "/comments?page=1&limit=20")
+                    && driver.get(token, "GET /api/v1/comments/{id}/replies",
+                            "/api/v1/comments/" + commentId + "/replies");
+        }
+    },
+    UPLOAD("upload") {
+        @Override
+        boolean run(TrafficDriver driver, String token, ThreadLocalRandom random)
+                throws IOException, InterruptedException {
+            return driver.upload(token, "POST /api/v1/labs/stream", "/api/v1/labs/stream");
+        }
+    };
+
+    private final String key;
+
+    Scenario(String key) {
+        this.key = key;
+    }
+
+    String key() {
+        return key;
+    }
+
+    static Scenario fromKey(String key) {
+        for (Scenario scenario : values()) {
+            if (scenario.key.equals(key)) {
+                return scenario;
+            }
+        }
+        throw new IllegalArgumentException("Unknown scenario '" + key + "'");
+    }
+
+    /**
+     * Sends the requests of one journey of the user owning the token, stopping at the first failed one.
+     *
+     * @return whether every request succeeded
+     */
+    abstract boolean run(TrafficDriver driver, String token, ThreadLocalRandom random)
+            throws IOException, InterruptedException;
+
+    private static long popularLab(ThreadLocalRandom random) {
+        double draw = random.nextDouble();
+        return (long) (FakeBackends.LABS * draw * draw * draw) + 1;
+    }
+}
@@ -0,0 +1,170 @@
+package olsh.backend.api_gateway.loadtest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop traffic against the gateway: journeys are started at a fixed rate whatever the response times,
+ * like independent users would, each one on its own virtual thread.
+ */
+class TrafficDriver {
+
+    private final HttpClient client;
+    private final URI gateway;
+    private final LoadTestSettings settings;
+    private final Scenario[] scenarios;
+    // Cumulative weights of the scenarios, same order
+    private final int[] cumulativeWeights;
+    private final String uploadBoundary = "load-test-" + UUID.randomUUID();
+    private final byte[] uploadBody;
+    private volatile Measurements measurements;
+
+    TrafficDriver(URI gateway, LoadTestSettings settings) {
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        this.gateway = gateway;
+        this.settings = settings;
+        this.scenarios = settings.mix().keySet().toArray(Scenario[]::new);
+        this.cumulativeWeights = new int[scenarios.length];
+        int total = 0;
+        for (int i = 0; i < scenarios.length; i++) {
+            total += settings.mix().get(scenarios[i]);
+            cumulativeWeights[i] = total;
+        }
+        this.uploadBody = uploadBody(uploadBoundary, (int) settings.uploadSize().toBytes());
+    }
+
+    /**
+     * Runs the traffic mix for the given time and returns what was measured, including the journeys that were
+     * still running when the time was over.
+     */
+    Measurements run(Duration duration) {
+        Measurements phase = new Measurements();
+        measurements = phase;
+        long intervalNanos = 1_000_000_000L / settings.rate();
+        long endNanos = System.nanoTime() + duration.toNanos();
+        Semaphore inFlight = new Semaphore(settings.maxInFlight());
+        try (ExecutorService journeys = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long next = System.nanoTime(); next < endNanos; next += intervalNanos) {
+                long wait = next - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                if (!inFlight.tryAcquire()) {
+                    phase.recordDropped();
+                    continue;
+                }
+                long scheduledNanos = next;
+                journeys.execute(() -> {
+                    try {
+                        runJourney(phase, scheduledNanos);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+        phase.finish();
+        return phase;
+    }
+
+    boolean get(String token, String route, String path) throws IOException, InterruptedException {
+        return send(route, authorized(path, token).GET().build());
+    }
+
+    boolean upload(String token, String route, String path) throws IOException, InterruptedException {
+        return send(route, authorized(path, token)
+                .header("Content-Type", "multipart/form-data; boundary=" + uploadBoundary)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(uploadBody))
+                .build());
+    }
+
+    private void runJourney(Measurements phase, long scheduledNanos) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Scenario scenario = pick(random);
+        String token = FakeBackends.TOKEN_PREFIX + random.nextInt(1, FakeBackends.USERS + 1);
+        boolean succeeded;
+        try {
+            succeeded = scenario.run(this, token, random);
+        } catch (IOException e) {
+            succeeded = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        phase.recordJourney(scenario, System.nanoTime() - scheduledNanos, succeeded);
+    }
+
+    private boolean send(String route, HttpRequest request) throws IOException, InterruptedException {
+        long startNanos = System.nanoTime();
+        String failure = null;
+        try {
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() >= 400) {
+                failure = "HTTP " + response.statusCode();
+            }
+        } catch (IOException e) {
+            failure = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            measurements.recordRequest(route, System.nanoTime() - startNanos, failure);
+        }
+        return failure == null;
+    }
+
+    private HttpRequest.Builder authorized(String path, String token) {
+        return HttpRequest.newBuilder(gateway.resolve(path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", "Bearer " + token);
+    }
+
+    private Scenario pick(ThreadLocalRandom random) {
+        int draw = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < scenarios.length; i++) {
+            if (draw < cumulativeWeights[i]) {
+                return scenarios[i];
+            }
+        }
+        throw new IllegalStateException("Weight " + draw + " outside of the traffic mix");
+    }
+
+    private static byte[] uploadBody(String boundary, int assetSize) {
+        // The streamed upload expects the text fields before the files
+        ByteArrayOutputStream body = new ByteArrayOutputStream(assetSize + 4096);
+        Map<String, String> fields = Map.of("title", "Load test lab", "short_desc", "Created by the load test");
+        fields.forEach((name, value) -> write(body, "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"" + name + "\"\r\n\r\n" + value + "\r\n"));
+
+        write(body, "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"md_file\"; filename=\"lab.md\"\r\n"
+                + "Content-Type: text/markdown\r\n\r\n");
+        write(body, "# Load test lab\n\n" + "Steps of the lab, repeated to a realistic size.\n".repeat(40));
+        write(body, "\r\n--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"assets\"; filename=\"data.bin\"\r\n"
+                + "Content-Type: application/octet-stream\r\n\r\n");
+        byte[] asset = new byte[assetSize];
+        ThreadLocalRandom.current().nextBytes(asset);
+        body.writeBytes(asset);
+        write(body, "\r\n--" + boundary + "--\r\n");
+        return body.toByteArray();
+    }
+
+    private static void write(ByteArrayOutputStream body, String text) {
+        body.writeBytes(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
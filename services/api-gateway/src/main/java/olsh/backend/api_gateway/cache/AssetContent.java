@@ -0,0 +1,114 @@
+package olsh.backend.api_gateway.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Asset content opened for one response. Content on disk is read through a channel opened up front,
+ * so it stays readable when the cache evicts and deletes the file in the meantime.
+ */
+public final class AssetContent implements Closeable {
+
+    private final long size;
+    private final byte[] bytes;
+    private final FileChannel channel;
+    // Set for downloads the cache did not keep, the file is deleted on close
+    private final Path temporaryFile;
+
+    private AssetContent(long size, byte[] bytes, FileChannel channel, Path temporaryFile) {
+        this.size = size;
+        this.bytes = bytes;
+        this.channel = channel;
+        this.temporaryFile = temporaryFile;
+    }
+
+    public static AssetContent of(byte[] bytes) {
+        return new AssetContent(bytes.length, bytes, null, null);
+    }
+
+    /**
+     * Opens a cached file.
+     *
+     * @throws java.nio.file.NoSuchFileException if the file has been evicted
+     */
+    public static AssetContent open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        return new AssetContent(channel.size(), null, channel, null);
+    }
+
+    static AssetContent of(FileChannel channel, long size) {
+        return new AssetContent(size, null, channel, null);
+    }
+
+    static AssetContent temporary(FileChannel channel, long size, Path file) {
+        return new AssetContent(size, null, channel, file);
+    }
+
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Streams the content from its start. Closing the stream does not close this content.
+     */
+    public InputStream openStream() throws IOException {
+        if (bytes != null) {
+            return new ByteArrayInputStream(bytes);
+        }
+        return new FilterInputStream(Channels.newInputStream(channel.position(0))) {
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    /**
+     * Writes {@code length} bytes starting at {@code offset} to the target channel. Files are copied with
+     * {@link FileChannel#transferTo}, which only avoids the heap for socket and file targets; a channel
+     * wrapping a servlet output stream still receives the bytes through a heap buffer.
+     */
+    public void transferTo(long offset, long length, WritableByteChannel target) throws IOException {
+        if (bytes != null) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes, (int) offset, (int) length);
+            while (buffer.hasRemaining()) {
+                target.write(buffer);
+            }
+            return;
+        }
+
+        long position = offset;
+        long remaining = length;
+        while (remaining > 0) {
+            long transferred = channel.transferTo(position, remaining, target);
+            if (transferred <= 0) {
+                break;
+            }
+            position += transferred;
+            remaining -= transferred;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } finally {
+            if (temporaryFile != null) {
+                Files.deleteIfExists(temporaryFile);
+            }
+        }
+    }
+}
@@ -0,0 +1,354 @@
+package olsh.backend.api_gateway.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import olsh.backend.api_gateway.config.AssetCacheConfiguration;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed cache of downloaded lab assets.
+ * <p>
+ * Asset contents are stored once per SHA-256 hash, so the same starter archive attached to
+ * several labs takes space only once. Assets up to {@code memoryMaxEntrySize} live in an in-memory
+ * LRU, bigger ones in an LRU of files under {@code diskDirectory}. Every entry remembers the
+ * asset version it was downloaded for and is dropped as soon as a different version is requested.
+ */
+@Slf4j
+@Component
+public class AssetContentCache {
+
+    private final AssetCacheConfiguration config;
+    private final Path diskDirectory;
+
+    // All maps are guarded by the cache monitor
+    private final Map<Long, CachedAsset> assets = new HashMap<>();
+    private final LinkedHashMap<String, byte[]> memoryBlobs = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<String, Long> diskBlobs = new LinkedHashMap<>(16, 0.75f, true);
+    private long memoryBytes;
+    private long diskBytes;
+
+    public AssetContentCache(AssetCacheConfiguration config) {
+        this.config = config;
+        this.diskDirectory = Path.of(config.getDiskDirectory());
+        if (config.isEnabled()) {
+            prepareDiskDirectory();
+        }
+        log.info("Asset cache initialized: enabled={}, memory={} bytes, disk={} bytes in {}",
+                config.isEnabled(), config.getMemoryMaxBytes(), config.getDiskMaxBytes(), diskDirectory);
+    }
+
+    public synchronized Optional<CachedAsset> get(Long assetId, String version) {
+        CachedAsset cached = assets.get(assetId);
+        if (cached == null) {
+            return Optional.empty();
+        }
+        if (!cached.version().equals(version)) {
+            log.debug("Cached asset ID: {} is stale (cached version {}, current {})", assetId, cached.version(), version);
+            removeAsset(assetId);
+            return Optional.empty();
+        }
+
+        // Refresh the LRU position of the content
+        if (cached.isInMemory()) {
+            memoryBlobs.get(cached.contentHash());
+        } else {
+            diskBlobs.get(cached.contentHash());
+        }
+        return Optional.of(cached);
+    }
+
+    /**
+     * Produces the content of an asset, typically by downloading it.
+     */
+    @FunctionalInterface
+    public interface ContentSource {
+        void writeTo(OutputStream target) throws IOException;
+    }
+
+    /**
+     * Downloads the content of an asset from {@code source}, caches it and returns it opened for reading.
+     * <p>
+     * The content is hashed while it is written. Up to {@code memoryMaxEntrySize} bytes are buffered on
+     * heap, bigger content continues in a temporary file in {@code diskDirectory} that is moved into place
+     * once complete, so large assets are never held on heap as a whole. Content that does not fit into
+     * the cache is returned without being retained.
+     */
+    public AssetContent download(Long labId, Long assetId, String version, ContentSource source) throws IOException {
+        MessageDigest digest = sha256();
+        SpillingOutputStream buffer = new SpillingOutputStream(config.getMemoryMaxEntrySize(),
+                config.isEnabled() ? diskDirectory : null);
+        try (buffer) {
+            source.writeTo(new DigestOutputStream(buffer, digest));
+        } catch (IOException | RuntimeException e) {
+            buffer.discard();
+            throw e;
+        }
+        String hash = HexFormat.of().formatHex(digest.digest());
+
+        if (buffer.isInMemory()) {
+            return cacheInMemory(labId, assetId, version, hash, buffer.toByteArray());
+        }
+        return cacheOnDisk(labId, assetId, version, hash, buffer.file(), buffer.size());
+    }
+
+    private AssetContent cacheInMemory(Long labId, Long assetId, String version, String hash, byte[] content) {
+        if (!config.isEnabled()) {
+            return AssetContent.of(content);
+        }
+        synchronized (this) {
+            byte[] blob = memoryBlobs.get(hash);
+            if (blob == null) {
+                blob = content;
+                memoryBlobs.put(hash, blob);
+                memoryBytes += blob.length;
+            }
+            replaceAsset(new CachedAsset(assetId, labId, version, hash, blob.length, blob, null));
+            evictMemory();
+            log.debug("Cached asset ID: {} in memory ({} bytes, hash {})", assetId, blob.length, hash);
+            return AssetContent.of(blob);
+        }
+    }
+
+    private AssetContent cacheOnDisk(Long labId, Long assetId, String version, String hash, Path tempFile, long size)
+            throws IOException {
+        // Opened before the file is moved, so the content stays readable whatever happens to it afterwards
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(tempFile, StandardOpenOption.READ);
+        } catch (IOException e) {
+            deleteFile(tempFile);
+            throw e;
+        }
+        if (!config.isEnabled() || size > config.getDiskMaxBytes()) {
+            return AssetContent.temporary(channel, size, tempFile);
+        }
+
+        Path file = diskDirectory.resolve(hash);
+        synchronized (this) {
+            try {
+                if (diskBlobs.containsKey(hash)) {
+                    Files.delete(tempFile);
+                } else {
+                    Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    diskBlobs.put(hash, size);
+                    diskBytes += size;
+                }
+            } catch (IOException e) {
+                log.warn("Failed to store asset ID: {} in the disk cache: {}", assetId, e.getMessage());
+                return AssetContent.temporary(channel, size, tempFile);
+            }
+            registerDiskAsset(labId, assetId, version, hash, size, file);
+            evictDisk();
+        }
+        log.debug("Cached asset ID: {} on disk ({} bytes, hash {})", assetId, size, hash);
+        return AssetContent.of(channel, size);
+    }
+
+    public synchronized void invalidate(Long assetId) {
+        if (assets.containsKey(assetId)) {
+            log.debug("Invalidating cached asset ID: {}", assetId);
+            removeAsset(assetId);
+        }
+    }
+
+    public synchronized void invalidateLab(Long labId) {
+        List<Long> labAssets = assets.values().stream()
+                .filter(asset -> asset.labId().equals(labId))
+                .map(CachedAsset::assetId)
+                .toList();
+        labAssets.forEach(this::removeAsset);
+        if (!labAssets.isEmpty()) {
+            log.debug("Invalidated {} cached assets of lab ID: {}", labAssets.size(), labId);
+        }
+    }
+
+    private void registerDiskAsset(Long labId, Long assetId, String version, String hash, long size, Path file) {
+        replaceAsset(new CachedAsset(assetId, labId, version, hash, size, null, file));
+    }
+
+    private void replaceAsset(CachedAsset cached) {
+        CachedAsset previous = assets.put(cached.assetId(), cached);
+        if (previous != null && !previous.contentHash().equals(cached.contentHash())) {
+            removeBlobIfUnused(previous);
+        }
+    }
+
+    private void removeAsset(Long assetId) {
+        CachedAsset removed = assets.remove(assetId);
+        if (removed != null) {
+            removeBlobIfUnused(removed);
+        }
+    }
+
+    private void removeBlobIfUnused(CachedAsset asset) {
+        boolean shared = assets.values().stream()
+                .anyMatch(other -> other.contentHash().equals(asset.contentHash()));
+        if (shared) {
+            return;
+        }
+        if (asset.isInMemory()) {
+            byte[] blob = memoryBlobs.remove(asset.contentHash());
+            if (blob != null) {
+                memoryBytes -= blob.length;
+            }
+        } else {
+            Long size = diskBlobs.remove(asset.contentHash());
+            if (size != null) {
+                diskBytes -= size;
+                deleteFile(asset.file());
+            }
+        }
+    }
+
+    private void evictMemory() {
+        Iterator<Map.Entry<String, byte[]>> eldest = memoryBlobs.entrySet().iterator();
+        while (memoryBytes > config.getMemoryMaxBytes() && eldest.hasNext()) {
+            Map.Entry<String, byte[]> entry = eldest.next();
+            eldest.remove();
+            memoryBytes -= entry.getValue().length;
+            assets.values().removeIf(asset -> asset.isInMemory() && asset.contentHash().equals(entry.getKey()));
+        }
+    }
+
+    private void evictDisk() {
+        Iterator<Map.Entry<String, Long>> eldest = diskBlobs.entrySet().iterator();
+        while (diskBytes > config.getDiskMaxBytes() && eldest.hasNext()) {
+            Map.Entry<String, Long> entry = eldest.next();
+            eldest.remove();
+            diskBytes -= entry.getValue();
+            assets.values().removeIf(asset -> !asset.isInMemory() && asset.contentHash().equals(entry.getKey()));
+            deleteFile(diskDirectory.resolve(entry.getKey()));
+        }
+    }
+
+    private void deleteFile(Path file) {
+        // Readers that already opened the file keep reading it, the space is freed when they close it
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Failed to delete cached asset file {}: {}", file, e.getMessage());
+        }
+    }
+
+    private void prepareDiskDirectory() {
+        try {
+            Files.createDirectories(diskDirectory);
+            // The index lives in memory, so files left by a previous run cannot be trusted
+            try (Stream<Path> files = Files.list(diskDirectory)) {
+                files.forEach(this::deleteFile);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to prepare asset cache directory " + diskDirectory, e);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Buffers written bytes on heap up to a limit and continues in a temporary file beyond it.
+     * Without a directory the file is created in the default temporary-file directory.
+     */
+    private static class SpillingOutputStream extends OutputStream {
+
+        private final long memoryLimit;
+        private final Path directory;
+        private ByteArrayOutputStream memory = new ByteArrayOutputStream();
+        private Path file;
+        private OutputStream fileStream;
+        private long size;
+
+        SpillingOutputStream(long memoryLimit, Path directory) {
+            this.memoryLimit = memoryLimit;
+            this.directory = directory;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (fileStream == null && size + len > memoryLimit) {
+                spill();
+            }
+            if (fileStream != null) {
+                fileStream.write(b, off, len);
+            } else {
+                memory.write(b, off, len);
+            }
+            size += len;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (fileStream != null) {
+                fileStream.close();
+            }
+        }
+
+        boolean isInMemory() {
+            return file == null;
+        }
+
+        byte[] toByteArray() {
+            return memory.toByteArray();
+        }
+
+        Path file() {
+            return file;
+        }
+
+        long size() {
+            return size;
+        }
+
+        void discard() {
+            if (file == null) {
+                return;
+            }
+            try {
+                fileStream.close();
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Failed to delete partial asset download {}: {}", file, e.getMessage());
+            }
+        }
+
+        private void spill() throws IOException {
+            file = directory != null
+                    ? Files.createTempFile(directory, "download", ".part")
+                    : Files.createTempFile("olsh-asset", ".part");
+            fileStream = new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024);
+            memory.writeTo(fileStream);
+            memory = null;
+        }
+    }
+}
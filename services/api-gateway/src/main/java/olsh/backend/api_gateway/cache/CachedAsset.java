@@ -0,0 +1,30 @@
+package olsh.backend.api_gateway.cache;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Content of a lab asset held by {@link AssetContentCache}. Small assets keep their bytes on heap,
+ * large ones point to a file in the disk tier named after the content hash.
+ */
+public record CachedAsset(Long assetId,
+                          Long labId,
+                          String version,
+                          String contentHash,
+                          long size,
+                          byte[] content,
+                          Path file) {
+
+    public boolean isInMemory() {
+        return content != null;
+    }
+
+    /**
+     * Opens the content for reading. Once opened it stays readable until closed, even if the entry is evicted.
+     *
+     * @throws java.nio.file.NoSuchFileException if the disk entry was evicted before it could be opened
+     */
+    public AssetContent open() throws IOException {
+        return isInMemory() ? AssetContent.of(content) : AssetContent.open(file);
+    }
+}
@@ -0,0 +1,16 @@
+package olsh.backend.api_gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@ConfigurationProperties(prefix = "asset-cache")
+@Component
+@Data
+public class AssetCacheConfiguration {
+    private boolean enabled = true;
+    private long memoryMaxBytes = 64 * 1024 * 1024; // 64MB default
+    private long memoryMaxEntrySize = 1024 * 1024; // 1MB default, bigger assets go to the disk tier
+    private String diskDirectory = System.getProperty("java.io.tmpdir") + "/olsh-asset-cache";
+    private long diskMaxBytes = 2L * 1024 * 1024 * 1024; // 2GB default
+}
@@ -0,0 +1,26 @@
+package olsh.backend.api_gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+@ConfigurationProperties(prefix = "asset-compression")
+@Component
+@Data
+public class AssetCompressionConfiguration {
+    private boolean enabled = true;
+    // Uploads of these files are gzip-compressed on the wire, they compress well
+    private Set<String> textExtensions = Set.of(
+            "md", "txt", "csv", "tsv", "json", "xml", "html", "css", "js", "ts", "svg",
+            "yaml", "yml", "tex", "ipynb", "py", "java", "c", "cpp", "h", "hpp", "go", "rs", "sql");
+
+    public boolean isCompressible(String filename) {
+        if (!enabled || filename == null) {
+            return false;
+        }
+        int dot = filename.lastIndexOf('.');
+        return dot >= 0 && textExtensions.contains(filename.substring(dot + 1).toLowerCase());
+    }
+}
@@ -0,0 +1,60 @@
+package olsh.backend.api_gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "backend-resilience")
+@Component
+@Data
+public class BackendResilienceConfiguration {
+    private Limits defaults = new Limits();
+    private Map<String, LimitOverrides> backends = new HashMap<>(); // Overrides keyed by channel name
+
+    public Limits getLimitsFor(String channelName) {
+        LimitOverrides overrides = backends.get(channelName);
+        return overrides != null ? overrides.over(defaults) : defaults;
+    }
+
+    @Data
+    public static class Limits {
+        private int maxConcurrentCalls = 64; // Calls over the limit are rejected instead of queued
+        private int slidingWindowSize = 50; // Outcomes of the last calls the failure rate is computed from
+        private int minimumCalls = 20; // The circuit is never opened on fewer outcomes
+        private double failureRateThreshold = 0.5;
+        private Duration openDuration = Duration.ofSeconds(10); // Time calls fail fast before probing
+        private int halfOpenProbes = 3; // Successful probe calls needed to close the circuit again
+    }
+
+    /**
+     * Limits of one backend. Every limit left out keeps the value of {@code defaults}.
+     */
+    @Data
+    public static class LimitOverrides {
+        private Integer maxConcurrentCalls;
+        private Integer slidingWindowSize;
+        private Integer minimumCalls;
+        private Double failureRateThreshold;
+        private Duration openDuration;
+        private Integer halfOpenProbes;
+
+        Limits over(Limits defaults) {
+            Limits limits = new Limits();
+            limits.setMaxConcurrentCalls(orDefault(maxConcurrentCalls, defaults.getMaxConcurrentCalls()));
+            limits.setSlidingWindowSize(orDefault(slidingWindowSize, defaults.getSlidingWindowSize()));
+            limits.setMinimumCalls(orDefault(minimumCalls, defaults.getMinimumCalls()));
+            limits.setFailureRateThreshold(orDefault(failureRateThreshold, defaults.getFailureRateThreshold()));
+            limits.setOpenDuration(orDefault(openDuration, defaults.getOpenDuration()));
+            limits.setHalfOpenProbes(orDefault(halfOpenProbes, defaults.getHalfOpenProbes()));
+            return limits;
+        }
+
+        private static <T> T orDefault(T value, T defaultValue) {
+            return value != null ? value : defaultValue;
+        }
+    }
+}
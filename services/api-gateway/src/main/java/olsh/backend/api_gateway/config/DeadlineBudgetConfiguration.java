@@ -0,0 +1,17 @@
+package olsh.backend.api_gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "deadline-budget")
+@Component
+@Data
+public class DeadlineBudgetConfiguration {
+    private Duration requestBudget = Duration.ofSeconds(10); // Total time an HTTP request may spend on backends
+    private Duration callMargin = Duration.ofMillis(50); // Kept back from every call to handle its result
+    private Duration defaultCallTimeout = Duration.ofSeconds(5); // Calls made outside of an HTTP request
+    private Duration streamingCallTimeout = Duration.ofMinutes(5); // Asset uploads and downloads
+}
@@ -0,0 +1,44 @@
+package olsh.backend.api_gateway.config;
+
+import io.grpc.Status;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "grpc-call-policies")
+@Component
+@Data
+public class GrpcCallPolicyConfiguration {
+    private int retryThrottlingMaxTokens = 10; // Retries and hedges stop while more than half of the tokens are spent
+    private double retryThrottlingTokenRatio = 0.1; // Tokens refilled by every successful call
+    private Map<String, List<MethodPolicy>> channels = new HashMap<>(); // Keyed by channel name
+
+    public List<MethodPolicy> getPoliciesFor(String channelName) {
+        return channels.getOrDefault(channelName, List.of());
+    }
+
+    public enum Mode {
+        RETRY, // Next attempt only after the previous one failed
+        HEDGING // Next attempt after hedgingDelay without a response, the first response wins
+    }
+
+    @Data
+    public static class MethodPolicy {
+        private String service; // Fully qualified proto service name, e.g. labs.LabService
+        private List<String> methods = new ArrayList<>();
+        private Mode mode = Mode.RETRY;
+        private int maxAttempts = 3;
+        private Duration initialBackoff = Duration.ofMillis(50);
+        private Duration maxBackoff = Duration.ofMillis(500);
+        private double backoffMultiplier = 2.0;
+        private Duration hedgingDelay = Duration.ofMillis(100);
+        // Retryable codes for retries, non-fatal codes for hedging
+        private List<Status.Code> statusCodes = new ArrayList<>(List.of(Status.Code.UNAVAILABLE));
+    }
+}
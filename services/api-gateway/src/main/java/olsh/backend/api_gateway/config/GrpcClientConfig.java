@@ -1,15 +1,35 @@
 package olsh.backend.api_gateway.config;
 
 
+import io.grpc.LoadBalancerRegistry;
+import io.grpc.NameResolverRegistry;
 import lombok.extern.slf4j.Slf4j;
+import olsh.backend.api_gateway.grpc.client.AddressListNameResolverProvider;
+import olsh.backend.api_gateway.grpc.client.CallAttemptMetrics;
+import olsh.backend.api_gateway.grpc.client.GrpcChannelPool;
+import olsh.backend.api_gateway.grpc.client.LeastRequestLoadBalancerProvider;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.grpc.client.GrpcChannelFactory;
 
 @Slf4j
 @Configuration
 public class GrpcClientConfig {
 
     public GrpcClientConfig() {
+        // Registered before any channel is built, channels look up schemes and policies when they start
+        NameResolverRegistry.getDefaultRegistry().register(new AddressListNameResolverProvider());
+        LoadBalancerRegistry.getDefaultRegistry().register(new LeastRequestLoadBalancerProvider());
         log.info("gRPC client configuration initialized");
     }
-}
 
+    @Bean
+    public GrpcChannelPool grpcChannelPool(GrpcChannelFactory channelFactory,
+                                           GrpcLoadBalancingConfiguration loadBalancingConfig,
+                                           BackendResilienceConfiguration resilienceConfig,
+                                           GrpcCallPolicyConfiguration callPolicyConfig,
+                                           CallAttemptMetrics callAttemptMetrics) {
+        return new GrpcChannelPool(channelFactory, loadBalancingConfig, resilienceConfig, callPolicyConfig,
+                callAttemptMetrics);
+    }
+}
@@ -0,0 +1,20 @@
+package olsh.backend.api_gateway.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "grpc-load-balancing")
+@Component
+@Data
+public class GrpcLoadBalancingConfiguration {
+    private int channelsPerBackend = 2; // Channels opened per backend, each one connects to every address
+    private Map<String, Integer> backendChannels = new HashMap<>(); // Overrides keyed by channel name
+
+    public int getChannelsFor(String channelName) {
+        return Math.max(1, backendChannels.getOrDefault(channelName, channelsPerBackend));
+    }
+}
@@ -0,0 +1,31 @@
+package olsh.backend.api_gateway.config;
+
+import io.micrometer.observation.ObservationPredicate;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.aop.ObservedAspect;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+
+/**
+ * Observations of the gateway hot paths.
+ * <p>
+ * Incoming requests are timed per route by the servlet filter of Spring Boot ({@code http.server.requests})
+ * and every gRPC call by the client interceptor of Spring gRPC ({@code grpc.client}), which also carries the
+ * trace context to the backends. Service methods annotated with {@code @Observed} add the timings in between.
+ */
+@Configuration
+public class ObservationConfig {
+
+    @Bean
+    public ObservedAspect observedAspect(ObservationRegistry observationRegistry) {
+        return new ObservedAspect(observationRegistry);
+    }
+
+    @Bean
+    public ObservationPredicate ignoreActuatorRequests() {
+        // Scrapes and health probes would otherwise start a trace and a route timer every few seconds
+        return (name, context) -> !(context instanceof ServerRequestObservationContext serverContext)
+                || !serverContext.getCarrier().getRequestURI().startsWith("/actuator");
+    }
+}
@@ -14,6 +14,7 @@ import olsh.backend.api_gateway.service.ArticleService;
 import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import io.swagger.v3.oas.annotations.Operation;
@@ -71,6 +72,35 @@ public class ArticleController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    @Operation(
+        summary = "Create new article (streamed upload)",
+        description = "Same as creating an article, but the PDF is forwarded to storage while it is received " +
+                "instead of being buffered by the gateway first. The title, short_desc and pdf_size (bytes of the PDF) " +
+                "fields have to be sent before pdf_file. Requires authentication."
+    )
+    @io.swagger.v3.oas.annotations.parameters.RequestBody(
+        content = @Content(mediaType = MediaType.MULTIPART_FORM_DATA_VALUE,
+                schema = @Schema(implementation = CreateArticleRequest.class))
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "201",
+            description = "Article created successfully",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = CreateArticleResponse.class))
+        ),
+        @ApiResponse(responseCode = "400", description = "Invalid request data"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized - Authentication required")
+    })
+    @RequireAuth
+    @PostMapping(value = "/stream", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<CreateArticleResponse> createArticleStreaming(HttpServletRequest httpRequest) {
+        log.debug("Received streamed request to create article");
+        CreateArticleResponse response = articleService.createArticleStreaming(httpRequest,
+                attributesProvider.extractUserIdFromRequest(httpRequest));
+        log.debug("Successfully created article with ID: {}", response.getId());
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
     @Operation(
         summary = "Get article by ID",
         description = "Retrieves detailed information about a specific article by its ID. Requires authentication."
@@ -1,26 +1,53 @@
 package olsh.backend.api_gateway.controller;
 
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import com.google.protobuf.Timestamp;
 import lombok.extern.slf4j.Slf4j;
 import olsh.backend.api_gateway.annotation.RequireAuth;
+import olsh.backend.api_gateway.cache.AssetContent;
+import olsh.backend.api_gateway.cache.CachedAsset;
+import olsh.backend.api_gateway.config.AssetCompressionConfiguration;
 import olsh.backend.api_gateway.dto.request.CreateLabRequest;
+import olsh.backend.api_gateway.dto.request.CreateUploadSessionRequest;
 import olsh.backend.api_gateway.dto.request.GetLabsRequest;
+import olsh.backend.api_gateway.dto.request.UploadAssetChunkRequest;
 import olsh.backend.api_gateway.dto.response.CreateLabResponse;
 import olsh.backend.api_gateway.dto.response.DeleteLabResponse;
 import olsh.backend.api_gateway.dto.response.LabListResponse;
 import olsh.backend.api_gateway.dto.response.LabResponse;
 import olsh.backend.api_gateway.dto.response.AssetListResponse;
+import olsh.backend.api_gateway.dto.response.AssetResponse;
+import olsh.backend.api_gateway.dto.response.UploadSessionResponse;
+import olsh.backend.api_gateway.exception.AssetNotFoundException;
+import olsh.backend.api_gateway.exception.LabNotFoundException;
+import olsh.backend.api_gateway.grpc.proto.LabProto;
 import olsh.backend.api_gateway.service.LabService;
 import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.file.NoSuchFileException;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -40,11 +67,15 @@ public class LabController {
 
     private final LabService labService;
     private final RequestAttributesExtractor attributesProvider;
+    private final AssetCompressionConfiguration compressionConfig;
 
     @Autowired
-    public LabController(LabService labService, RequestAttributesExtractor attributesProvider) {
+    public LabController(LabService labService,
+                         RequestAttributesExtractor attributesProvider,
+                         AssetCompressionConfiguration compressionConfig) {
         this.labService = labService;
         this.attributesProvider  = attributesProvider;
+        this.compressionConfig = compressionConfig;
     }
 
     @Operation(
@@ -93,6 +124,35 @@ public class LabController {
         }
     }
 
+    @Operation(
+        summary = "Create new lab (streamed upload)",
+        description = "Same as creating a lab, but the files are forwarded to storage while they are received " +
+                "instead of being buffered by the gateway first. The title and short_desc fields have to be " +
+                "sent before md_file and assets. Requires authentication."
+    )
+    @io.swagger.v3.oas.annotations.parameters.RequestBody(
+        content = @Content(mediaType = MediaType.MULTIPART_FORM_DATA_VALUE,
+                schema = @Schema(implementation = CreateLabRequest.class))
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "201",
+            description = "Lab created successfully",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = CreateLabResponse.class))
+        ),
+        @ApiResponse(responseCode = "400", description = "Invalid request data"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized - Authentication required")
+    })
+    @RequireAuth
+    @PostMapping(value = "/stream", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<CreateLabResponse> createLabStreaming(HttpServletRequest httpRequest) {
+        log.debug("Received streamed request to create lab");
+        CreateLabResponse response = labService.createLabStreaming(httpRequest,
+                attributesProvider.extractUserIdFromRequest(httpRequest));
+        log.debug("Successfully created lab with ID: {}", response.getId());
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
     @Operation(
         summary = "Get lab by ID",
         description = "Retrieves detailed information about a specific laboratory work by its ID. Requires authentication."
@@ -214,26 +274,417 @@ public class LabController {
         }
     }
 
+    @Operation(
+        summary = "Start resumable asset upload",
+        description = "Opens an upload session for a large asset. The file is then sent in chunks that can be " +
+                "retried after a dropped connection. Only the lab owner can upload assets. Requires authentication."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "201",
+            description = "Upload session created",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = UploadSessionResponse.class))
+        ),
+        @ApiResponse(responseCode = "400", description = "Invalid request data"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized - Authentication required"),
+        @ApiResponse(responseCode = "403", description = "Forbidden - No access to the lab"),
+        @ApiResponse(responseCode = "404", description = "Lab not found")
+    })
+    @RequireAuth
+    @PostMapping("/{lab_id}/assets/uploads")
+    public ResponseEntity<UploadSessionResponse> startAssetUpload(
+            @Parameter(description = "ID of the lab the asset belongs to", required = true)
+            @PathVariable("lab_id") Long labId,
+            @Valid @RequestBody CreateUploadSessionRequest request,
+            HttpServletRequest httpRequest) {
+        log.debug("Received request to start upload of {} for lab ID: {}", request.getFilename(), labId);
+        Long userId = attributesProvider.extractUserIdFromRequest(httpRequest);
+        UploadSessionResponse response = labService.startAssetUpload(labId, userId, request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    @Operation(
+        summary = "Upload asset chunk",
+        description = "Appends the next chunk to an upload session. The offset has to match the one returned by " +
+                "the previous call; after a failure the current offset can be requested again. Requires authentication."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Chunk stored, the response contains the next offset or the created asset",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = UploadSessionResponse.class))
+        ),
+        @ApiResponse(responseCode = "400", description = "Invalid chunk"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized - Authentication required"),
+        @ApiResponse(responseCode = "403", description = "Forbidden - No access to the lab"),
+        @ApiResponse(responseCode = "404", description = "Lab or upload session not found"),
+        @ApiResponse(responseCode = "409", description = "Offset does not match the stored bytes")
+    })
+    @RequireAuth
+    @PutMapping("/{lab_id}/assets/uploads/{session_id}")
+    public ResponseEntity<UploadSessionResponse> uploadAssetChunk(
+            @Parameter(description = "ID of the lab the asset belongs to", required = true)
+            @PathVariable("lab_id") Long labId,
+            @Parameter(description = "ID of the upload session", required = true)
+            @PathVariable("session_id") String sessionId,
+            @Valid @ModelAttribute UploadAssetChunkRequest request,
+            HttpServletRequest httpRequest) {
+        log.debug("Received chunk at offset {} for upload session {}", request.getOffset(), sessionId);
+        Long userId = attributesProvider.extractUserIdFromRequest(httpRequest);
+        return ResponseEntity.ok(labService.uploadAssetChunk(labId, userId, sessionId, request));
+    }
+
+    @Operation(
+        summary = "Get asset upload state",
+        description = "Returns how many bytes of an upload session are stored, so a client can resume from there. " +
+                "Requires authentication."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Upload session state returned",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = UploadSessionResponse.class))
+        ),
+        @ApiResponse(responseCode = "401", description = "Unauthorized - Authentication required"),
+        @ApiResponse(responseCode = "403", description = "Forbidden - No access to the lab"),
+        @ApiResponse(responseCode = "404", description = "Lab or upload session not found")
+    })
+    @RequireAuth
+    @GetMapping("/{lab_id}/assets/uploads/{session_id}")
+    public ResponseEntity<UploadSessionResponse> getAssetUpload(
+            @Parameter(description = "ID of the lab the asset belongs to", required = true)
+            @PathVariable("lab_id") Long labId,
+            @Parameter(description = "ID of the upload session", required = true)
+            @PathVariable("session_id") String sessionId,
+            HttpServletRequest httpRequest) {
+        log.debug("Received request to get upload session {} of lab ID: {}", sessionId, labId);
+        Long userId = attributesProvider.extractUserIdFromRequest(httpRequest);
+        return ResponseEntity.ok(labService.getAssetUpload(labId, userId, sessionId));
+    }
+
+    @Operation(
+        summary = "Replace lab asset",
+        description = "Replaces the content of a lab asset, cached copies of the old content are dropped. " +
+                "Only the lab owner can replace assets. Requires authentication."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Asset replaced",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = AssetResponse.class))
+        ),
+        @ApiResponse(responseCode = "400", description = "Invalid file"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized - Authentication required"),
+        @ApiResponse(responseCode = "403", description = "Forbidden - No access to the lab"),
+        @ApiResponse(responseCode = "404", description = "Lab or asset not found")
+    })
+    @RequireAuth
+    @PutMapping(value = "/{lab_id}/assets/{asset_id}", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<AssetResponse> updateLabAsset(
+            @Parameter(description = "ID of the lab the asset belongs to", required = true)
+            @PathVariable("lab_id") Long labId,
+            @Parameter(description = "ID of the asset to replace", required = true)
+            @PathVariable("asset_id") Long assetId,
+            @RequestParam("file") MultipartFile file,
+            HttpServletRequest httpRequest) {
+        log.debug("Received request to replace asset ID: {} of lab ID: {}", assetId, labId);
+        Long userId = attributesProvider.extractUserIdFromRequest(httpRequest);
+        return ResponseEntity.ok(labService.updateLabAsset(labId, assetId, userId, file));
+    }
+
+    @Operation(
+        summary = "Delete lab asset",
+        description = "Deletes a lab asset and drops it from the gateway's asset cache. " +
+                "Only the lab owner can delete assets. Requires authentication."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Asset deleted"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized - Authentication required"),
+        @ApiResponse(responseCode = "403", description = "Forbidden - No access to the lab"),
+        @ApiResponse(responseCode = "404", description = "Lab or asset not found")
+    })
+    @RequireAuth
+    @DeleteMapping("/{lab_id}/assets/{asset_id}")
+    public ResponseEntity<Void> deleteLabAsset(
+            @Parameter(description = "ID of the lab the asset belongs to", required = true)
+            @PathVariable("lab_id") Long labId,
+            @Parameter(description = "ID of the asset to delete", required = true)
+            @PathVariable("asset_id") Long assetId,
+            HttpServletRequest httpRequest) {
+        log.debug("Received request to delete asset ID: {} of lab ID: {}", assetId, labId);
+        Long userId = attributesProvider.extractUserIdFromRequest(httpRequest);
+        labService.deleteLabAsset(labId, assetId, userId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(
+        summary = "Download lab asset",
+        description = "Downloads a lab asset. Supports single byte ranges via the Range and If-Range headers " +
+                "so interrupted downloads can be resumed. Text assets are sent with Content-Encoding: gzip " +
+                "when Accept-Encoding allows it. Requires authentication."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Whole asset returned"),
+        @ApiResponse(responseCode = "206", description = "Requested byte range returned"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized - Authentication required"),
+        @ApiResponse(responseCode = "404", description = "Lab or asset not found"),
+        @ApiResponse(responseCode = "416", description = "Requested range not satisfiable")
+    })
     @RequireAuth
     @GetMapping("/{lab_id}/assets/{asset_id}/download")
     public ResponseEntity<?> downloadLabAsset(
             @PathVariable("lab_id") Long labId,
             @PathVariable("asset_id") Long assetId,
-            HttpServletRequest request) {
-        log.debug("Received request to download asset ID: {} for lab ID: {}", assetId, labId);
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String rangeHeader,
+            @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRangeHeader,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            HttpServletRequest request,
+            HttpServletResponse response) {
+        log.debug("Received request to download asset ID: {} for lab ID: {}, range: {}", assetId, labId, rangeHeader);
         try {
-            byte[] content = labService.downloadLabAsset(assetId);
-            log.debug("Successfully downloaded asset ID: {}, size: {} bytes", assetId, content.length);
-            
-            return ResponseEntity.ok()
-                    .header("Content-Type", "application/octet-stream")
-                    .header("Content-Disposition", "attachment")
+            LabProto.Asset asset = labService.getLabAsset(labId, assetId);
+            String eTag = buildAssetETag(asset);
+            boolean storedCompressed = asset.getStoredCompressed();
+            // Compressed assets are cached as stored, which is a representation of its own
+            Optional<CachedAsset> cached = labService.findCachedLabAsset(asset,
+                    storedCompressed ? buildGzipETag(eTag) : eTag);
+            boolean acceptsGzip = acceptsGzip(acceptEncoding);
+
+            if (rangeHeader == null) {
+                return sendWholeAsset(response, asset, eTag, cached, acceptsGzip);
+            }
+            if (!isIfRangeSatisfied(ifRangeHeader, eTag, asset)) {
+                log.debug("If-Range validator does not match asset ID: {}, sending whole asset", assetId);
+                return sendWholeAsset(response, asset, eTag, cached, acceptsGzip);
+            }
+
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(rangeHeader);
+            } catch (IllegalArgumentException e) {
+                // A Range header that does not parse is ignored (RFC 9110, section 14.2)
+                log.debug("Ignoring invalid Range header for asset ID: {}: {}", assetId, rangeHeader);
+                return sendWholeAsset(response, asset, eTag, cached, acceptsGzip);
+            }
+            if (ranges.size() != 1) {
+                // Multipart byte ranges are not supported, the whole asset is a valid answer
+                return sendWholeAsset(response, asset, eTag, cached, acceptsGzip);
+            }
+
+            // Ranges always refer to the uncompressed content
+            long totalSize = storedCompressed
+                    ? asset.getTotalSize()
+                    : cached.map(CachedAsset::size).orElse(asset.getTotalSize());
+            long rangeStart;
+            long rangeEnd;
+            try {
+                rangeStart = ranges.get(0).getRangeStart(totalSize);
+                rangeEnd = ranges.get(0).getRangeEnd(totalSize);
+            } catch (IllegalArgumentException e) {
+                return buildRangeNotSatisfiableResponse(totalSize);
+            }
+            // HttpRange clamps the end to the asset but accepts any start
+            if (rangeStart >= totalSize) {
+                return buildRangeNotSatisfiableResponse(totalSize);
+            }
+            long rangeLength = rangeEnd - rangeStart + 1;
+
+            HttpHeaders headers = buildAssetHeaders(eTag, asset);
+            headers.set(HttpHeaders.CONTENT_RANGE, String.format("bytes %d-%d/%d", rangeStart, rangeEnd, totalSize));
+
+            Optional<AssetContent> cachedContent = openCached(cached);
+            if (cachedContent.isPresent()) {
+                try (AssetContent content = cachedContent.get()) {
+                    writeAsset(response, HttpStatus.PARTIAL_CONTENT, headers, content, storedCompressed,
+                            rangeStart, rangeLength);
+                }
+                log.debug("Served bytes {}-{}/{} of asset ID: {} from cache", rangeStart, rangeEnd, totalSize, assetId);
+                return null;
+            }
+
+            byte[] content = labService.downloadLabAssetRange(assetId, rangeStart, rangeLength);
+            log.debug("Successfully downloaded bytes {}-{}/{} of asset ID: {}", rangeStart, rangeEnd, totalSize, assetId);
+
+            return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+                    .headers(headers)
                     .body(content);
+        } catch (LabNotFoundException | AssetNotFoundException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Failed to download asset ID: {} for lab ID: {}", assetId, labId, e);
             return ResponseEntity.status(500).body("Failed to download asset: " + e.getMessage());
         }
     }
 
+    private ResponseEntity<?> sendWholeAsset(HttpServletResponse response,
+                                             LabProto.Asset asset,
+                                             String eTag,
+                                             Optional<CachedAsset> cached,
+                                             boolean acceptsGzip) throws IOException {
+        boolean storedCompressed = asset.getStoredCompressed();
+        // Compressed text is passed through as is to clients that can decode it
+        boolean decompress = storedCompressed && !acceptsGzip;
+        HttpHeaders headers = buildAssetHeaders(storedCompressed && acceptsGzip ? buildGzipETag(eTag) : eTag, asset);
+        if (storedCompressed && acceptsGzip) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        Optional<AssetContent> cachedContent = openCached(cached);
+        if (cachedContent.isPresent()) {
+            try (AssetContent content = cachedContent.get()) {
+                writeAsset(response, HttpStatus.OK, headers, content, decompress, 0, decompress ? -1 : content.size());
+            }
+            log.debug("Served asset ID: {} from cache, size: {} bytes", asset.getAssetId(), cached.get().size());
+            return null;
+        }
+
+        try (AssetContent content = labService.downloadAndCacheLabAsset(asset,
+                storedCompressed ? buildGzipETag(eTag) : eTag)) {
+            log.debug("Successfully downloaded asset ID: {}, size: {} bytes", asset.getAssetId(), content.size());
+            writeAsset(response, HttpStatus.OK, headers, content, decompress, 0, decompress ? -1 : content.size());
+        }
+        return null;
+    }
+
+    /**
+     * Opens a cache entry for reading, empty when there is none or its file was evicted since the lookup.
+     */
+    private Optional<AssetContent> openCached(Optional<CachedAsset> cached) throws IOException {
+        if (cached.isEmpty()) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(cached.get().open());
+        } catch (NoSuchFileException e) {
+            log.debug("Cached asset ID: {} was evicted before it could be read", cached.get().assetId());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Writes asset content straight to the servlet response, decompressing gzip-stored content on the way
+     * if asked to. A {@code length} of -1 means the rest of the content.
+     */
+    private void writeAsset(HttpServletResponse response,
+                            HttpStatus status,
+                            HttpHeaders headers,
+                            AssetContent content,
+                            boolean decompress,
+                            long offset,
+                            long length) throws IOException {
+        response.setStatus(status.value());
+        headers.forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+        if (length >= 0) {
+            response.setContentLengthLong(length);
+        }
+        if (decompress) {
+            writeDecompressed(content, offset, length, response.getOutputStream());
+        } else {
+            content.transferTo(offset, length, Channels.newChannel(response.getOutputStream()));
+        }
+    }
+
+    private void writeDecompressed(AssetContent content, long offset, long length, OutputStream target)
+            throws IOException {
+        try (InputStream source = new GZIPInputStream(content.openStream())) {
+            source.skipNBytes(offset);
+            if (length < 0) {
+                source.transferTo(target);
+                return;
+            }
+            byte[] buffer = new byte[8192];
+            long remaining = length;
+            while (remaining > 0) {
+                int read = source.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (read == -1) {
+                    throw new EOFException("Asset content ended " + remaining + " bytes before the requested range");
+                }
+                target.write(buffer, 0, read);
+                remaining -= read;
+            }
+        }
+    }
+
+    private boolean acceptsGzip(String acceptEncoding) {
+        if (!compressionConfig.isEnabled() || acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (!parts[0].trim().equalsIgnoreCase("gzip")) {
+                continue;
+            }
+            // "gzip;q=0" explicitly refuses the coding
+            return parts.length < 2 || !parts[1].trim().matches("q=0(\\.0*)?");
+        }
+        return false;
+    }
+
+    private ResponseEntity<?> buildRangeNotSatisfiableResponse(long totalSize) {
+        return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                .header(HttpHeaders.CONTENT_RANGE, "bytes */" + totalSize)
+                .build();
+    }
+
+    private HttpHeaders buildAssetHeaders(String eTag, LabProto.Asset asset) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.CONTENT_TYPE, "application/octet-stream");
+        headers.set(HttpHeaders.CONTENT_DISPOSITION, "attachment");
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (eTag != null) {
+            headers.setETag(eTag);
+        }
+        if (asset != null && asset.hasUploadDate()) {
+            headers.setLastModified(asset.getUploadDate().getSeconds() * 1000);
+        }
+        if (asset != null && asset.getStoredCompressed()) {
+            headers.set(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        return headers;
+    }
+
+    /**
+     * Strong validator of the asset content. An asset is replaced as a whole on update, which
+     * sets a new upload date, so its id, size and upload date identify one version of the file.
+     * The date is taken to the microsecond stored by labs-service, two replacements within a
+     * second still get different tags.
+     */
+    private String buildAssetETag(LabProto.Asset asset) {
+        Timestamp uploadDate = asset.getUploadDate();
+        return String.format("\"%d-%d-%d.%09d\"",
+                asset.getAssetId(), asset.getTotalSize(), uploadDate.getSeconds(), uploadDate.getNanos());
+    }
+
+    /**
+     * Entity tag of the gzip-encoded representation, which must differ from the identity one.
+     */
+    private String buildGzipETag(String eTag) {
+        return eTag.substring(0, eTag.length() - 1) + "-gzip\"";
+    }
+
+    /**
+     * Evaluates If-Range as described in RFC 9110: the range is served only when the
+     * validator still matches the current version of the asset, otherwise the whole asset is sent.
+     */
+    private boolean isIfRangeSatisfied(String ifRangeHeader, String eTag, LabProto.Asset asset) {
+        if (ifRangeHeader == null || ifRangeHeader.isBlank()) {
+            return true;
+        }
+        String validator = ifRangeHeader.trim();
+        if (validator.startsWith("\"") || validator.startsWith("W/")) {
+            // Weak entity tags never match in If-Range
+            return validator.equals(eTag);
+        }
+        if (!asset.hasUploadDate()) {
+            return false;
+        }
+        try {
+            long ifRangeSeconds = ZonedDateTime.parse(validator, DateTimeFormatter.RFC_1123_DATE_TIME).toEpochSecond();
+            return ifRangeSeconds == asset.getUploadDate().getSeconds();
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
 }
 
@@ -0,0 +1,25 @@
+package olsh.backend.api_gateway.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Request object for starting a resumable asset upload")
+public class CreateUploadSessionRequest {
+
+    @Schema(description = "Name of the uploaded file", example = "dataset.zip", required = true)
+    @NotBlank(message = "Filename is required")
+    private String filename;
+
+    @Schema(description = "Size of the whole file in bytes", example = "104857600", required = true)
+    @NotNull(message = "Total size is required")
+    @Positive(message = "Total size must be positive")
+    private Long total_size;
+}
@@ -0,0 +1,22 @@
+package olsh.backend.api_gateway.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.Data;
+import org.springframework.web.multipart.MultipartFile;
+
+@Data
+@Schema(description = "Request object carrying the next part of a resumable asset upload")
+public class UploadAssetChunkRequest {
+
+    @Schema(description = "Position of the chunk within the file, must equal the offset acknowledged by the server",
+            example = "0", required = true)
+    @NotNull(message = "Offset is required")
+    @PositiveOrZero(message = "Offset cannot be negative")
+    private Long offset;
+
+    @Schema(description = "Next part of the file", required = true)
+    @NotNull(message = "Chunk is required")
+    private MultipartFile chunk;
+}
@@ -0,0 +1,31 @@
+package olsh.backend.api_gateway.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@Schema(description = "State of a resumable asset upload")
+public class UploadSessionResponse {
+    @JsonProperty("session_id")
+    @Schema(description = "Identifier of the upload session", example = "3f1c2a9e-5b7d-4c1e-9a0f-2d8b6e4c7a13")
+    private String sessionId;
+
+    @JsonProperty("offset")
+    @Schema(description = "Bytes stored so far, the next chunk has to start here", example = "5242880")
+    private Long offset;
+
+    @JsonProperty("total_size")
+    @Schema(description = "Size of the whole file in bytes", example = "104857600")
+    private Long totalSize;
+
+    @JsonProperty("completed")
+    @Schema(description = "Whether all bytes arrived and the asset was created", example = "false")
+    private boolean completed;
+
+    @JsonProperty("asset_id")
+    @Schema(description = "Identifier of the created asset once the upload is completed", example = "12")
+    private Long assetId;
+}
@@ -5,4 +5,8 @@ public class ArticleNotFoundException extends RuntimeException{
     public ArticleNotFoundException(String message) {
         super(message);
     }
+
+    public ArticleNotFoundException(String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+    }
 }
@@ -0,0 +1,7 @@
+package olsh.backend.api_gateway.exception;
+
+public class AssetNotFoundException extends RuntimeException {
+    public AssetNotFoundException(String message) {
+        super(message);
+    }
+}
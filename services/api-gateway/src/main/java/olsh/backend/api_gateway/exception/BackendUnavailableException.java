@@ -0,0 +1,11 @@
+package olsh.backend.api_gateway.exception;
+
+public class BackendUnavailableException extends RuntimeException {
+    public BackendUnavailableException(String message) {
+        super(message);
+    }
+
+    public BackendUnavailableException(String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+    }
+}
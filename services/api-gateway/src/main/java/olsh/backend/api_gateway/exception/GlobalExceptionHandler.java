@@ -1,5 +1,7 @@
 package olsh.backend.api_gateway.exception;
 
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -40,6 +42,16 @@ import java.util.Map;
         responseCode = "500",
         description = "Internal Server Error",
         content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+    ),
+    @ApiResponse(
+        responseCode = "503",
+        description = "Service Unavailable - A backend service is overloaded or failing, retry later",
+        content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+    ),
+    @ApiResponse(
+        responseCode = "504",
+        description = "Gateway Timeout - A backend service did not respond within the request budget",
+        content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
     )
 })
 public class GlobalExceptionHandler {
@@ -58,6 +70,11 @@ public class GlobalExceptionHandler {
         return buildResponse(HttpStatus.NOT_FOUND, ex.getMessage(), "The requested lab was not found");
     }
 
+    @ExceptionHandler(AssetNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleAssetNotFoundException(AssetNotFoundException ex) {
+        return buildResponse(HttpStatus.NOT_FOUND, ex.getMessage(), "The requested asset was not found");
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<ErrorResponse> handleIllegalArgumentException(IllegalArgumentException ex) {
         return buildResponse(HttpStatus.BAD_REQUEST, "Invalid arguments were provided", ex.getMessage());
@@ -78,11 +95,26 @@ public class GlobalExceptionHandler {
         return buildResponse(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage(), "");
     }
 
+    @ExceptionHandler(UploadSessionNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleUploadSessionNotFoundException(UploadSessionNotFoundException ex) {
+        return buildResponse(HttpStatus.NOT_FOUND, ex.getMessage(), "The upload session does not exist or is already completed");
+    }
+
+    @ExceptionHandler(UploadSessionConflictException.class)
+    public ResponseEntity<ErrorResponse> handleUploadSessionConflictException(UploadSessionConflictException ex) {
+        return buildResponse(HttpStatus.CONFLICT, ex.getMessage(), "Request the upload session state and continue from its offset");
+    }
+
     @ExceptionHandler(AuthenticationException.class)
     public ResponseEntity<ErrorResponse> handleAuthenticationExceptions(AuthenticationException ex) {
         return buildResponse(HttpStatus.UNAUTHORIZED, ex.getMessage(), "");
     }
 
+    @ExceptionHandler(BackendUnavailableException.class)
+    public ResponseEntity<ErrorResponse> handleBackendUnavailableException(BackendUnavailableException ex) {
+        return buildResponse(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage(), "Retry the request later");
+    }
+
     // Use for @Valid annotations
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, String>> handleValidationExceptions(MethodArgumentNotValidException ex) {
@@ -111,6 +143,34 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGeneralException(Exception ex) {
+        BackendUnavailableException unavailable = findBackendUnavailable(ex);
+        if (unavailable != null) {
+            return handleBackendUnavailableException(unavailable);
+        }
+        if (isDeadlineExceeded(ex)) {
+            return buildResponse(HttpStatus.GATEWAY_TIMEOUT, "A backend service did not respond in time.",
+                    ex.getMessage());
+        }
         return buildResponse(HttpStatus.INTERNAL_SERVER_ERROR, "An unexpected error occurred.", ex.getMessage());
     }
+
+    // gRPC clients wrap their failures, the deadline status can be anywhere in the cause chain
+    private boolean isDeadlineExceeded(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof StatusRuntimeException statusException
+                    && statusException.getStatus().getCode() == Status.Code.DEADLINE_EXCEEDED) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private BackendUnavailableException findBackendUnavailable(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof BackendUnavailableException unavailable) {
+                return unavailable;
+            }
+        }
+        return null;
+    }
 }
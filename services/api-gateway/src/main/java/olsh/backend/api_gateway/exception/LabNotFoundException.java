@@ -4,5 +4,9 @@ public class LabNotFoundException extends RuntimeException {
     public LabNotFoundException(String message) {
         super(message);
     }
+
+    public LabNotFoundException(String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+    }
 }
 
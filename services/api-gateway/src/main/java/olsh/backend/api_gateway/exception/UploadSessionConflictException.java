@@ -0,0 +1,7 @@
+package olsh.backend.api_gateway.exception;
+
+public class UploadSessionConflictException extends RuntimeException {
+    public UploadSessionConflictException(String message) {
+        super(message);
+    }
+}
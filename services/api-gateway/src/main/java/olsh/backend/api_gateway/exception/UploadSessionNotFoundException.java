@@ -0,0 +1,7 @@
+package olsh.backend.api_gateway.exception;
+
+public class UploadSessionNotFoundException extends RuntimeException {
+    public UploadSessionNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -5,4 +5,8 @@ public class UserNotFoundException extends RuntimeException{
     public UserNotFoundException(String message) {
         super(message);
     }
+
+    public UserNotFoundException(String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+    }
 }
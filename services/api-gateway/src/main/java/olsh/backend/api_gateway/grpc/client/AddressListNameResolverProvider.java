@@ -0,0 +1,160 @@
+package olsh.backend.api_gateway.grpc.client;
+
+import io.grpc.EquivalentAddressGroup;
+import io.grpc.NameResolver;
+import io.grpc.NameResolverProvider;
+import io.grpc.Status;
+import io.grpc.StatusOr;
+import io.grpc.SynchronizationContext;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Resolves targets like {@code list:///users-1:9093,users-2:9093} to a fixed list of backend addresses.
+ * <p>
+ * Every host of the list is looked up on each resolution and contributes all of its addresses,
+ * so the load balancing policy sees one endpoint per backend replica.
+ */
+@Slf4j
+public class AddressListNameResolverProvider extends NameResolverProvider {
+
+    public static final String SCHEME = "list";
+
+    @Override
+    protected boolean isAvailable() {
+        return true;
+    }
+
+    /**
+     * Only the {@code list} scheme selects this provider, no other provider registers it. The priority
+     * decides which provider supplies the default scheme of targets written without one: staying below
+     * the 5 of gRPC's DNS provider keeps such targets on DNS whatever the registration order.
+     */
+    @Override
+    protected int priority() {
+        return 4;
+    }
+
+    @Override
+    public String getDefaultScheme() {
+        return SCHEME;
+    }
+
+    @Override
+    public Collection<Class<? extends SocketAddress>> getProducedSocketAddressTypes() {
+        return List.of(InetSocketAddress.class);
+    }
+
+    @Override
+    public NameResolver newNameResolver(URI targetUri, NameResolver.Args args) {
+        if (!SCHEME.equals(targetUri.getScheme())) {
+            return null;
+        }
+        String path = targetUri.getPath();
+        if (path == null || path.length() <= 1) {
+            throw new IllegalArgumentException("Address list is empty in target " + targetUri);
+        }
+        List<String> hostPorts = Arrays.stream(path.substring(1).split(","))
+                .map(String::trim)
+                .filter(hostPort -> !hostPort.isEmpty())
+                .toList();
+        return new AddressListNameResolver(hostPorts, args);
+    }
+
+    private static class AddressListNameResolver extends NameResolver {
+
+        private final List<String> hostPorts;
+        private final int defaultPort;
+        private final SynchronizationContext syncContext;
+        private final Executor resolveExecutor;
+        private Listener2 listener;
+        private boolean resolving;
+        private boolean shutdown;
+
+        AddressListNameResolver(List<String> hostPorts, Args args) {
+            this.hostPorts = hostPorts;
+            this.defaultPort = args.getDefaultPort();
+            this.syncContext = args.getSynchronizationContext();
+            this.resolveExecutor = args.getOffloadExecutor() != null
+                    ? args.getOffloadExecutor()
+                    : args.getScheduledExecutorService();
+        }
+
+        @Override
+        public String getServiceAuthority() {
+            return hostPorts.get(0);
+        }
+
+        @Override
+        public void start(Listener2 listener) {
+            this.listener = listener;
+            resolve();
+        }
+
+        @Override
+        public void refresh() {
+            resolve();
+        }
+
+        @Override
+        public void shutdown() {
+            shutdown = true;
+        }
+
+        private void resolve() {
+            if (resolving || shutdown) {
+                return;
+            }
+            resolving = true;
+            // Host lookups block, they must not run in the synchronization context
+            resolveExecutor.execute(() -> {
+                List<EquivalentAddressGroup> addresses = new ArrayList<>();
+                List<String> failedHosts = new ArrayList<>();
+                for (String hostPort : hostPorts) {
+                    try {
+                        addresses.addAll(lookup(hostPort));
+                    } catch (UnknownHostException | IllegalArgumentException e) {
+                        failedHosts.add(hostPort);
+                    }
+                }
+                syncContext.execute(() -> deliver(addresses, failedHosts));
+            });
+        }
+
+        private void deliver(List<EquivalentAddressGroup> addresses, List<String> failedHosts) {
+            resolving = false;
+            if (shutdown) {
+                return;
+            }
+            if (!failedHosts.isEmpty()) {
+                log.warn("Failed to resolve gRPC backend addresses: {}", failedHosts);
+            }
+            StatusOr<List<EquivalentAddressGroup>> result = addresses.isEmpty()
+                    ? StatusOr.fromStatus(Status.UNAVAILABLE.withDescription(
+                            "None of the backend addresses could be resolved: " + hostPorts))
+                    : StatusOr.fromValue(addresses);
+            listener.onResult2(ResolutionResult.newBuilder().setAddressesOrError(result).build());
+        }
+
+        private List<EquivalentAddressGroup> lookup(String hostPort) throws UnknownHostException {
+            URI uri = URI.create("//" + hostPort);
+            if (uri.getHost() == null) {
+                throw new IllegalArgumentException("Invalid backend address " + hostPort);
+            }
+            int port = uri.getPort() != -1 ? uri.getPort() : defaultPort;
+            return Arrays.stream(InetAddress.getAllByName(uri.getHost()))
+                    .map(address -> new EquivalentAddressGroup(new InetSocketAddress(address, port)))
+                    .toList();
+        }
+    }
+}
@@ -2,17 +2,18 @@ package olsh.backend.api_gateway.grpc.client;
 
 import com.google.protobuf.ByteString;
 import io.grpc.Channel;
+import io.grpc.StatusRuntimeException;
 import io.grpc.stub.StreamObserver;
 import lombok.extern.slf4j.Slf4j;
+import olsh.backend.api_gateway.config.AssetCompressionConfiguration;
 import olsh.backend.api_gateway.config.UploadFileConfiguration;
-import olsh.backend.api_gateway.exception.ArticleNotFoundException;
 import olsh.backend.api_gateway.exception.AssetUploadException;
 import olsh.backend.api_gateway.grpc.proto.ArticleProto.*;
 import olsh.backend.api_gateway.grpc.proto.ArticleServiceGrpc;
-import org.springframework.grpc.client.GrpcChannelFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.concurrent.CompletableFuture;
@@ -27,12 +28,16 @@ public class ArticleServiceClient {
     private final ArticleServiceGrpc.ArticleServiceStub asyncStub; // async
     private final ArticleServiceGrpc.ArticleServiceBlockingStub blockingStub; // sync
     private final UploadFileConfiguration uploadConfig;
+    private final AssetCompressionConfiguration compressionConfig;
 
-    public ArticleServiceClient(GrpcChannelFactory channelFactory, UploadFileConfiguration uploadConfig) {
-        Channel channel = channelFactory.createChannel("article-service");
+    public ArticleServiceClient(GrpcChannelPool channelPool,
+                                UploadFileConfiguration uploadConfig,
+                                AssetCompressionConfiguration compressionConfig) {
+        Channel channel = channelPool.channel("article-service");
         this.asyncStub = ArticleServiceGrpc.newStub(channel);
         this.blockingStub = ArticleServiceGrpc.newBlockingStub(channel);
         this.uploadConfig = uploadConfig;
+        this.compressionConfig = compressionConfig;
     }
 
     public Article createArticle(CreateArticleRequest request) {
@@ -54,7 +59,8 @@ public class ArticleServiceClient {
 
         try {
             CompletableFuture<Asset> future = new CompletableFuture<>();
-            StreamObserver<UploadAssetRequest> requestObserver = createUploadStream(future);
+            StreamObserver<UploadAssetRequest> requestObserver =
+                    createUploadStream(file.getOriginalFilename(), future);
 
             sendMetadata(requestObserver, articleId, file);
             long totalSent = streamFileContent(requestObserver, file);
@@ -79,8 +85,47 @@ public class ArticleServiceClient {
         }
     }
 
-    private StreamObserver<UploadAssetRequest> createUploadStream(CompletableFuture<Asset> future) {
-        return asyncStub.uploadAsset(new StreamObserver<Asset>() {
+    /**
+     * Uploads an asset straight from {@code content}, so the bytes never have to be buffered or spooled
+     * by the gateway. Article-service checks the received bytes against {@code totalSize}, the upload
+     * is aborted as soon as {@code content} turns out to be longer or shorter.
+     */
+    public Asset uploadAsset(Long articleId, String filename, long totalSize, InputStream content) {
+        log.debug("Starting streamed asset upload for article ID: {}, filename: {}, size: {} bytes",
+                articleId, filename, totalSize);
+
+        AssetMetadata metadata = AssetMetadata.newBuilder()
+                .setArticleId(articleId)
+                .setFilename(filename)
+                .setTotalSize(totalSize)
+                .build();
+
+        UploadStreamObserver<UploadAssetRequest, Asset> upload =
+                new UploadStreamObserver<>(uploadConfig.getTimeoutSeconds());
+        uploadStub(filename).uploadAsset(upload);
+        try {
+            upload.send(UploadAssetRequest.newBuilder().setMetadata(metadata).build());
+            long totalSent = upload.sendAll(new ExactSizeInputStream(content, totalSize),
+                    uploadConfig.getChunkSize(), chunk -> UploadAssetRequest.newBuilder().setChunk(chunk).build());
+
+            Asset result = upload.complete(uploadConfig.getTimeoutSeconds());
+            log.info("Successfully uploaded asset: ID={}, filename={}, size={} bytes",
+                    result.getAssetId(), filename, totalSent);
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AssetUploadException(e.getMessage());
+        } catch (ExecutionException e) {
+            throw new AssetUploadException(e.getMessage());
+        } catch (TimeoutException e) {
+            throw new AssetUploadException("Upload timed out after " + uploadConfig.getTimeoutSeconds() + " seconds");
+        } catch (IOException e) {
+            throw new AssetUploadException("Failed to read file content");
+        }
+    }
+
+    private StreamObserver<UploadAssetRequest> createUploadStream(String filename, CompletableFuture<Asset> future) {
+        return uploadStub(filename).uploadAsset(new StreamObserver<Asset>() {
             @Override
             public void onNext(Asset asset) {
                 log.debug("Received asset response with ID: {}", asset.getAssetId());
@@ -100,6 +145,11 @@ public class ArticleServiceClient {
         });
     }
 
+    private ArticleServiceGrpc.ArticleServiceStub uploadStub(String filename) {
+        // Binary formats are mostly compressed already, gzip would only burn CPU on them
+        return compressionConfig.isCompressible(filename) ? asyncStub.withCompression("gzip") : asyncStub;
+    }
+
     private void sendMetadata(StreamObserver<UploadAssetRequest> requestObserver, Long articleId, MultipartFile file) {
         AssetMetadata metadata = AssetMetadata.newBuilder()
                 .setArticleId(articleId)
@@ -158,11 +208,9 @@ public class ArticleServiceClient {
             log.debug("Successfully retrieved article via gRPC with ID: {}", response.getArticleId());
             return response;
 
-        } catch (Exception e) {
+        } catch (StatusRuntimeException e) {
+            GrpcStatusTranslator.rethrowTranslated(e);
             log.error("Error calling GetArticle gRPC for ID {}: {}", articleId, e.getMessage(), e);
-            if (e.getMessage().contains("NOT_FOUND")) {
-                throw new ArticleNotFoundException(String.format("Article with id=%d not found", articleId));
-            }
             throw new RuntimeException("Failed to get article via gRPC", e);
         }
     }
@@ -181,7 +229,8 @@ public class ArticleServiceClient {
                     response.getArticlesCount(), response.getTotalCount());
             return response;
 
-        } catch (Exception e) {
+        } catch (StatusRuntimeException e) {
+            GrpcStatusTranslator.rethrowTranslated(e);
             log.error("Error calling GetArticles gRPC: {}", e.getMessage(), e);
             throw new RuntimeException("Failed to get articles via gRPC", e);
         }
@@ -201,13 +250,53 @@ public class ArticleServiceClient {
             log.debug("DeleteArticle gRPC call completed with success: {}", success);
             return success;
 
-        } catch (Exception e) {
-            if (e.getMessage().contains("NOT_FOUND")) {
-                throw new ArticleNotFoundException(String.format("Article with id=%d not found", articleId));
-            }
+        } catch (StatusRuntimeException e) {
+            GrpcStatusTranslator.rethrowTranslated(e);
             log.error("Error calling DeleteArticle gRPC for ID {}: {}", articleId, e.getMessage(), e);
             throw new RuntimeException("Failed to delete article via gRPC", e);
         }
     }
 
+
+    /**
+     * Fails once {@code content} delivers more or fewer bytes than declared.
+     */
+    private static class ExactSizeInputStream extends FilterInputStream {
+
+        private final long size;
+        private long count;
+
+        ExactSizeInputStream(InputStream in, long size) {
+            super(in);
+            this.size = size;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            check(b == -1 ? -1 : 1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            check(n);
+            return n;
+        }
+
+        private void check(int n) {
+            if (n == -1) {
+                if (count != size) {
+                    throw new IllegalArgumentException(String.format("File has %d bytes instead of the declared %d",
+                            count, size));
+                }
+                return;
+            }
+            count += n;
+            if (count > size) {
+                throw new IllegalArgumentException(String.format("File exceeds the declared size of %d bytes", size));
+            }
+        }
+    }
 }
@@ -8,7 +8,6 @@ import olsh.backend.api_gateway.grpc.model.UserInfo;
 import olsh.backend.api_gateway.grpc.proto.ValidateTokenRequest;
 import olsh.backend.api_gateway.grpc.proto.ValidateTokenResponse;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.grpc.client.GrpcChannelFactory;
 import org.springframework.stereotype.Service;
 
 @Slf4j
@@ -18,8 +17,8 @@ public class AuthServiceClient {
     private final AuthServiceGrpc.AuthServiceBlockingStub authServiceStub;
 
     @Autowired
-    public AuthServiceClient(GrpcChannelFactory channelFactory) {
-        Channel channel = channelFactory.createChannel("auth-service");
+    public AuthServiceClient(GrpcChannelPool channelPool) {
+        Channel channel = channelPool.channel("auth-service");
         this.authServiceStub = AuthServiceGrpc.newBlockingStub(channel);
     }
 
@@ -32,8 +31,7 @@ public class AuthServiceClient {
 
         ValidateTokenResponse response = authServiceStub.validateToken(request);
 
-        log.debug("Token validation response received for user {} with result {}",
-                response.getUserInfo().getUsername(), response.getValid());
+        log.debug("Token validation response received with result {}", response.getValid());
 
         // Convert gRPC response to our model
         UserInfo userInfo = null;
@@ -0,0 +1,122 @@
+package olsh.backend.api_gateway.grpc.client;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ForwardingClientCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import lombok.extern.slf4j.Slf4j;
+import olsh.backend.api_gateway.config.BackendResilienceConfiguration;
+import olsh.backend.api_gateway.exception.BackendUnavailableException;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bulkhead and circuit breaker in front of one backend.
+ * <p>
+ * A call is rejected with {@link BackendUnavailableException} before it is started when the backend
+ * already has {@code maxConcurrentCalls} calls in flight or its circuit is open, so request threads
+ * never wait on a backend that is known to be overloaded or down.
+ */
+@Slf4j
+class BackendGuardInterceptor implements ClientInterceptor {
+
+    // Statuses that say something about the health of the backend, not about the request
+    private static final Set<Status.Code> FAILURES = EnumSet.of(
+            Status.Code.UNAVAILABLE,
+            Status.Code.DEADLINE_EXCEEDED,
+            Status.Code.RESOURCE_EXHAUSTED,
+            Status.Code.INTERNAL,
+            Status.Code.UNKNOWN);
+
+    private final String backend;
+    private final Semaphore bulkhead;
+    private final CircuitBreaker circuitBreaker;
+    // Rejections are frequent exactly when the gateway is under pressure, so they are shared and stackless
+    private final BackendUnavailableException overloaded;
+    private final BackendUnavailableException circuitOpen;
+
+    BackendGuardInterceptor(String backend, BackendResilienceConfiguration.Limits limits) {
+        this.backend = backend;
+        this.overloaded = new BackendUnavailableException(String.format("Service %s is overloaded", backend), false);
+        this.circuitOpen = new BackendUnavailableException(String.format("Service %s is unavailable", backend), false);
+        this.bulkhead = new Semaphore(limits.getMaxConcurrentCalls());
+        this.circuitBreaker = new CircuitBreaker(backend, limits);
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method,
+                                                               CallOptions callOptions,
+                                                               Channel next) {
+        if (!bulkhead.tryAcquire()) {
+            log.warn("Rejected call {}: too many concurrent calls to {}", method.getFullMethodName(), backend);
+            throw overloaded;
+        }
+        long epoch = circuitBreaker.tryAcquire();
+        if (epoch == CircuitBreaker.REJECTED) {
+            bulkhead.release();
+            log.debug("Rejected call {}: circuit for {} is open", method.getFullMethodName(), backend);
+            throw circuitOpen;
+        }
+        return new GuardedCall<>(next.newCall(method, callOptions), epoch);
+    }
+
+    private class GuardedCall<ReqT, RespT> extends ForwardingClientCall.SimpleForwardingClientCall<ReqT, RespT> {
+
+        private final long epoch;
+        private final AtomicBoolean started = new AtomicBoolean();
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        GuardedCall(ClientCall<ReqT, RespT> delegate, long epoch) {
+            super(delegate);
+            this.epoch = epoch;
+        }
+
+        @Override
+        public void start(Listener<RespT> responseListener, Metadata headers) {
+            started.set(true);
+            try {
+                super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<>(responseListener) {
+                    @Override
+                    public void onClose(Status status, Metadata trailers) {
+                        release(status);
+                        super.onClose(status, trailers);
+                    }
+                }, headers);
+            } catch (RuntimeException e) {
+                release(Status.fromThrowable(e));
+                throw e;
+            }
+        }
+
+        @Override
+        public void cancel(String message, Throwable cause) {
+            // A call cancelled before it was started is never closed
+            if (!started.get()) {
+                release(Status.CANCELLED);
+            }
+            super.cancel(message, cause);
+        }
+
+        private void release(Status status) {
+            if (!released.compareAndSet(false, true)) {
+                return;
+            }
+            bulkhead.release();
+            if (FAILURES.contains(status.getCode())) {
+                circuitBreaker.onFailure(epoch);
+            } else if (status.getCode() == Status.Code.CANCELLED) {
+                circuitBreaker.onIgnored(epoch);
+            } else {
+                circuitBreaker.onSuccess(epoch);
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package olsh.backend.api_gateway.grpc.client;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ClientStreamTracer;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Counts the attempts of calls to methods with a retry or hedging policy.
+ * <p>
+ * Every attempt of a call gets its own stream tracer. A call that succeeds on a later attempt was
+ * won by a retry or a hedge, the share of such calls shows whether the policy is worth its extra load.
+ * The counters are published as {@code grpc.client.policy.*} meters tagged with the full method name.
+ */
+@Component
+public class CallAttemptMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, MethodCounters> counters = new ConcurrentHashMap<>();
+
+    public CallAttemptMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    ClientInterceptor interceptor(Set<String> fullMethodNames) {
+        return new ClientInterceptor() {
+            @Override
+            public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method,
+                                                                       CallOptions callOptions,
+                                                                       Channel next) {
+                if (!fullMethodNames.contains(method.getFullMethodName())) {
+                    return next.newCall(method, callOptions);
+                }
+                MethodCounters methodCounters = counters.computeIfAbsent(method.getFullMethodName(),
+                        name -> new MethodCounters(meterRegistry, name));
+                return next.newCall(method, callOptions.withStreamTracerFactory(new AttemptTracerFactory(methodCounters)));
+            }
+        };
+    }
+
+    private static class MethodCounters {
+        private final Counter calls;
+        private final Counter extraAttempts;
+        private final Counter wonByExtraAttempt;
+
+        MethodCounters(MeterRegistry registry, String method) {
+            this.calls = Counter.builder("grpc.client.policy.calls")
+                    .description("Calls to a method with a retry or hedging policy")
+                    .tag("method", method)
+                    .register(registry);
+            this.extraAttempts = Counter.builder("grpc.client.policy.extra.attempts")
+                    .description("Retries and hedges sent in addition to the first attempt")
+                    .tag("method", method)
+                    .register(registry);
+            this.wonByExtraAttempt = Counter.builder("grpc.client.policy.extra.attempt.wins")
+                    .description("Calls that succeeded on a retry or a hedge")
+                    .tag("method", method)
+                    .register(registry);
+        }
+    }
+
+    private static class AttemptTracerFactory extends ClientStreamTracer.Factory {
+
+        private final MethodCounters counters;
+
+        AttemptTracerFactory(MethodCounters counters) {
+            this.counters = counters;
+        }
+
+        @Override
+        public ClientStreamTracer newClientStreamTracer(ClientStreamTracer.StreamInfo info, Metadata headers) {
+            // Transparent retries never reached a server, they are not attempts of the policy
+            boolean extraAttempt = info.getPreviousAttempts() > 0 && !info.isTransparentRetry();
+            if (info.getPreviousAttempts() == 0 && !info.isTransparentRetry()) {
+                counters.calls.increment();
+            } else if (extraAttempt) {
+                counters.extraAttempts.increment();
+            }
+            return new ClientStreamTracer() {
+                @Override
+                public void streamClosed(Status status) {
+                    // Attempts that lost a hedge are cancelled, only the committed one closes with OK
+                    if (extraAttempt && status.isOk()) {
+                        counters.wonByExtraAttempt.increment();
+                    }
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package olsh.backend.api_gateway.grpc.client;
+
+import olsh.backend.api_gateway.config.GrpcCallPolicyConfiguration;
+import olsh.backend.api_gateway.config.GrpcCallPolicyConfiguration.MethodPolicy;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Translates the configured method policies of a channel into a gRPC service config.
+ * <p>
+ * The map has the shape of the JSON service config, so numbers are doubles and durations are
+ * strings like {@code "0.100000000s"}.
+ */
+final class CallPolicyServiceConfig {
+
+    private CallPolicyServiceConfig() {
+    }
+
+    static Map<String, ?> build(List<MethodPolicy> policies, GrpcCallPolicyConfiguration config) {
+        List<Map<String, ?>> methodConfigs = policies.stream()
+                .map(CallPolicyServiceConfig::methodConfig)
+                .toList();
+        return Map.of(
+                "methodConfig", methodConfigs,
+                "retryThrottling", Map.of(
+                        "maxTokens", (double) config.getRetryThrottlingMaxTokens(),
+                        "tokenRatio", config.getRetryThrottlingTokenRatio()));
+    }
+
+    static Set<String> fullMethodNames(List<MethodPolicy> policies) {
+        Set<String> names = new LinkedHashSet<>();
+        for (MethodPolicy policy : policies) {
+            policy.getMethods().forEach(method -> names.add(policy.getService() + "/" + method));
+        }
+        return names;
+    }
+
+    private static Map<String, ?> methodConfig(MethodPolicy policy) {
+        List<Map<String, ?>> names = policy.getMethods().stream()
+                .<Map<String, ?>>map(method -> Map.of("service", policy.getService(), "method", method))
+                .toList();
+        List<String> statusCodes = policy.getStatusCodes().stream().map(Enum::name).toList();
+
+        Map<String, Object> methodConfig = new HashMap<>();
+        methodConfig.put("name", names);
+        if (policy.getMode() == GrpcCallPolicyConfiguration.Mode.HEDGING) {
+            methodConfig.put("hedgingPolicy", Map.of(
+                    "maxAttempts", (double) policy.getMaxAttempts(),
+                    "hedgingDelay", duration(policy.getHedgingDelay()),
+                    "nonFatalStatusCodes", statusCodes));
+        } else {
+            methodConfig.put("retryPolicy", Map.of(
+                    "maxAttempts", (double) policy.getMaxAttempts(),
+                    "initialBackoff", duration(policy.getInitialBackoff()),
+                    "maxBackoff", duration(policy.getMaxBackoff()),
+                    "backoffMultiplier", policy.getBackoffMultiplier(),
+                    "retryableStatusCodes", statusCodes));
+        }
+        return methodConfig;
+    }
+
+    private static String duration(Duration duration) {
+        return String.format("%d.%09ds", duration.getSeconds(), duration.getNano());
+    }
+}
@@ -0,0 +1,132 @@
+package olsh.backend.api_gateway.grpc.client;
+
+import lombok.extern.slf4j.Slf4j;
+import olsh.backend.api_gateway.config.BackendResilienceConfiguration;
+
+/**
+ * Count-based circuit breaker of a single backend.
+ * <p>
+ * While closed it records the outcomes of the last {@code slidingWindowSize} calls and opens once
+ * the failure rate reaches the threshold. An open circuit rejects calls for {@code openDuration},
+ * then lets {@code halfOpenProbes} calls through: the circuit closes when all of them succeed and
+ * opens again on the first failure.
+ * <p>
+ * Every permit carries the epoch it was granted in, so outcomes of calls started before the last
+ * state change do not count towards the new state.
+ */
+@Slf4j
+class CircuitBreaker {
+
+    static final long REJECTED = -1;
+
+    private enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String backend;
+    private final BackendResilienceConfiguration.Limits limits;
+    private final boolean[] window;
+
+    // Guarded by this
+    private State state = State.CLOSED;
+    private long epoch;
+    private int windowIndex;
+    private int windowCount;
+    private int windowFailures;
+    private long openedAtNanos;
+    private int probesStarted;
+    private int probesSucceeded;
+
+    CircuitBreaker(String backend, BackendResilienceConfiguration.Limits limits) {
+        this.backend = backend;
+        this.limits = limits;
+        this.window = new boolean[Math.max(1, limits.getSlidingWindowSize())];
+    }
+
+    /**
+     * @return epoch of the granted permit, or {@link #REJECTED} when the call must fail fast
+     */
+    synchronized long tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAtNanos < limits.getOpenDuration().toNanos()) {
+                return REJECTED;
+            }
+            transition(State.HALF_OPEN);
+            log.info("Circuit for {} is half-open, probing with {} calls", backend, limits.getHalfOpenProbes());
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesStarted >= limits.getHalfOpenProbes()) {
+                return REJECTED;
+            }
+            probesStarted++;
+        }
+        return epoch;
+    }
+
+    synchronized void onSuccess(long permitEpoch) {
+        if (permitEpoch != epoch) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            if (++probesSucceeded >= limits.getHalfOpenProbes()) {
+                transition(State.CLOSED);
+                log.info("Circuit for {} is closed again", backend);
+            }
+        } else if (state == State.CLOSED) {
+            record(false);
+        }
+    }
+
+    synchronized void onFailure(long permitEpoch) {
+        if (permitEpoch != epoch) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            open("a probe call failed");
+        } else if (state == State.CLOSED) {
+            record(true);
+            if (windowCount >= limits.getMinimumCalls()
+                    && windowFailures >= limits.getFailureRateThreshold() * windowCount) {
+                open(String.format("%d of the last %d calls failed", windowFailures, windowCount));
+            }
+        }
+    }
+
+    /**
+     * Gives back a permit whose call ended without telling anything about the backend, e.g. was cancelled.
+     */
+    synchronized void onIgnored(long permitEpoch) {
+        if (permitEpoch == epoch && state == State.HALF_OPEN) {
+            probesStarted--;
+        }
+    }
+
+    private void record(boolean failure) {
+        if (windowCount == window.length) {
+            if (window[windowIndex]) {
+                windowFailures--;
+            }
+        } else {
+            windowCount++;
+        }
+        window[windowIndex] = failure;
+        if (failure) {
+            windowFailures++;
+        }
+        windowIndex = (windowIndex + 1) % window.length;
+    }
+
+    private void open(String reason) {
+        transition(State.OPEN);
+        openedAtNanos = System.nanoTime();
+        log.warn("Circuit for {} is open for {}: {}", backend, limits.getOpenDuration(), reason);
+    }
+
+    private void transition(State newState) {
+        state = newState;
+        epoch++;
+        windowIndex = 0;
+        windowCount = 0;
+        windowFailures = 0;
+        probesStarted = 0;
+        probesSucceeded = 0;
+    }
+}
@@ -13,7 +13,6 @@ import olsh.backend.api_gateway.dto.response.CommentResponse;
 import olsh.backend.api_gateway.exception.CommentNotFoundException;
 import olsh.backend.api_gateway.grpc.proto.FeedbackServiceGrpc;
 import olsh.backend.api_gateway.grpc.proto.FeedbackProto;
-import org.springframework.grpc.client.GrpcChannelFactory;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
@@ -26,8 +25,8 @@ public class CommentServiceClient {
 
     private final FeedbackServiceGrpc.FeedbackServiceBlockingStub feedbackServiceStub;
 
-    public CommentServiceClient(GrpcChannelFactory channelFactory) {
-        Channel channel = channelFactory.createChannel("feedback-service");
+    public CommentServiceClient(GrpcChannelPool channelPool) {
+        Channel channel = channelPool.channel("feedback-service");
         this.feedbackServiceStub = FeedbackServiceGrpc.newBlockingStub(channel);
     }
 
@@ -0,0 +1,65 @@
+package olsh.backend.api_gateway.grpc.client;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.Context;
+import io.grpc.Deadline;
+import io.grpc.MethodDescriptor;
+import olsh.backend.api_gateway.config.DeadlineBudgetConfiguration;
+import org.springframework.grpc.client.GlobalClientInterceptor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sets the deadline of every outgoing call from the budget of the current request.
+ * <p>
+ * A unary call gets what is left of the request budget minus a margin for handling its result,
+ * or the default timeout when no budget is attached. Streaming calls transfer whole assets and get
+ * their own timeout, detached from the request budget.
+ */
+@Component
+@GlobalClientInterceptor
+public class DeadlineBudgetInterceptor implements ClientInterceptor {
+
+    private final DeadlineBudgetConfiguration config;
+
+    public DeadlineBudgetInterceptor(DeadlineBudgetConfiguration config) {
+        this.config = config;
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method,
+                                                               CallOptions callOptions,
+                                                               Channel next) {
+        if (method.getType() == MethodDescriptor.MethodType.UNARY) {
+            return next.newCall(method, callOptions.withDeadline(
+                    earliest(callOptions.getDeadline(), unaryDeadline())));
+        }
+
+        Deadline deadline = earliest(callOptions.getDeadline(),
+                Deadline.after(config.getStreamingCallTimeout().toMillis(), TimeUnit.MILLISECONDS));
+        // The call captures the current context, a forked one carries no request deadline
+        Context detached = Context.current().fork();
+        Context previous = detached.attach();
+        try {
+            return next.newCall(method, callOptions.withDeadline(deadline));
+        } finally {
+            detached.detach(previous);
+        }
+    }
+
+    private Deadline unaryDeadline() {
+        Deadline budget = Context.current().getDeadline();
+        if (budget == null) {
+            return Deadline.after(config.getDefaultCallTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        }
+        return budget.offset(-config.getCallMargin().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private static Deadline earliest(Deadline current, Deadline candidate) {
+        return current == null ? candidate : current.minimum(candidate);
+    }
+}
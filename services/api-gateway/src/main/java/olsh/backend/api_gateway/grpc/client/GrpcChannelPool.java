@@ -0,0 +1,106 @@
+package olsh.backend.api_gateway.grpc.client;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptors;
+import io.grpc.ManagedChannel;
+import io.grpc.MethodDescriptor;
+import lombok.extern.slf4j.Slf4j;
+import olsh.backend.api_gateway.config.BackendResilienceConfiguration;
+import olsh.backend.api_gateway.config.GrpcCallPolicyConfiguration;
+import olsh.backend.api_gateway.config.GrpcLoadBalancingConfiguration;
+import org.springframework.grpc.client.ChannelBuilderOptions;
+import org.springframework.grpc.client.GrpcChannelFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out pooled channels to the gRPC clients.
+ * <p>
+ * Every backend gets several channels built from the same channel configuration, and calls are spread
+ * over them in turn. Each channel resolves all addresses of the backend and balances over them with the
+ * configured policy, so a backend address is served by one HTTP/2 connection per pooled channel instead
+ * of a single connection that all concurrent streams have to share.
+ * <p>
+ * Each backend also gets its own {@link BackendGuardInterceptor}, so a degraded backend exhausts
+ * only its own call limit and not the request threads that serve the other backends.
+ * <p>
+ * Methods with a configured retry or hedging policy get it through the default service config
+ * of the channels, the guard sees all attempts of such a call as one call.
+ */
+@Slf4j
+public class GrpcChannelPool {
+
+    private final GrpcChannelFactory channelFactory;
+    private final GrpcLoadBalancingConfiguration config;
+    private final BackendResilienceConfiguration resilienceConfig;
+    private final GrpcCallPolicyConfiguration callPolicyConfig;
+    private final CallAttemptMetrics callAttemptMetrics;
+
+    public GrpcChannelPool(GrpcChannelFactory channelFactory,
+                           GrpcLoadBalancingConfiguration config,
+                           BackendResilienceConfiguration resilienceConfig,
+                           GrpcCallPolicyConfiguration callPolicyConfig,
+                           CallAttemptMetrics callAttemptMetrics) {
+        this.channelFactory = channelFactory;
+        this.config = config;
+        this.resilienceConfig = resilienceConfig;
+        this.callPolicyConfig = callPolicyConfig;
+        this.callAttemptMetrics = callAttemptMetrics;
+    }
+
+    public Channel channel(String name) {
+        int size = config.getChannelsFor(name);
+        List<GrpcCallPolicyConfiguration.MethodPolicy> policies = callPolicyConfig.getPoliciesFor(name);
+        ChannelBuilderOptions options = channelOptions(policies);
+
+        List<ManagedChannel> channels = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            // The factory builds a new channel on every call and shuts all of them down on context close
+            channels.add(channelFactory.createChannel(name, options));
+        }
+        log.info("Created pool of {} gRPC channels for {} with call policies for {}", size, name,
+                CallPolicyServiceConfig.fullMethodNames(policies));
+        Channel channel = size == 1 ? channels.get(0) : new PooledChannel(channels);
+        return ClientInterceptors.intercept(channel,
+                new RequestIdClientInterceptor(),
+                callAttemptMetrics.interceptor(CallPolicyServiceConfig.fullMethodNames(policies)),
+                new GrpcStatusTranslator(name),
+                new BackendGuardInterceptor(name, resilienceConfig.getLimitsFor(name)));
+    }
+
+    private ChannelBuilderOptions channelOptions(List<GrpcCallPolicyConfiguration.MethodPolicy> policies) {
+        if (policies.isEmpty()) {
+            return ChannelBuilderOptions.defaults();
+        }
+        Map<String, ?> serviceConfig = CallPolicyServiceConfig.build(policies, callPolicyConfig);
+        return ChannelBuilderOptions.defaults().withCustomizer(
+                (target, builder) -> builder.defaultServiceConfig(serviceConfig).enableRetry());
+    }
+
+    private static class PooledChannel extends Channel {
+
+        private final List<ManagedChannel> channels;
+        private final AtomicInteger next = new AtomicInteger();
+
+        PooledChannel(List<ManagedChannel> channels) {
+            this.channels = List.copyOf(channels);
+        }
+
+        @Override
+        public <ReqT, RespT> ClientCall<ReqT, RespT> newCall(MethodDescriptor<ReqT, RespT> method,
+                                                             CallOptions callOptions) {
+            return channels.get(Math.floorMod(next.getAndIncrement(), channels.size()))
+                    .newCall(method, callOptions);
+        }
+
+        @Override
+        public String authority() {
+            return channels.get(0).authority();
+        }
+    }
+}
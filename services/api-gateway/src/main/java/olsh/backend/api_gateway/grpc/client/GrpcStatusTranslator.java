@@ -0,0 +1,102 @@
+package olsh.backend.api_gateway.grpc.client;
+
+import com.olsh.users.proto.UsersServiceGrpc;
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ForwardingClientCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import lombok.extern.slf4j.Slf4j;
+import olsh.backend.api_gateway.exception.ArticleNotFoundException;
+import olsh.backend.api_gateway.exception.BackendUnavailableException;
+import olsh.backend.api_gateway.exception.LabNotFoundException;
+import olsh.backend.api_gateway.exception.UserNotFoundException;
+import olsh.backend.api_gateway.grpc.proto.ArticleServiceGrpc;
+import olsh.backend.api_gateway.grpc.proto.LabServiceGrpc;
+
+import java.util.Map;
+
+/**
+ * Translates failed calls of one backend into the exceptions the REST layer maps to responses.
+ * <p>
+ * The translation switches on the status code and attaches a shared, stackless exception as the cause
+ * of the status. Clients rethrow it with {@link #rethrowTranslated(StatusRuntimeException)}, so an
+ * expected miss like a 404 neither scans messages nor fills in stack traces nor logs at error level.
+ * Statuses without a translation reach the clients unchanged.
+ */
+@Slf4j
+class GrpcStatusTranslator implements ClientInterceptor {
+
+    private static final LabNotFoundException LAB_NOT_FOUND = new LabNotFoundException("Lab not found", false);
+    private static final ArticleNotFoundException ARTICLE_NOT_FOUND =
+            new ArticleNotFoundException("Article not found", false);
+    private static final UserNotFoundException USER_NOT_FOUND = new UserNotFoundException("User not found", false);
+
+    // NOT_FOUND only names the missing entity for methods that look it up by id
+    private static final Map<String, RuntimeException> NOT_FOUND = Map.of(
+            LabServiceGrpc.getGetLabMethod().getFullMethodName(), LAB_NOT_FOUND,
+            LabServiceGrpc.getDeleteLabMethod().getFullMethodName(), LAB_NOT_FOUND,
+            ArticleServiceGrpc.getGetArticleMethod().getFullMethodName(), ARTICLE_NOT_FOUND,
+            ArticleServiceGrpc.getDeleteArticleMethod().getFullMethodName(), ARTICLE_NOT_FOUND,
+            UsersServiceGrpc.getGetUserInfoMethod().getFullMethodName(), USER_NOT_FOUND);
+
+    private final BackendUnavailableException unavailable;
+
+    GrpcStatusTranslator(String backend) {
+        this.unavailable = new BackendUnavailableException(String.format("Service %s is unavailable", backend), false);
+    }
+
+    /**
+     * Throws the exception a failed call was translated to, returns when it has no translation.
+     */
+    static void rethrowTranslated(StatusRuntimeException e) {
+        if (isTranslated(e.getCause())) {
+            throw (RuntimeException) e.getCause();
+        }
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method,
+                                                               CallOptions callOptions,
+                                                               Channel next) {
+        String methodName = method.getFullMethodName();
+        return new ForwardingClientCall.SimpleForwardingClientCall<>(next.newCall(method, callOptions)) {
+            @Override
+            public void start(Listener<RespT> responseListener, Metadata headers) {
+                super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<>(responseListener) {
+                    @Override
+                    public void onClose(Status status, Metadata trailers) {
+                        super.onClose(translate(methodName, status), trailers);
+                    }
+                }, headers);
+            }
+        };
+    }
+
+    private Status translate(String methodName, Status status) {
+        RuntimeException translated = switch (status.getCode()) {
+            case NOT_FOUND -> NOT_FOUND.get(methodName);
+            case UNAVAILABLE, RESOURCE_EXHAUSTED -> unavailable;
+            default -> null;
+        };
+        if (translated == null) {
+            return status;
+        }
+        if (status.getCode() == Status.Code.NOT_FOUND) {
+            log.debug("gRPC {} found nothing: {}", methodName, status.getDescription());
+        } else {
+            log.warn("gRPC {} failed with {}: {}", methodName, status.getCode(), status.getDescription());
+        }
+        return status.withCause(translated);
+    }
+
+    private static boolean isTranslated(Throwable cause) {
+        return cause == LAB_NOT_FOUND || cause == ARTICLE_NOT_FOUND || cause == USER_NOT_FOUND
+                || cause instanceof BackendUnavailableException;
+    }
+}
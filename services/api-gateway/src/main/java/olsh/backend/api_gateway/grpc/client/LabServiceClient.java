@@ -2,19 +2,27 @@ package olsh.backend.api_gateway.grpc.client;
 
 import com.google.protobuf.ByteString;
 import io.grpc.Channel;
+import io.grpc.Context;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
 import io.grpc.stub.StreamObserver;
 import lombok.extern.slf4j.Slf4j;
+import olsh.backend.api_gateway.config.AssetCompressionConfiguration;
 import olsh.backend.api_gateway.config.UploadFileConfiguration;
 import olsh.backend.api_gateway.exception.AssetUploadException;
-import olsh.backend.api_gateway.exception.LabNotFoundException;
+import olsh.backend.api_gateway.exception.UploadSessionConflictException;
+import olsh.backend.api_gateway.exception.UploadSessionNotFoundException;
 import olsh.backend.api_gateway.grpc.proto.LabProto.*;
 import olsh.backend.api_gateway.grpc.proto.LabServiceGrpc;
-import org.springframework.grpc.client.GrpcChannelFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
@@ -27,12 +35,16 @@ public class LabServiceClient {
     private final LabServiceGrpc.LabServiceStub asyncStub;
     private final LabServiceGrpc.LabServiceBlockingStub blockingStub;
     private final UploadFileConfiguration uploadConfig;
+    private final AssetCompressionConfiguration compressionConfig;
 
-    public LabServiceClient(GrpcChannelFactory channelFactory, UploadFileConfiguration uploadConfig) {
-        Channel channel = channelFactory.createChannel("lab-service");
+    public LabServiceClient(GrpcChannelPool channelPool,
+                            UploadFileConfiguration uploadConfig,
+                            AssetCompressionConfiguration compressionConfig) {
+        Channel channel = channelPool.channel("lab-service");
         this.asyncStub = LabServiceGrpc.newStub(channel);
         this.blockingStub = LabServiceGrpc.newBlockingStub(channel);
         this.uploadConfig = uploadConfig;
+        this.compressionConfig = compressionConfig;
     }
 
     public Lab createLab(CreateLabRequest request) {
@@ -57,11 +69,9 @@ public class LabServiceClient {
             Lab response = blockingStub.getLab(request);
             log.debug("Successfully retrieved lab via gRPC with ID: {}", response.getLabId());
             return response;
-        } catch (Exception e) {
+        } catch (StatusRuntimeException e) {
+            GrpcStatusTranslator.rethrowTranslated(e);
             log.error("Error calling GetLab gRPC for ID {}: {}", labId, e.getMessage(), e);
-            if (e.getMessage().contains("NOT_FOUND")) {
-                throw new LabNotFoundException(String.format("Lab with id=%d not found", labId));
-            }
             throw new RuntimeException("Failed to get lab via gRPC", e);
         }
     }
@@ -78,7 +88,8 @@ public class LabServiceClient {
             log.debug("Successfully retrieved {} labs via gRPC (total: {})",
                     response.getLabsCount(), response.getTotalCount());
             return response;
-        } catch (Exception e) {
+        } catch (StatusRuntimeException e) {
+            GrpcStatusTranslator.rethrowTranslated(e);
             log.error("Error calling GetLabs gRPC: {}", e.getMessage(), e);
             throw new RuntimeException("Failed to get labs via gRPC", e);
         }
@@ -95,10 +106,8 @@ public class LabServiceClient {
             boolean success = response.getSuccess();
             log.debug("DeleteLab gRPC call completed with success: {}", success);
             return success;
-        } catch (Exception e) {
-            if (e.getMessage().contains("NOT_FOUND")) {
-                throw new LabNotFoundException(String.format("Lab with id=%d not found", labId));
-            }
+        } catch (StatusRuntimeException e) {
+            GrpcStatusTranslator.rethrowTranslated(e);
             log.error("Error calling DeleteLab gRPC for ID {}: {}", labId, e.getMessage(), e);
             throw new RuntimeException("Failed to delete lab via gRPC", e);
         }
@@ -108,34 +117,131 @@ public class LabServiceClient {
         log.debug("Starting asset upload for lab ID: {}, filename: {}, size: {} bytes",
                 labId, file.getOriginalFilename(), file.getSize());
 
+        UploadAssetMetadata metadata = UploadAssetMetadata.newBuilder()
+                .setLabId(labId)
+                .setFilename(file.getOriginalFilename())
+                .setTotalSize(file.getSize())
+                .build();
+
+        Asset result = upload(metadata, file);
+        log.info("Successfully uploaded asset: ID={}, filename={}, size={} bytes",
+                result.getAssetId(), file.getOriginalFilename(), file.getSize());
+    }
+
+    /**
+     * Uploads an asset straight from {@code content} without knowing its size in advance,
+     * so the bytes never have to be buffered or spooled by the gateway.
+     */
+    public Asset uploadAsset(Long labId, String filename, InputStream content) {
+        log.debug("Starting streamed asset upload for lab ID: {}, filename: {}", labId, filename);
+
+        UploadAssetMetadata metadata = UploadAssetMetadata.newBuilder()
+                .setLabId(labId)
+                .setFilename(filename)
+                .build();
+
+        UploadStreamObserver<UploadAssetRequest, Asset> upload =
+                new UploadStreamObserver<>(uploadConfig.getTimeoutSeconds());
+        uploadStub(filename).uploadAsset(upload);
+        try {
+            upload.send(UploadAssetRequest.newBuilder().setMetadata(metadata).build());
+            long totalSent = upload.sendAll(content, uploadConfig.getChunkSize(),
+                    chunk -> UploadAssetRequest.newBuilder().setChunk(chunk).build());
+
+            Asset result = upload.complete(uploadConfig.getTimeoutSeconds());
+            log.info("Successfully uploaded asset: ID={}, filename={}, size={} bytes",
+                    result.getAssetId(), filename, totalSent);
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AssetUploadException(e.getMessage());
+        } catch (ExecutionException e) {
+            throw new AssetUploadException(e.getMessage(), e.getCause());
+        } catch (TimeoutException e) {
+            throw new AssetUploadException("Upload timed out after " + uploadConfig.getTimeoutSeconds() + " seconds");
+        } catch (IOException e) {
+            throw new AssetUploadException("Failed to read file content");
+        }
+    }
+
+    /**
+     * Sends one part of a resumable upload. Without a chunk only the session is registered.
+     *
+     * @return the created asset once all bytes arrived, otherwise an asset with id 0
+     */
+    public Asset uploadAssetChunk(Long labId, String sessionId, String filename, long totalSize,
+                                  long offset, MultipartFile chunk) {
+        log.debug("Uploading chunk of session {} for lab ID: {}, offset: {}, size: {} bytes",
+                sessionId, labId, offset, chunk != null ? chunk.getSize() : 0);
+
+        UploadAssetMetadata metadata = UploadAssetMetadata.newBuilder()
+                .setLabId(labId)
+                .setFilename(filename)
+                .setTotalSize(totalSize)
+                .setSessionId(sessionId)
+                .setOffset(offset)
+                .build();
+
+        try {
+            return upload(metadata, chunk);
+        } catch (AssetUploadException e) {
+            if (e.getCause() instanceof StatusRuntimeException statusException) {
+                String description = statusException.getStatus().getDescription();
+                switch (statusException.getStatus().getCode()) {
+                    case NOT_FOUND -> throw new UploadSessionNotFoundException(description);
+                    case FAILED_PRECONDITION, ABORTED -> throw new UploadSessionConflictException(description);
+                    case INVALID_ARGUMENT -> throw new IllegalArgumentException(description);
+                    default -> throw e;
+                }
+            }
+            throw e;
+        }
+    }
+
+    public UploadSession resumeUpload(String sessionId) {
+        log.debug("Calling gRPC ResumeUpload for session: {}", sessionId);
+        try {
+            UploadSession session = blockingStub.resumeUpload(ResumeUploadRequest.newBuilder()
+                    .setSessionId(sessionId)
+                    .build());
+            log.debug("Upload session {} is at offset {} of {} bytes",
+                    sessionId, session.getCommittedOffset(), session.getTotalSize());
+            return session;
+        } catch (StatusRuntimeException e) {
+            if (e.getStatus().getCode() == Status.Code.NOT_FOUND) {
+                throw new UploadSessionNotFoundException(String.format("Upload session %s not found", sessionId));
+            }
+            log.error("Error calling ResumeUpload gRPC for session {}: {}", sessionId, e.getMessage(), e);
+            throw new RuntimeException("Failed to resume upload via gRPC", e);
+        }
+    }
+
+    private Asset upload(UploadAssetMetadata metadata, MultipartFile file) {
         try {
             CompletableFuture<Asset> future = new CompletableFuture<>();
-            StreamObserver<UploadAssetRequest> requestObserver = createUploadStream(future);
+            StreamObserver<UploadAssetRequest> requestObserver = createUploadStream(metadata.getFilename(), future);
 
-            sendMetadata(requestObserver, labId, file);
-            long totalSent = streamFileContent(requestObserver, file);
+            sendMetadata(requestObserver, metadata);
+            if (file != null) {
+                streamFileContent(requestObserver, file);
+            }
             requestObserver.onCompleted();
 
-            Asset result = future.get(uploadConfig.getTimeoutSeconds(), TimeUnit.SECONDS);
-            log.info("Successfully uploaded asset: ID={}, filename={}, size={} bytes",
-                    result.getAssetId(), file.getOriginalFilename(), totalSent);
-
+            return future.get(uploadConfig.getTimeoutSeconds(), TimeUnit.SECONDS);
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             throw new AssetUploadException(e.getMessage());
         } catch (ExecutionException e) {
-            throw new AssetUploadException(e.getMessage());
+            throw new AssetUploadException(e.getMessage(), e.getCause());
         } catch (TimeoutException e) {
             throw new AssetUploadException("Upload timed out after " + uploadConfig.getTimeoutSeconds() + " seconds");
         } catch (IOException e) {
             throw new AssetUploadException("Failed to read file content");
-        } catch (Exception e) {
-            throw e;
         }
     }
 
-    private StreamObserver<UploadAssetRequest> createUploadStream(CompletableFuture<Asset> future) {
-        return asyncStub.uploadAsset(new StreamObserver<Asset>() {
+    private StreamObserver<UploadAssetRequest> createUploadStream(String filename, CompletableFuture<Asset> future) {
+        return uploadStub(filename).uploadAsset(new StreamObserver<Asset>() {
             @Override
             public void onNext(Asset asset) {
                 log.debug("Received asset response with ID: {}", asset.getAssetId());
@@ -155,19 +261,18 @@ public class LabServiceClient {
         });
     }
 
-    private void sendMetadata(StreamObserver<UploadAssetRequest> requestObserver, Long labId, MultipartFile file) {
-        UploadAssetMetadata metadata = UploadAssetMetadata.newBuilder()
-                .setLabId(labId)
-                .setFilename(file.getOriginalFilename())
-                .setTotalSize(file.getSize())
-                .build();
+    private LabServiceGrpc.LabServiceStub uploadStub(String filename) {
+        // Binary formats are mostly compressed already, gzip would only burn CPU on them
+        return compressionConfig.isCompressible(filename) ? asyncStub.withCompression("gzip") : asyncStub;
+    }
 
+    private void sendMetadata(StreamObserver<UploadAssetRequest> requestObserver, UploadAssetMetadata metadata) {
         UploadAssetRequest metadataRequest = UploadAssetRequest.newBuilder()
                 .setMetadata(metadata)
                 .build();
 
         requestObserver.onNext(metadataRequest);
-        log.debug("Sent metadata: filename={}, size={} bytes", file.getOriginalFilename(), file.getSize());
+        log.debug("Sent metadata: filename={}, size={} bytes", metadata.getFilename(), metadata.getTotalSize());
     }
 
     private long streamFileContent(StreamObserver<UploadAssetRequest> requestObserver, MultipartFile file) throws IOException {
@@ -203,23 +308,125 @@ public class LabServiceClient {
             AssetList response = blockingStub.listAssets(request);
             log.debug("Successfully listed {} assets for lab ID: {}", response.getTotalCount(), labId);
             return response;
-        } catch (Exception e) {
+        } catch (StatusRuntimeException e) {
+            GrpcStatusTranslator.rethrowTranslated(e);
             log.error("Failed to list assets for lab ID: {}", labId, e);
             throw e;
         }
     }
 
-    public byte[] downloadAsset(Long assetId) {
-        log.debug("Downloading asset with ID: {}", assetId);
-        
+    /**
+     * Replaces the content of an asset, lab-service gives it a new upload date.
+     */
+    public Asset updateAsset(Long assetId, MultipartFile file) {
+        log.debug("Starting asset update for asset ID: {}, filename: {}, size: {} bytes",
+                assetId, file.getOriginalFilename(), file.getSize());
+
+        UpdateAssetMetadata metadata = UpdateAssetMetadata.newBuilder()
+                .setAssetId(assetId)
+                .setFilename(file.getOriginalFilename())
+                .setTotalSize(file.getSize())
+                .build();
+
+        UploadStreamObserver<UpdateAssetRequest, Asset> upload =
+                new UploadStreamObserver<>(uploadConfig.getTimeoutSeconds());
+        uploadStub(file.getOriginalFilename()).updateAsset(upload);
+        try (InputStream content = file.getInputStream()) {
+            upload.send(UpdateAssetRequest.newBuilder().setMetadata(metadata).build());
+            upload.sendAll(content, uploadConfig.getChunkSize(),
+                    chunk -> UpdateAssetRequest.newBuilder().setChunk(chunk).build());
+
+            Asset result = upload.complete(uploadConfig.getTimeoutSeconds());
+            log.info("Successfully updated asset: ID={}, filename={}, size={} bytes",
+                    result.getAssetId(), file.getOriginalFilename(), file.getSize());
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AssetUploadException(e.getMessage());
+        } catch (ExecutionException e) {
+            throw new AssetUploadException(e.getMessage(), e.getCause());
+        } catch (TimeoutException e) {
+            throw new AssetUploadException("Upload timed out after " + uploadConfig.getTimeoutSeconds() + " seconds");
+        } catch (IOException e) {
+            throw new AssetUploadException("Failed to read file content");
+        }
+    }
+
+    public boolean deleteAsset(Long assetId) {
+        log.debug("Calling gRPC DeleteAsset for asset ID: {}", assetId);
+        try {
+            DeleteAssetResponse response = blockingStub.deleteAsset(DeleteAssetRequest.newBuilder()
+                    .setAssetId(assetId)
+                    .build());
+            boolean success = response.getSuccess();
+            log.debug("DeleteAsset gRPC call completed with success: {}", success);
+            return success;
+        } catch (StatusRuntimeException e) {
+            GrpcStatusTranslator.rethrowTranslated(e);
+            log.error("Error calling DeleteAsset gRPC for ID {}: {}", assetId, e.getMessage(), e);
+            throw new RuntimeException("Failed to delete asset via gRPC", e);
+        }
+    }
+
+    /**
+     * Streams a whole asset into {@code target} chunk by chunk, so the asset is never buffered here.
+     *
+     * @param assetId the asset to download
+     * @param storedForm whether to download the stored form, i.e. gzip-compressed when
+     *                   {@link Asset#getStoredCompressed()} is set
+     * @param target the stream the content is written to
+     * @throws IOException if writing to {@code target} fails, the download is cancelled then
+     */
+    public void downloadAsset(Long assetId, boolean storedForm, OutputStream target) throws IOException {
+        log.debug("Downloading asset with ID: {}, stored form: {}", assetId, storedForm);
+
         DownloadAssetRequest request = DownloadAssetRequest.newBuilder()
                 .setAssetId(assetId)
+                .setAcceptCompressed(storedForm)
                 .build();
+        long size = download(request, target);
+        log.debug("Successfully downloaded asset ID: {}, size: {} bytes", assetId, size);
+    }
+
+    /**
+     * Downloads a byte range of an asset. Only the requested range is streamed over gRPC.
+     *
+     * @param assetId the asset to download
+     * @param offset the first byte to download
+     * @param length the number of bytes to download, 0 for the rest of the file
+     * @return the downloaded bytes
+     */
+    public byte[] downloadAsset(Long assetId, long offset, long length) {
+        log.debug("Downloading asset with ID: {}, offset: {}, length: {}", assetId, offset, length);
         
+        DownloadAssetRequest request = DownloadAssetRequest.newBuilder()
+                .setAssetId(assetId)
+                .setOffset(offset)
+                .setLength(length)
+                .build();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
         try {
-            java.io.ByteArrayOutputStream outputStream = new java.io.ByteArrayOutputStream();
-            
-            java.util.Iterator<DownloadAssetResponse> responseIterator = blockingStub.downloadAsset(request);
+            download(request, outputStream);
+        } catch (IOException e) {
+            // Not thrown by a ByteArrayOutputStream
+            throw new UncheckedIOException(e);
+        }
+        byte[] result = outputStream.toByteArray();
+        log.debug("Successfully downloaded asset ID: {}, size: {} bytes", assetId, result.length);
+        return result;
+    }
+
+    /**
+     * Writes the chunks of a download to {@code target} and returns the number of bytes written. The call
+     * runs in a context of its own that is cancelled when this returns, so a download abandoned half way
+     * does not keep streaming.
+     */
+    private long download(DownloadAssetRequest request, OutputStream target) throws IOException {
+        long assetId = request.getAssetId();
+        Context.CancellableContext context = Context.current().withCancellation();
+        Context previous = context.attach();
+        try {
+            Iterator<DownloadAssetResponse> responseIterator = blockingStub.downloadAsset(request);
             
             // First response should contain asset metadata
             if (responseIterator.hasNext()) {
@@ -231,21 +438,24 @@ public class LabServiceClient {
             }
             
             // Subsequent responses contain file chunks
+            long size = 0;
             while (responseIterator.hasNext()) {
                 DownloadAssetResponse response = responseIterator.next();
                 if (response.hasChunk()) {
-                    outputStream.write(response.getChunk().toByteArray());
+                    response.getChunk().writeTo(target);
+                    size += response.getChunk().size();
                 }
             }
-            
-            byte[] result = outputStream.toByteArray();
-            log.debug("Successfully downloaded asset ID: {}, size: {} bytes", assetId, result.length);
-            return result;
-            
+            return size;
+        } catch (IOException e) {
+            log.error("Failed to write downloaded asset ID: {}", assetId, e);
+            throw e;
         } catch (Exception e) {
             log.error("Failed to download asset ID: {}", assetId, e);
             throw new RuntimeException("Failed to download asset", e);
+        } finally {
+            context.detach(previous);
+            context.cancel(null);
         }
     }
 }
-
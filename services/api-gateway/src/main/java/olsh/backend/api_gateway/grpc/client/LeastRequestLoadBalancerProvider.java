@@ -0,0 +1,155 @@
+package olsh.backend.api_gateway.grpc.client;
+
+import io.grpc.ClientStreamTracer;
+import io.grpc.ConnectivityState;
+import io.grpc.LoadBalancer;
+import io.grpc.LoadBalancerProvider;
+import io.grpc.Metadata;
+import io.grpc.NameResolver;
+import io.grpc.Status;
+import io.grpc.util.MultiChildLoadBalancer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * {@code least_request} load balancing policy: of two randomly chosen ready backends the one
+ * with fewer calls in flight gets the call.
+ * <p>
+ * Unlike {@code round_robin} it steers calls away from a replica that answers slowly,
+ * e.g. while it hashes passwords or runs a long query.
+ */
+public class LeastRequestLoadBalancerProvider extends LoadBalancerProvider {
+
+    public static final String POLICY_NAME = "least_request";
+
+    @Override
+    public boolean isAvailable() {
+        return true;
+    }
+
+    @Override
+    public int getPriority() {
+        return 5;
+    }
+
+    @Override
+    public String getPolicyName() {
+        return POLICY_NAME;
+    }
+
+    @Override
+    public LoadBalancer newLoadBalancer(LoadBalancer.Helper helper) {
+        return new LeastRequestLoadBalancer(helper);
+    }
+
+    @Override
+    public NameResolver.ConfigOrError parseLoadBalancingPolicyConfig(Map<String, ?> rawConfig) {
+        return NameResolver.ConfigOrError.fromConfig(POLICY_NAME);
+    }
+
+    private static class LeastRequestLoadBalancer extends MultiChildLoadBalancer {
+
+        // Calls in flight per backend, kept across picker updates
+        private final Map<Object, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+
+        LeastRequestLoadBalancer(Helper helper) {
+            super(helper);
+        }
+
+        @Override
+        protected void updateOverallBalancingState() {
+            Collection<ChildLbState> children = getChildLbStates();
+            Set<Object> keys = children.stream().map(ChildLbState::getKey).collect(Collectors.toSet());
+            inFlight.keySet().retainAll(keys);
+
+            List<ChildLbState> ready = getReadyChildren();
+            if (!ready.isEmpty()) {
+                updateBalancingState(ConnectivityState.READY, new LeastRequestPicker(ready));
+                return;
+            }
+            boolean connecting = children.stream()
+                    .map(ChildLbState::getCurrentState)
+                    .anyMatch(state -> state == ConnectivityState.CONNECTING || state == ConnectivityState.IDLE);
+            if (connecting) {
+                updateBalancingState(ConnectivityState.CONNECTING, new FixedResultPicker(PickResult.withNoResult()));
+            } else {
+                // The children pickers report why their backends are failing
+                updateBalancingState(ConnectivityState.TRANSIENT_FAILURE, new LeastRequestPicker(children));
+            }
+        }
+
+        private void updateBalancingState(ConnectivityState state, SubchannelPicker picker) {
+            currentConnectivityState = state;
+            getHelper().updateBalancingState(state, picker);
+        }
+
+        private class LeastRequestPicker extends SubchannelPicker {
+
+            private final List<SubchannelPicker> pickers = new ArrayList<>();
+            private final List<AtomicInteger> counters = new ArrayList<>();
+
+            LeastRequestPicker(Collection<ChildLbState> children) {
+                for (ChildLbState child : children) {
+                    pickers.add(child.getCurrentPicker());
+                    counters.add(inFlight.computeIfAbsent(child.getKey(), key -> new AtomicInteger()));
+                }
+            }
+
+            @Override
+            public PickResult pickSubchannel(PickSubchannelArgs args) {
+                int index = choose();
+                PickResult result = pickers.get(index).pickSubchannel(args);
+                if (result.getSubchannel() == null || result.getStreamTracerFactory() != null) {
+                    return result;
+                }
+                return PickResult.withSubchannel(result.getSubchannel(), new InFlightTracerFactory(counters.get(index)));
+            }
+
+            private int choose() {
+                int size = pickers.size();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                int first = random.nextInt(size);
+                if (size == 1) {
+                    return first;
+                }
+                int second = random.nextInt(size - 1);
+                if (second >= first) {
+                    second++;
+                }
+                return counters.get(second).get() < counters.get(first).get() ? second : first;
+            }
+        }
+    }
+
+    private static class InFlightTracerFactory extends ClientStreamTracer.Factory {
+
+        private final AtomicInteger counter;
+
+        InFlightTracerFactory(AtomicInteger counter) {
+            this.counter = counter;
+        }
+
+        @Override
+        public ClientStreamTracer newClientStreamTracer(ClientStreamTracer.StreamInfo info, Metadata headers) {
+            counter.incrementAndGet();
+            AtomicBoolean closed = new AtomicBoolean();
+            return new ClientStreamTracer() {
+                @Override
+                public void streamClosed(Status status) {
+                    if (closed.compareAndSet(false, true)) {
+                        counter.decrementAndGet();
+                    }
+                }
+            };
+        }
+    }
+}
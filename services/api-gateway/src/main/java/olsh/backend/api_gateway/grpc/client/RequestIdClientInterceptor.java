@@ -0,0 +1,38 @@
+package olsh.backend.api_gateway.grpc.client;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ForwardingClientCall;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import olsh.backend.api_gateway.interceptor.RequestIdFilter;
+import org.slf4j.MDC;
+
+/**
+ * Sends the id of the HTTP request being handled as {@code x-request-id}, so backend logs can be matched
+ * with the gateway's.
+ */
+class RequestIdClientInterceptor implements ClientInterceptor {
+
+    private static final Metadata.Key<String> REQUEST_ID =
+            Metadata.Key.of("x-request-id", Metadata.ASCII_STRING_MARSHALLER);
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method,
+                                                               CallOptions callOptions,
+                                                               Channel next) {
+        String requestId = MDC.get(RequestIdFilter.MDC_KEY);
+        if (requestId == null) {
+            return next.newCall(method, callOptions);
+        }
+        return new ForwardingClientCall.SimpleForwardingClientCall<>(next.newCall(method, callOptions)) {
+            @Override
+            public void start(Listener<RespT> responseListener, Metadata headers) {
+                headers.put(REQUEST_ID, requestId);
+                super.start(responseListener, headers);
+            }
+        };
+    }
+}
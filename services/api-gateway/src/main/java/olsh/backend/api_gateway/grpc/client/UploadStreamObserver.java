@@ -0,0 +1,117 @@
+package olsh.backend.api_gateway.grpc.client;
+
+import com.google.protobuf.ByteString;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Client side of an upload stream that is fed from an {@link InputStream} of unknown length.
+ * <p>
+ * The sending thread waits until the transport is ready for the next message, so a client that
+ * uploads faster than the backend consumes never makes the gateway queue the whole file in memory.
+ */
+@Slf4j
+class UploadStreamObserver<ReqT, RespT> implements ClientResponseObserver<ReqT, RespT> {
+
+    private final CompletableFuture<RespT> result = new CompletableFuture<>();
+    private final Object readyMonitor = new Object();
+    private final long idleTimeoutMillis;
+    private ClientCallStreamObserver<ReqT> requestStream;
+
+    UploadStreamObserver(long idleTimeoutSeconds) {
+        this.idleTimeoutMillis = TimeUnit.SECONDS.toMillis(idleTimeoutSeconds);
+    }
+
+    @Override
+    public void beforeStart(ClientCallStreamObserver<ReqT> requestStream) {
+        this.requestStream = requestStream;
+        requestStream.setOnReadyHandler(this::wakeUp);
+    }
+
+    @Override
+    public void onNext(RespT response) {
+        result.complete(response);
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        log.error("gRPC upload stream error: {}", t.getMessage(), t);
+        result.completeExceptionally(t);
+        wakeUp();
+    }
+
+    @Override
+    public void onCompleted() {
+        log.debug("Upload stream completed successfully");
+    }
+
+    void send(ReqT message) throws InterruptedException, TimeoutException {
+        awaitReady();
+        if (!result.isDone()) {
+            requestStream.onNext(message);
+        }
+    }
+
+    /**
+     * Forwards {@code content} in chunks of {@code chunkSize} bytes. Stops early when the backend
+     * already answered, and cancels the call when reading the content fails.
+     *
+     * @return number of bytes sent
+     */
+    long sendAll(InputStream content, int chunkSize, Function<ByteString, ReqT> toRequest)
+            throws IOException, InterruptedException, TimeoutException {
+        byte[] buffer = new byte[chunkSize];
+        long totalSent = 0;
+        try {
+            int bytesRead;
+            while (!result.isDone() && (bytesRead = content.read(buffer)) != -1) {
+                send(toRequest.apply(ByteString.copyFrom(buffer, 0, bytesRead)));
+                totalSent += bytesRead;
+                log.trace("Sent chunk of {} bytes", bytesRead);
+            }
+        } catch (Exception e) {
+            cancel(e);
+            throw e;
+        }
+        return totalSent;
+    }
+
+    RespT complete(long timeoutSeconds) throws InterruptedException, ExecutionException, TimeoutException {
+        if (!result.isDone()) {
+            requestStream.onCompleted();
+        }
+        return result.get(timeoutSeconds, TimeUnit.SECONDS);
+    }
+
+    private void cancel(Throwable cause) {
+        requestStream.cancel("Upload aborted by the gateway", cause);
+    }
+
+    private void awaitReady() throws InterruptedException, TimeoutException {
+        long deadline = System.currentTimeMillis() + idleTimeoutMillis;
+        synchronized (readyMonitor) {
+            while (!requestStream.isReady() && !result.isDone()) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    throw new TimeoutException("Upload stream was not ready for " + idleTimeoutMillis + " ms");
+                }
+                readyMonitor.wait(remaining);
+            }
+        }
+    }
+
+    private void wakeUp() {
+        synchronized (readyMonitor) {
+            readyMonitor.notifyAll();
+        }
+    }
+}
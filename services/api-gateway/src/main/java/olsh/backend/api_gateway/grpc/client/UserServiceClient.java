@@ -4,11 +4,10 @@ import com.olsh.users.proto.GetUserInfoRequest;
 import com.olsh.users.proto.UserInfoResponse;
 import com.olsh.users.proto.UsersServiceGrpc;
 import io.grpc.Channel;
+import io.grpc.StatusRuntimeException;
 import lombok.extern.slf4j.Slf4j;
-import olsh.backend.api_gateway.exception.UserNotFoundException;
 import olsh.backend.api_gateway.grpc.model.UserData;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.grpc.client.GrpcChannelFactory;
 import org.springframework.stereotype.Service;
 
 @Slf4j
@@ -18,8 +17,8 @@ public class UserServiceClient {
     private final UsersServiceGrpc.UsersServiceBlockingStub userServiceStub;
 
     @Autowired
-    public UserServiceClient(GrpcChannelFactory channelFactory) {
-        Channel channel = channelFactory.createChannel("user-service");
+    public UserServiceClient(GrpcChannelPool channelPool) {
+        Channel channel = channelPool.channel("user-service");
         this.userServiceStub = UsersServiceGrpc.newBlockingStub(channel);
     }
     
@@ -33,10 +32,8 @@ public class UserServiceClient {
         UserInfoResponse response;
         try {
             response = userServiceStub.getUserInfo(request);
-        }catch (Exception e){
-            if (e.getMessage().contains("NOT_FOUND")){
-                throw new UserNotFoundException(String.format("User with id=%d not found", userId));
-            }
+        } catch (StatusRuntimeException e) {
+            GrpcStatusTranslator.rethrowTranslated(e);
             throw e;
         }
 
@@ -0,0 +1,70 @@
+package olsh.backend.api_gateway.interceptor;
+
+import io.grpc.Context;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import olsh.backend.api_gateway.config.DeadlineBudgetConfiguration;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gives every HTTP request a deadline budget for its backend calls.
+ * <p>
+ * The budget is attached as the deadline of the current gRPC {@link Context}, so every call made while
+ * handling the request sees how much time is left and the deadline travels to the backends with it.
+ * Multipart uploads are exempt: their duration depends on the client, they are bounded by upload timeouts.
+ */
+@Slf4j
+@Component
+public class DeadlineBudgetFilter extends OncePerRequestFilter {
+
+    private final DeadlineBudgetConfiguration config;
+    private final ScheduledExecutorService deadlineScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "deadline-budget");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public DeadlineBudgetFilter(DeadlineBudgetConfiguration config) {
+        this.config = config;
+        log.info("Deadline budget initialized: request={}, margin={}, default call={}",
+                config.getRequestBudget(), config.getCallMargin(), config.getDefaultCallTimeout());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return contentType != null && contentType.toLowerCase().startsWith(MediaType.MULTIPART_FORM_DATA_VALUE);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Context.CancellableContext budget = Context.current()
+                .withDeadlineAfter(config.getRequestBudget().toMillis(), TimeUnit.MILLISECONDS, deadlineScheduler);
+        Context previous = budget.attach();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            budget.detach(previous);
+            // Releases the deadline timer and cancels calls that outlived the request
+            budget.cancel(null);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        deadlineScheduler.shutdownNow();
+    }
+}
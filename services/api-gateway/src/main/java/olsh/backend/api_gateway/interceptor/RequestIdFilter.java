@@ -0,0 +1,44 @@
+package olsh.backend.api_gateway.interceptor;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import olsh.backend.shared.logging.RequestIds;
+import org.slf4j.MDC;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Tags every HTTP request with a request id.
+ * <p>
+ * The id is taken from {@code X-Request-Id}, or generated when the header is missing or not a short id
+ * of letters, digits, dots, dashes and underscores. It is returned in the response and kept in the MDC
+ * while the request is handled. Log lines show it through the log pattern instead of repeating ids in
+ * their messages, and the gRPC clients forward it to the backends.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestIdFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Request-Id";
+    public static final String MDC_KEY = RequestIds.MDC_KEY;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String requestId = RequestIds.acceptOrGenerate(request.getHeader(HEADER));
+        response.setHeader(HEADER, requestId);
+        MDC.put(MDC_KEY, requestId);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            MDC.remove(MDC_KEY);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package olsh.backend.api_gateway.service;
 
+import io.micrometer.observation.annotation.Observed;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import olsh.backend.api_gateway.config.UploadFileConfiguration;
@@ -12,6 +14,7 @@ import olsh.backend.api_gateway.grpc.proto.ArticleProto;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -24,6 +27,7 @@ public class ArticleService {
     private final ArticleServiceClient articleServiceClient;
     private final UploadFileConfiguration uploadConfig;
     private final UserService userService;
+    private final MultipartStreamReader multipartStreamReader;
 
     public CreateArticleResponse createArticle(CreateArticleRequest request, Long authorId) {
         log.debug("Creating article with title: {} for author: {}", request.getTitle(), authorId);
@@ -35,6 +39,124 @@ public class ArticleService {
         return CreateArticleResponse.builder().id(article.getArticleId()).message("Article created successfully").build();
     }
 
+    /**
+     * Creates an article from a raw multipart request, forwarding the PDF to article-service while it
+     * is still arriving. The text fields have to precede the file, among them pdf_size: article-service
+     * needs the size of the PDF before its first byte.
+     */
+    @Observed(name = "gateway.upload")
+    public CreateArticleResponse createArticleStreaming(HttpServletRequest request, Long authorId) {
+        log.debug("Creating article from streamed multipart request for author: {}", authorId);
+
+        StreamedArticleUpload upload = new StreamedArticleUpload(authorId);
+        try {
+            multipartStreamReader.read(request, upload);
+            upload.finish();
+        } catch (RuntimeException e) {
+            upload.rollback();
+            throw e;
+        }
+
+        return CreateArticleResponse.builder().id(upload.article.getArticleId()).message("Article created successfully").build();
+    }
+
+    private class StreamedArticleUpload implements MultipartStreamReader.PartHandler {
+
+        private final Long authorId;
+        private final CreateArticleRequest fields = new CreateArticleRequest();
+        private String pdfSize;
+        private ArticleProto.Article article;
+
+        StreamedArticleUpload(Long authorId) {
+            this.authorId = authorId;
+        }
+
+        @Override
+        public void onField(String name, String value) {
+            if (!name.equals("title") && !name.equals("short_desc") && !name.equals("pdf_size")) {
+                return;
+            }
+            if (article != null) {
+                throw new IllegalArgumentException("Field " + name + " must be sent before the file");
+            }
+            switch (name) {
+                case "title" -> fields.setTitle(value);
+                case "short_desc" -> fields.setShort_desc(value);
+                default -> pdfSize = value;
+            }
+        }
+
+        @Override
+        public void onFile(String name, String filename, InputStream content) {
+            if (!name.equals("pdf_file")) {
+                return;
+            }
+            if (filename == null || !filename.toLowerCase().endsWith(".pdf")) {
+                throw new IllegalArgumentException("Only PDF files are allowed");
+            }
+            if (article != null) {
+                throw new IllegalArgumentException("Only one PDF file is allowed");
+            }
+            validateFields();
+            long size = validatePdfSize();
+            article = registerArticle(fields, authorId);
+            articleServiceClient.uploadAsset(article.getArticleId(), filename, size, content);
+        }
+
+        void finish() {
+            if (article == null) {
+                throw new IllegalArgumentException("PDF file is required");
+            }
+        }
+
+        void rollback() {
+            if (article == null) {
+                return;
+            }
+            try {
+                articleServiceClient.deleteArticle(article.getArticleId());
+            } catch (Exception e) {
+                log.warn("Failed to delete partially created article with ID {}: {}",
+                        article.getArticleId(), e.getMessage());
+            }
+        }
+
+        private void validateFields() {
+            if (fields.getTitle() == null || fields.getTitle().isBlank()) {
+                throw new IllegalArgumentException("Title is required");
+            }
+            if (fields.getTitle().length() > 255) {
+                throw new IllegalArgumentException("Title must not exceed 255 characters");
+            }
+            if (fields.getShort_desc() == null || fields.getShort_desc().isBlank()) {
+                throw new IllegalArgumentException("Short description is required");
+            }
+            if (fields.getShort_desc().length() > 1000) {
+                throw new IllegalArgumentException("Short description must not exceed 1000 characters");
+            }
+        }
+
+        private long validatePdfSize() {
+            if (pdfSize == null || pdfSize.isBlank()) {
+                throw new IllegalArgumentException("PDF size is required");
+            }
+            long size;
+            try {
+                size = Long.parseLong(pdfSize.trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("PDF size must be a number of bytes");
+            }
+            if (size <= 0) {
+                throw new IllegalArgumentException("PDF file is required");
+            }
+            if (size > uploadConfig.getMaxFileSize()) {
+                throw new IllegalArgumentException(String.format("File size exceeds maximum limit of %d bytes",
+                        uploadConfig.getMaxFileSize()));
+            }
+            return size;
+        }
+    }
+
     private void validatePdfFile(MultipartFile file) {
         if (file == null || file.isEmpty() || file.getOriginalFilename() == null) {
             throw new IllegalArgumentException("PDF file is required");
@@ -1,5 +1,6 @@
 package olsh.backend.api_gateway.service;
 
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import olsh.backend.api_gateway.exception.AuthenticationException;
@@ -14,6 +15,7 @@ public class AuthService {
 
     private final AuthServiceClient authServiceClient;
 
+    @Observed(name = "gateway.auth.check")
     public AuthValidationResponse validateToken(String token) {
         if (token == null || token.trim().isEmpty()) {
             throw new AuthenticationException("Token is required");
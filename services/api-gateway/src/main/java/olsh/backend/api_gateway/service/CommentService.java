@@ -107,7 +107,7 @@ public class CommentService {
                 .build();
     }
 
-    private CommentListResponse enrichCommentsWithUserInfo(CommentListResponse response) {
+    CommentListResponse enrichCommentsWithUserInfo(CommentListResponse response) {
         // Create a cache for user responses to avoid multiple calls for the same user
         HashMap<Long, UserResponse> userCache = new HashMap<>();
 
@@ -1,21 +1,36 @@
 package olsh.backend.api_gateway.service;
 
 
+import io.micrometer.observation.annotation.Observed;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import olsh.backend.api_gateway.cache.AssetContent;
+import olsh.backend.api_gateway.cache.AssetContentCache;
+import olsh.backend.api_gateway.cache.CachedAsset;
 import olsh.backend.api_gateway.config.UploadFileConfiguration;
 import olsh.backend.api_gateway.dto.request.CreateLabRequest;
+import olsh.backend.api_gateway.dto.request.CreateUploadSessionRequest;
 import olsh.backend.api_gateway.dto.request.GetLabsRequest;
+import olsh.backend.api_gateway.dto.request.UploadAssetChunkRequest;
 import olsh.backend.api_gateway.dto.response.*;
+import olsh.backend.api_gateway.exception.AssetNotFoundException;
+import olsh.backend.api_gateway.exception.AssetUploadException;
 import olsh.backend.api_gateway.exception.ForbiddenAccessException;
+import olsh.backend.api_gateway.exception.UploadSessionNotFoundException;
 import olsh.backend.api_gateway.grpc.client.LabServiceClient;
 import olsh.backend.api_gateway.grpc.proto.LabProto;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -26,6 +41,8 @@ public class LabService {
     private final LabServiceClient labServiceClient;
     private final UploadFileConfiguration uploadConfig;
     private final UserService userService;
+    private final AssetContentCache assetContentCache;
+    private final MultipartStreamReader multipartStreamReader;
 
     public CreateLabResponse createLab(CreateLabRequest request, Long ownerId) {
         log.debug("Creating lab with title: {} for owner: {}", request.getTitle(), ownerId);
@@ -53,6 +70,136 @@ public class LabService {
                 .build();
     }
 
+    /**
+     * Creates a lab from a raw multipart request. Every file part is validated and forwarded to
+     * lab-service while it is still arriving, so the text fields have to precede the files.
+     * When a part is rejected the half-created lab is deleted again.
+     */
+    @Observed(name = "gateway.upload")
+    public CreateLabResponse createLabStreaming(HttpServletRequest request, Long ownerId) {
+        log.debug("Creating lab from streamed multipart request for owner: {}", ownerId);
+
+        StreamedLabUpload upload = new StreamedLabUpload(ownerId);
+        try {
+            multipartStreamReader.read(request, upload);
+            upload.finish();
+        } catch (RuntimeException e) {
+            upload.rollback();
+            throw e;
+        }
+
+        return CreateLabResponse.builder()
+                .id(upload.lab.getLabId())
+                .message("Lab created successfully!")
+                .build();
+    }
+
+    private class StreamedLabUpload implements MultipartStreamReader.PartHandler {
+
+        private final Long ownerId;
+        private final CreateLabRequest fields = new CreateLabRequest();
+        private LabProto.Lab lab;
+        private boolean markdownUploaded;
+
+        StreamedLabUpload(Long ownerId) {
+            this.ownerId = ownerId;
+        }
+
+        @Override
+        public void onField(String name, String value) {
+            if (!name.equals("title") && !name.equals("short_desc")) {
+                return;
+            }
+            if (lab != null) {
+                throw new IllegalArgumentException("Field " + name + " must be sent before the files");
+            }
+            if (name.equals("title")) {
+                fields.setTitle(value);
+            } else {
+                fields.setShort_desc(value);
+            }
+        }
+
+        /**
+         * Runs the checks of {@link #validateMarkdownFile} and {@link #validateAsset} on a part as far as
+         * they can be made before its content is read. The size limit is enforced while it is forwarded.
+         */
+        @Override
+        public void onFile(String name, String filename, InputStream content) {
+            if (name.equals("md_file")) {
+                if (filename == null || filename.isBlank()) {
+                    throw new IllegalArgumentException("Markdown file is required");
+                }
+                if (!filename.toLowerCase().endsWith(".md")) {
+                    throw new IllegalArgumentException("Only Markdown files are allowed");
+                }
+                if (markdownUploaded) {
+                    throw new IllegalArgumentException("Only one Markdown file is allowed");
+                }
+                InputStream markdown = requireContent(content, "Markdown file is required");
+                labServiceClient.uploadAsset(registeredLab().getLabId(), filename, markdown);
+                markdownUploaded = true;
+            } else if (name.equals("assets")) {
+                if (filename == null || filename.isBlank()) {
+                    throw new IllegalArgumentException("Asset name cannot be empty.");
+                }
+                if (filename.endsWith(".md")) {
+                    throw new IllegalArgumentException("Asset for lab cannot contain an .md file.");
+                }
+                InputStream asset = requireContent(content, "Asset file for lab is empty or null arrived");
+                labServiceClient.uploadAsset(registeredLab().getLabId(), filename, asset);
+            }
+        }
+
+        void finish() {
+            if (!markdownUploaded) {
+                throw new IllegalArgumentException("Markdown file is required");
+            }
+        }
+
+        void rollback() {
+            if (lab == null) {
+                return;
+            }
+            try {
+                labServiceClient.deleteLab(lab.getLabId());
+            } catch (Exception e) {
+                log.warn("Failed to delete partially created lab with ID {}: {}", lab.getLabId(), e.getMessage());
+            }
+        }
+
+        private LabProto.Lab registeredLab() {
+            if (lab == null) {
+                if (fields.getTitle() == null || fields.getTitle().isBlank()) {
+                    throw new IllegalArgumentException("Title is required");
+                }
+                if (fields.getShort_desc() == null || fields.getShort_desc().isBlank()) {
+                    throw new IllegalArgumentException("Short description is required");
+                }
+                lab = registerLab(fields, ownerId);
+            }
+            return lab;
+        }
+    }
+
+    /**
+     * Reads the first byte of a streamed part, so an empty part is rejected before a lab is created and an
+     * upload stream is opened for it.
+     */
+    private static InputStream requireContent(InputStream content, String emptyMessage) {
+        PushbackInputStream pushback = new PushbackInputStream(content, 1);
+        try {
+            int first = pushback.read();
+            if (first == -1) {
+                throw new IllegalArgumentException(emptyMessage);
+            }
+            pushback.unread(first);
+        } catch (IOException e) {
+            throw new AssetUploadException("Failed to read file content");
+        }
+        return pushback;
+    }
+
     private void validateMarkdownFile(MultipartFile file) {
         if (file == null || file.isEmpty() || file.getOriginalFilename() == null) {
             throw new IllegalArgumentException("Markdown file is required");
@@ -205,6 +352,7 @@ public class LabService {
         if (!success) {
             throw new RuntimeException("Failed to delete lab");
         }
+        assetContentCache.invalidateLab(labId);
 
         return DeleteLabResponse.builder()
                 .message("Lab deleted successfully!")
@@ -227,9 +375,135 @@ public class LabService {
                 .build();
     }
 
-    public byte[] downloadLabAsset(Long assetId) {
-        log.debug("Downloading asset with ID: {}", assetId);
-        return labServiceClient.downloadAsset(assetId);
+    public AssetResponse updateLabAsset(Long labId, Long assetId, Long userId, MultipartFile file) {
+        log.debug("Replacing asset ID: {} of lab ID: {} by user: {}", assetId, labId, userId);
+        checkLabOwner(labId, userId, "You can't update assets of a lab that you don't own!");
+        validateAsset(file);
+        getLabAsset(labId, assetId);
+
+        LabProto.Asset asset = labServiceClient.updateAsset(assetId, file);
+        // The new upload date changes the version anyway, this frees the old content right away
+        assetContentCache.invalidate(assetId);
+        return convertAssetToResponse(asset);
+    }
+
+    public void deleteLabAsset(Long labId, Long assetId, Long userId) {
+        log.debug("Deleting asset ID: {} of lab ID: {} by user: {}", assetId, labId, userId);
+        checkLabOwner(labId, userId, "You can't delete assets of a lab that you don't own!");
+        getLabAsset(labId, assetId);
+
+        if (!labServiceClient.deleteAsset(assetId)) {
+            throw new RuntimeException("Failed to delete asset");
+        }
+        assetContentCache.invalidate(assetId);
+    }
+
+    public UploadSessionResponse startAssetUpload(Long labId, Long userId, CreateUploadSessionRequest request) {
+        log.debug("Starting upload session of {} ({} bytes) for lab ID: {}",
+                request.getFilename(), request.getTotal_size(), labId);
+
+        checkLabOwner(labId, userId, "You can't upload assets to a lab that you don't own!");
+        if (request.getFilename().endsWith(".md")) {
+            throw new IllegalArgumentException("Asset for lab cannot contain an .md file.");
+        }
+        if (request.getTotal_size() > uploadConfig.getMaxFileSize()) {
+            throw new IllegalArgumentException(String.format("Asset file size for lab exceeds maximum limit of %d bytes",
+                    uploadConfig.getMaxFileSize()));
+        }
+
+        String sessionId = UUID.randomUUID().toString();
+        labServiceClient.uploadAssetChunk(labId, sessionId, request.getFilename(), request.getTotal_size(), 0, null);
+
+        log.debug("Created upload session {} for lab ID: {}", sessionId, labId);
+        return UploadSessionResponse.builder()
+                .sessionId(sessionId)
+                .offset(0L)
+                .totalSize(request.getTotal_size())
+                .completed(false)
+                .build();
+    }
+
+    @Observed(name = "gateway.upload")
+    public UploadSessionResponse uploadAssetChunk(Long labId, Long userId, String sessionId,
+                                                  UploadAssetChunkRequest request) {
+        checkLabOwner(labId, userId, "You can't upload assets to a lab that you don't own!");
+        LabProto.UploadSession session = getLabUploadSession(labId, sessionId);
+
+        LabProto.Asset asset = labServiceClient.uploadAssetChunk(labId, sessionId, session.getFilename(),
+                session.getTotalSize(), request.getOffset(), request.getChunk());
+
+        UploadSessionResponse.UploadSessionResponseBuilder response = UploadSessionResponse.builder()
+                .sessionId(sessionId)
+                .totalSize(session.getTotalSize());
+        if (asset.getAssetId() != 0) {
+            log.info("Upload session {} completed, created asset ID: {}", sessionId, asset.getAssetId());
+            return response
+                    .offset(session.getTotalSize())
+                    .completed(true)
+                    .assetId(asset.getAssetId())
+                    .build();
+        }
+        return response
+                .offset(request.getOffset() + request.getChunk().getSize())
+                .completed(false)
+                .build();
+    }
+
+    public UploadSessionResponse getAssetUpload(Long labId, Long userId, String sessionId) {
+        checkLabOwner(labId, userId, "You can't upload assets to a lab that you don't own!");
+        LabProto.UploadSession session = getLabUploadSession(labId, sessionId);
+        return UploadSessionResponse.builder()
+                .sessionId(sessionId)
+                .offset(session.getCommittedOffset())
+                .totalSize(session.getTotalSize())
+                .completed(false)
+                .build();
+    }
+
+    private void checkLabOwner(Long labId, Long userId, String message) {
+        LabProto.Lab lab = labServiceClient.getLab(labId);
+        if (lab.getOwnerId() != userId.longValue()) {
+            throw new ForbiddenAccessException(message);
+        }
+    }
+
+    private LabProto.UploadSession getLabUploadSession(Long labId, String sessionId) {
+        LabProto.UploadSession session = labServiceClient.resumeUpload(sessionId);
+        if (session.getLabId() != labId) {
+            throw new UploadSessionNotFoundException(
+                    String.format("Upload session %s not found in lab with id=%d", sessionId, labId));
+        }
+        return session;
+    }
+
+    public Optional<CachedAsset> findCachedLabAsset(LabProto.Asset asset, String version) {
+        return assetContentCache.get(asset.getAssetId(), version);
+    }
+
+    /**
+     * Downloads and caches an asset in its stored form, so text assets stay gzip-compressed in the cache.
+     * The returned content must be closed by the caller and stays readable until then.
+     */
+    @Observed(name = "gateway.download")
+    public AssetContent downloadAndCacheLabAsset(LabProto.Asset asset, String version) throws IOException {
+        log.debug("Downloading asset with ID: {}", asset.getAssetId());
+        return assetContentCache.download(asset.getLabId(), asset.getAssetId(), version,
+                target -> labServiceClient.downloadAsset(asset.getAssetId(), asset.getStoredCompressed(), target));
+    }
+
+    @Observed(name = "gateway.download")
+    public byte[] downloadLabAssetRange(Long assetId, long offset, long length) {
+        log.debug("Downloading asset with ID: {}, bytes {}-{}", assetId, offset, offset + length - 1);
+        return labServiceClient.downloadAsset(assetId, offset, length);
+    }
+
+    public LabProto.Asset getLabAsset(Long labId, Long assetId) {
+        log.debug("Getting metadata of asset ID: {} for lab ID: {}", assetId, labId);
+        return labServiceClient.listAssets(labId).getAssetsList().stream()
+                .filter(asset -> asset.getAssetId() == assetId)
+                .findFirst()
+                .orElseThrow(() -> new AssetNotFoundException(
+                        String.format("Asset with id=%d not found in lab with id=%d", assetId, labId)));
     }
 
     private AssetResponse convertAssetToResponse(LabProto.Asset asset) {
@@ -242,7 +516,7 @@ public class LabService {
                 .build();
     }
 
-    private String convertTimestampToIso(com.google.protobuf.Timestamp timestamp) {
+    String convertTimestampToIso(com.google.protobuf.Timestamp timestamp) {
         if (timestamp == null) {
             return null;
         }
@@ -264,7 +538,7 @@ public class LabService {
      * @param author the UserResponse containing author information
      * @return LabResponse with all fields mapped
      */
-    private LabResponse buildLabResponse(LabProto.Lab lab, UserResponse author) {
+    LabResponse buildLabResponse(LabProto.Lab lab, UserResponse author) {
         return LabResponse.builder()
                 .id(lab.getLabId())
                 .title(lab.getTitle())
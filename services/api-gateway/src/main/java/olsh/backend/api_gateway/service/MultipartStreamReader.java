@@ -0,0 +1,150 @@
+package olsh.backend.api_gateway.service;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import olsh.backend.api_gateway.config.UploadFileConfiguration;
+import olsh.backend.api_gateway.exception.AssetUploadException;
+import org.apache.commons.fileupload.FileItemIterator;
+import org.apache.commons.fileupload.FileItemStream;
+import org.apache.commons.fileupload.FileUpload;
+import org.apache.commons.fileupload.FileUploadBase;
+import org.apache.commons.fileupload.FileUploadException;
+import org.apache.commons.fileupload.UploadContext;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Reads a multipart request part by part straight from the servlet input stream.
+ * <p>
+ * Unlike {@link org.springframework.web.multipart.MultipartFile} nothing is spooled to disk: a file part
+ * can only be read while it is being received, and the parts arrive in the order the client sent them.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MultipartStreamReader {
+
+    private static final int MAX_FIELD_SIZE = 64 * 1024;
+
+    private final UploadFileConfiguration uploadConfig;
+
+    public interface PartHandler {
+
+        void onField(String name, String value);
+
+        /**
+         * Handles a file part. The content stream fails with {@link IllegalArgumentException}
+         * as soon as the part exceeds the maximum file size.
+         */
+        void onFile(String name, String filename, InputStream content);
+    }
+
+    public void read(HttpServletRequest request, PartHandler handler) {
+        String contentType = request.getContentType();
+        if (contentType == null || !contentType.toLowerCase(Locale.ROOT).startsWith(FileUploadBase.MULTIPART)) {
+            throw new IllegalArgumentException("Multipart request is expected");
+        }
+
+        try {
+            FileItemIterator parts = new FileUpload().getItemIterator(new ServletUploadContext(request));
+            while (parts.hasNext()) {
+                FileItemStream part = parts.next();
+                try (InputStream content = part.openStream()) {
+                    if (part.isFormField()) {
+                        handler.onField(part.getFieldName(), readField(part.getFieldName(), content));
+                    } else {
+                        log.debug("Streaming multipart file part {}: {}", part.getFieldName(), part.getName());
+                        handler.onFile(part.getFieldName(), part.getName(),
+                                new SizeLimitedInputStream(content, uploadConfig.getMaxFileSize()));
+                    }
+                }
+            }
+        } catch (IOException | FileUploadException e) {
+            throw new AssetUploadException("Failed to read multipart request: " + e.getMessage());
+        }
+    }
+
+    private static String readField(String name, InputStream content) throws IOException {
+        byte[] value = content.readNBytes(MAX_FIELD_SIZE + 1);
+        if (value.length > MAX_FIELD_SIZE) {
+            throw new IllegalArgumentException(String.format("Field %s exceeds maximum size of %d bytes",
+                    name, MAX_FIELD_SIZE));
+        }
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The request as commons-fileupload sees it, its own servlet adapter is written against javax.servlet.
+     */
+    private record ServletUploadContext(HttpServletRequest request) implements UploadContext {
+
+        @Override
+        public String getCharacterEncoding() {
+            return request.getCharacterEncoding();
+        }
+
+        @Override
+        public String getContentType() {
+            return request.getContentType();
+        }
+
+        @Override
+        @Deprecated
+        public int getContentLength() {
+            return request.getContentLength();
+        }
+
+        @Override
+        public long contentLength() {
+            return request.getContentLengthLong();
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return request.getInputStream();
+        }
+    }
+
+    private static class SizeLimitedInputStream extends FilterInputStream {
+
+        private final long maxSize;
+        private long count;
+
+        SizeLimitedInputStream(InputStream in, long maxSize) {
+            super(in);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count(n);
+            }
+            return n;
+        }
+
+        private void count(int n) {
+            count += n;
+            if (count > maxSize) {
+                throw new IllegalArgumentException(String.format("File size exceeds maximum limit of %d bytes",
+                        maxSize));
+            }
+        }
+    }
+}
@@ -5,6 +5,7 @@ import olsh.backend.api_gateway.dto.response.UserResponse;
 import olsh.backend.api_gateway.exception.UserNotFoundException;
 import olsh.backend.api_gateway.grpc.client.UserServiceClient;
 import olsh.backend.api_gateway.grpc.model.UserData;
+import io.micrometer.observation.annotation.Observed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -19,6 +20,7 @@ public class UserService {
         this.userServiceClient = userServiceClient;
     }
 
+    @Observed(name = "gateway.user.enrichment")
     public UserResponse getUserById(Long userId) {
         log.debug("Getting user data for userId: {}", userId);
 
@@ -0,0 +1,218 @@
+package olsh.backend.api_gateway.cache;
+
+import olsh.backend.api_gateway.config.AssetCacheConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AssetContentCacheTest {
+
+    private static final int MEMORY_ENTRY_SIZE = 16;
+
+    @TempDir
+    Path diskDirectory;
+
+    private AssetCacheConfiguration config;
+
+    @BeforeEach
+    void setUp() {
+        config = new AssetCacheConfiguration();
+        config.setMemoryMaxBytes(64);
+        config.setMemoryMaxEntrySize(MEMORY_ENTRY_SIZE);
+        config.setDiskDirectory(diskDirectory.toString());
+        config.setDiskMaxBytes(256);
+    }
+
+    @Test
+    void keepsSmallAssetsInMemoryAndLargeOnesOnDisk() throws IOException {
+        AssetContentCache cache = new AssetContentCache(config);
+
+        download(cache, 1L, content(MEMORY_ENTRY_SIZE, 'a')).close();
+        download(cache, 2L, content(MEMORY_ENTRY_SIZE + 1, 'b')).close();
+
+        CachedAsset small = cache.get(1L, "v1").orElseThrow();
+        CachedAsset large = cache.get(2L, "v1").orElseThrow();
+        assertThat(small.isInMemory()).isTrue();
+        assertThat(large.isInMemory()).isFalse();
+        assertThat(large.file()).hasParent(diskDirectory).hasBinaryContent(content(MEMORY_ENTRY_SIZE + 1, 'b'));
+        assertThat(read(small.open())).isEqualTo(content(MEMORY_ENTRY_SIZE, 'a'));
+        assertThat(partFiles()).isEmpty();
+    }
+
+    @Test
+    void storesIdenticalContentOnce() throws IOException {
+        AssetContentCache cache = new AssetContentCache(config);
+
+        download(cache, 1L, content(100, 'a')).close();
+        download(cache, 2L, content(100, 'a')).close();
+
+        assertThat(cache.get(1L, "v1").orElseThrow().file()).isEqualTo(cache.get(2L, "v1").orElseThrow().file());
+        try (Stream<Path> files = Files.list(diskDirectory)) {
+            assertThat(files).hasSize(1);
+        }
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedContentFirst() throws IOException {
+        AssetContentCache cache = new AssetContentCache(config);
+        download(cache, 1L, content(100, 'a')).close();
+        download(cache, 2L, content(100, 'b')).close();
+        cache.get(1L, "v1");
+
+        download(cache, 3L, content(100, 'c')).close();
+
+        assertThat(cache.get(1L, "v1")).isPresent();
+        assertThat(cache.get(2L, "v1")).isEmpty();
+        assertThat(cache.get(3L, "v1")).isPresent();
+        try (Stream<Path> files = Files.list(diskDirectory)) {
+            assertThat(files).hasSize(2);
+        }
+    }
+
+    @Test
+    void evictsMemoryEntriesBeyondTheMemoryLimit() throws IOException {
+        AssetContentCache cache = new AssetContentCache(config);
+        for (long assetId = 1; assetId <= 5; assetId++) {
+            download(cache, assetId, content(MEMORY_ENTRY_SIZE, (char) ('a' + assetId))).close();
+        }
+
+        assertThat(cache.get(1L, "v1")).isEmpty();
+        for (long assetId = 2; assetId <= 5; assetId++) {
+            assertThat(cache.get(assetId, "v1")).isPresent();
+        }
+    }
+
+    @Test
+    void downloadedContentStaysReadableAfterItsFileIsEvicted() throws IOException {
+        AssetContentCache cache = new AssetContentCache(config);
+
+        try (AssetContent content = download(cache, 1L, content(200, 'a'))) {
+            download(cache, 2L, content(200, 'b')).close();
+
+            assertThat(cache.get(1L, "v1")).isEmpty();
+            assertThat(read(content)).isEqualTo(content(200, 'a'));
+        }
+    }
+
+    @Test
+    void openedEntryStaysReadableAfterItsFileIsEvicted() throws IOException {
+        AssetContentCache cache = new AssetContentCache(config);
+        download(cache, 1L, content(200, 'a')).close();
+        CachedAsset cached = cache.get(1L, "v1").orElseThrow();
+
+        try (AssetContent content = cached.open()) {
+            download(cache, 2L, content(200, 'b')).close();
+
+            assertThat(read(content)).isEqualTo(content(200, 'a'));
+        }
+        assertThatThrownBy(cached::open).isInstanceOf(NoSuchFileException.class);
+    }
+
+    @Test
+    void dropsEntriesOfAnotherVersion() throws IOException {
+        AssetContentCache cache = new AssetContentCache(config);
+        download(cache, 1L, content(100, 'a')).close();
+
+        assertThat(cache.get(1L, "v2")).isEmpty();
+        assertThat(cache.get(1L, "v1")).isEmpty();
+        try (Stream<Path> files = Files.list(diskDirectory)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    void invalidatesAllAssetsOfALab() throws IOException {
+        AssetContentCache cache = new AssetContentCache(config);
+        cache.download(7L, 1L, "v1", target -> target.write(content(8, 'a'))).close();
+        cache.download(7L, 2L, "v1", target -> target.write(content(100, 'b'))).close();
+        cache.download(8L, 3L, "v1", target -> target.write(content(8, 'c'))).close();
+
+        cache.invalidateLab(7L);
+
+        assertThat(cache.get(1L, "v1")).isEmpty();
+        assertThat(cache.get(2L, "v1")).isEmpty();
+        assertThat(cache.get(3L, "v1")).isPresent();
+    }
+
+    @Test
+    void returnsContentTooLargeForTheCacheWithoutKeepingIt() throws IOException {
+        AssetContentCache cache = new AssetContentCache(config);
+
+        try (AssetContent content = download(cache, 1L, content(300, 'a'))) {
+            assertThat(read(content)).isEqualTo(content(300, 'a'));
+        }
+
+        assertThat(cache.get(1L, "v1")).isEmpty();
+        assertThat(partFiles()).isEmpty();
+    }
+
+    @Test
+    void deletesThePartialFileOfAFailedDownload() throws IOException {
+        AssetContentCache cache = new AssetContentCache(config);
+
+        assertThatThrownBy(() -> cache.download(7L, 1L, "v1", target -> {
+            target.write(content(100, 'a'));
+            throw new IOException("stream reset");
+        })).hasMessage("stream reset");
+
+        assertThat(cache.get(1L, "v1")).isEmpty();
+        assertThat(partFiles()).isEmpty();
+    }
+
+    @Test
+    void servesLargeDownloadsWithoutCachingWhenDisabled() throws IOException {
+        config.setEnabled(false);
+        AssetContentCache cache = new AssetContentCache(config);
+
+        try (AssetContent content = download(cache, 1L, content(100, 'a'))) {
+            assertThat(content.size()).isEqualTo(100);
+            assertThat(read(content)).isEqualTo(content(100, 'a'));
+        }
+
+        assertThat(cache.get(1L, "v1")).isEmpty();
+    }
+
+    private static AssetContent download(AssetContentCache cache, Long assetId, byte[] content) throws IOException {
+        return cache.download(7L, assetId, "v1", target -> {
+            // Written in pieces, the way gRPC chunks arrive
+            for (int offset = 0; offset < content.length; offset += 10) {
+                target.write(content, offset, Math.min(10, content.length - offset));
+            }
+        });
+    }
+
+    private static byte[] content(int size, char fill) {
+        byte[] content = new byte[size];
+        Arrays.fill(content, (byte) fill);
+        return content;
+    }
+
+    private static byte[] read(AssetContent content) throws IOException {
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        content.transferTo(0, content.size(), Channels.newChannel(target));
+        try (InputStream stream = content.openStream()) {
+            assertThat(stream.readAllBytes()).isEqualTo(target.toByteArray());
+        }
+        return target.toByteArray();
+    }
+
+    private List<Path> partFiles() throws IOException {
+        try (Stream<Path> files = Files.list(diskDirectory)) {
+            return files.filter(file -> file.toString().endsWith(".part")).toList();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package olsh.backend.api_gateway.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BackendResilienceConfigurationTest {
+
+    @Test
+    void backendOverrideKeepsTheConfiguredDefaultsItLeavesOut() {
+        BackendResilienceConfiguration config = bind(Map.of(
+                "backend-resilience.defaults.max-concurrent-calls", "10",
+                "backend-resilience.defaults.open-duration", "30s",
+                "backend-resilience.backends.lab-service.minimum-calls", "5"));
+
+        BackendResilienceConfiguration.Limits labs = config.getLimitsFor("lab-service");
+
+        assertThat(labs.getMinimumCalls()).isEqualTo(5);
+        assertThat(labs.getMaxConcurrentCalls()).isEqualTo(10);
+        assertThat(labs.getOpenDuration()).isEqualTo(Duration.ofSeconds(30));
+        assertThat(labs.getSlidingWindowSize()).isEqualTo(config.getDefaults().getSlidingWindowSize());
+    }
+
+    @Test
+    void backendWithoutOverridesUsesTheDefaults() {
+        BackendResilienceConfiguration config = bind(Map.of(
+                "backend-resilience.defaults.max-concurrent-calls", "10"));
+
+        assertThat(config.getLimitsFor("user-service")).isSameAs(config.getDefaults());
+    }
+
+    private static BackendResilienceConfiguration bind(Map<String, String> properties) {
+        return new Binder(new MapConfigurationPropertySource(properties))
+                .bind("backend-resilience", BackendResilienceConfiguration.class)
+                .get();
+    }
+}
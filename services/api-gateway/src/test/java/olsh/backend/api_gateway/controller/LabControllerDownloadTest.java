@@ -0,0 +1,231 @@
+package olsh.backend.api_gateway.controller;
+
+import com.google.protobuf.Timestamp;
+import olsh.backend.api_gateway.cache.AssetContent;
+import olsh.backend.api_gateway.cache.CachedAsset;
+import olsh.backend.api_gateway.config.AssetCompressionConfiguration;
+import olsh.backend.api_gateway.grpc.proto.LabProto;
+import olsh.backend.api_gateway.service.LabService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LabControllerDownloadTest {
+
+    private static final long LAB_ID = 7L;
+    private static final long ASSET_ID = 3L;
+    private static final byte[] CONTENT = "0123456789".getBytes(StandardCharsets.UTF_8);
+    // 2024-05-01T12:00:00Z
+    private static final Timestamp UPLOAD_DATE = Timestamp.newBuilder().setSeconds(1714564800).setNanos(123000).build();
+    private static final String ETAG = "\"3-10-1714564800.000123000\"";
+    private static final String GZIP_ETAG = "\"3-10-1714564800.000123000-gzip\"";
+
+    private LabService labService;
+    private LabController controller;
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        labService = mock(LabService.class);
+        controller = new LabController(labService, mock(RequestAttributesExtractor.class),
+                new AssetCompressionConfiguration());
+        response = new MockHttpServletResponse();
+        when(labService.findCachedLabAsset(eq(asset(false)), anyString())).thenReturn(Optional.empty());
+        when(labService.downloadAndCacheLabAsset(asset(false), ETAG)).thenAnswer(call -> AssetContent.of(CONTENT));
+    }
+
+    @Test
+    void sendsTheWholeAssetWithoutRange() throws Exception {
+        ResponseEntity<?> result = download(asset(false), null, null, null);
+
+        assertThat(result).isNull();
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsByteArray()).isEqualTo(CONTENT);
+        assertThat(response.getContentLengthLong()).isEqualTo(10);
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo(ETAG);
+        assertThat(response.getHeader(HttpHeaders.ACCEPT_RANGES)).isEqualTo("bytes");
+    }
+
+    @Test
+    void servesARangeFromTheCache() throws Exception {
+        cache(asset(false), ETAG, CONTENT);
+
+        ResponseEntity<?> result = download(asset(false), "bytes=2-5", null, null);
+
+        assertThat(result).isNull();
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 2-5/10");
+        assertThat(response.getContentAsString()).isEqualTo("2345");
+        verify(labService, never()).downloadLabAssetRange(anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    void downloadsOnlyTheRangeOnACacheMiss() throws Exception {
+        when(labService.downloadLabAssetRange(ASSET_ID, 7, 3)).thenReturn("789".getBytes(StandardCharsets.UTF_8));
+
+        ResponseEntity<?> result = download(asset(false), "bytes=-3", null, null);
+
+        assertThat(result.getStatusCode().value()).isEqualTo(206);
+        assertThat(result.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 7-9/10");
+        assertThat((byte[]) result.getBody()).isEqualTo("789".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void ignoresARangeHeaderThatDoesNotParse() throws Exception {
+        ResponseEntity<?> result = download(asset(false), "bytes=five-", null, null);
+
+        assertThat(result).isNull();
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsByteArray()).isEqualTo(CONTENT);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isNull();
+    }
+
+    @Test
+    void rejectsARangeOutsideTheAsset() throws Exception {
+        ResponseEntity<?> result = download(asset(false), "bytes=20-30", null, null);
+
+        assertThat(result.getStatusCode().value()).isEqualTo(416);
+        assertThat(result.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes */10");
+    }
+
+    @Test
+    void sendsTheWholeAssetForMultipleRanges() throws Exception {
+        download(asset(false), "bytes=0-1,4-5", null, null);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsByteArray()).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void servesTheRangeWhenIfRangeMatchesTheETag() throws Exception {
+        cache(asset(false), ETAG, CONTENT);
+
+        download(asset(false), "bytes=5-", ETAG, null);
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getContentAsString()).isEqualTo("56789");
+    }
+
+    @Test
+    void servesTheRangeWhenIfRangeMatchesTheUploadDate() throws Exception {
+        cache(asset(false), ETAG, CONTENT);
+
+        download(asset(false), "bytes=5-", "Wed, 01 May 2024 12:00:00 GMT", null);
+
+        assertThat(response.getStatus()).isEqualTo(206);
+    }
+
+    @Test
+    void sendsTheWholeAssetWhenIfRangeIsStale() throws Exception {
+        cache(asset(false), ETAG, CONTENT);
+
+        download(asset(false), "bytes=5-", "\"3-10-1714560000.000000000\"", null);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsByteArray()).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void sendsTheWholeAssetForAWeakIfRangeValidator() throws Exception {
+        cache(asset(false), ETAG, CONTENT);
+
+        download(asset(false), "bytes=5-", "W/" + ETAG, null);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void passesCompressedAssetsThroughToGzipClients() throws Exception {
+        cache(asset(true), GZIP_ETAG, gzip(CONTENT));
+
+        download(asset(true), null, null, "br, gzip;q=0.8");
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo(GZIP_ETAG);
+        assertThat(response.getHeader(HttpHeaders.VARY)).isEqualTo(HttpHeaders.ACCEPT_ENCODING);
+        assertThat(response.getContentAsByteArray()).isEqualTo(gzip(CONTENT));
+    }
+
+    @Test
+    void decompressesForClientsRefusingGzip() throws Exception {
+        cache(asset(true), GZIP_ETAG, gzip(CONTENT));
+
+        download(asset(true), null, null, "gzip;q=0");
+
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo(ETAG);
+        assertThat(response.getContentAsByteArray()).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void downloadsCompressedAssetsInTheirStoredForm() throws Exception {
+        when(labService.findCachedLabAsset(asset(true), GZIP_ETAG)).thenReturn(Optional.empty());
+        when(labService.downloadAndCacheLabAsset(asset(true), GZIP_ETAG))
+                .thenAnswer(call -> AssetContent.of(gzip(CONTENT)));
+
+        download(asset(true), null, null, null);
+
+        assertThat(response.getContentAsByteArray()).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void servesRangesOfCompressedAssetsFromTheUncompressedContent() throws Exception {
+        cache(asset(true), GZIP_ETAG, gzip(CONTENT));
+
+        download(asset(true), "bytes=3-6", null, "gzip");
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 3-6/10");
+        assertThat(response.getContentAsString()).isEqualTo("3456");
+    }
+
+    private ResponseEntity<?> download(LabProto.Asset asset, String range, String ifRange, String acceptEncoding) {
+        when(labService.getLabAsset(LAB_ID, ASSET_ID)).thenReturn(asset);
+        return controller.downloadLabAsset(LAB_ID, ASSET_ID, range, ifRange, acceptEncoding,
+                new MockHttpServletRequest(), response);
+    }
+
+    private void cache(LabProto.Asset asset, String version, byte[] content) {
+        CachedAsset cached = new CachedAsset(ASSET_ID, LAB_ID, version, "hash", content.length, content, null);
+        when(labService.findCachedLabAsset(asset, version)).thenReturn(Optional.of(cached));
+    }
+
+    private static LabProto.Asset asset(boolean storedCompressed) {
+        return LabProto.Asset.newBuilder()
+                .setAssetId(ASSET_ID)
+                .setLabId(LAB_ID)
+                .setFilename(storedCompressed ? "notes.txt" : "data.bin")
+                .setTotalSize(CONTENT.length)
+                .setUploadDate(UPLOAD_DATE)
+                .setStoredCompressed(storedCompressed)
+                .build();
+    }
+
+    private static byte[] gzip(byte[] content) throws IOException {
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(target)) {
+            gzip.write(content);
+        }
+        return target.toByteArray();
+    }
+}
@@ -0,0 +1,114 @@
+package olsh.backend.api_gateway.grpc.client;
+
+import io.grpc.EquivalentAddressGroup;
+import io.grpc.NameResolver;
+import io.grpc.NameResolverRegistry;
+import io.grpc.Status;
+import io.grpc.StatusOr;
+import io.grpc.SynchronizationContext;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AddressListNameResolverProviderTest {
+
+    private final AddressListNameResolverProvider provider = new AddressListNameResolverProvider();
+
+    @Test
+    void targetsWithoutSchemeStayOnDns() {
+        NameResolverRegistry registry = new NameResolverRegistry();
+        registry.register(new AddressListNameResolverProvider());
+        registry.register(new io.grpc.internal.DnsNameResolverProvider());
+
+        assertThat(registry.getDefaultScheme()).isEqualTo("dns");
+        assertThat(registry.getProviderForScheme(AddressListNameResolverProvider.SCHEME))
+                .isInstanceOf(AddressListNameResolverProvider.class);
+    }
+
+    @Test
+    void resolvesEveryListedBackend() {
+        StatusOr<List<EquivalentAddressGroup>> result = resolve("list:///10.0.0.1:9093,10.0.0.2");
+
+        assertThat(result.getValue()).extracting(group -> group.getAddresses().get(0)).containsExactly(
+                new InetSocketAddress("10.0.0.1", 9093),
+                new InetSocketAddress("10.0.0.2", 9000));
+    }
+
+    @Test
+    void skipsBackendsThatCannotBeResolved() {
+        StatusOr<List<EquivalentAddressGroup>> result = resolve("list:///10.0.0.1:9093,:9093");
+
+        assertThat(result.getValue()).extracting(group -> group.getAddresses().get(0))
+                .containsExactly(new InetSocketAddress("10.0.0.1", 9093));
+    }
+
+    @Test
+    void failsWhenNoBackendCanBeResolved() {
+        StatusOr<List<EquivalentAddressGroup>> result = resolve("list:///:9093");
+
+        assertThat(result.hasValue()).isFalse();
+        assertThat(result.getStatus().getCode()).isEqualTo(Status.Code.UNAVAILABLE);
+    }
+
+    @Test
+    void usesTheFirstBackendAsAuthority() {
+        NameResolver resolver = provider.newNameResolver(URI.create("list:///users-1:9093,users-2:9093"), args());
+
+        assertThat(resolver.getServiceAuthority()).isEqualTo("users-1:9093");
+    }
+
+    @Test
+    void ignoresOtherSchemes() {
+        assertThat(provider.newNameResolver(URI.create("dns:///users-service:9093"), args())).isNull();
+    }
+
+    @Test
+    void rejectsAnEmptyList() {
+        assertThatThrownBy(() -> provider.newNameResolver(URI.create("list:///"), args()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private StatusOr<List<EquivalentAddressGroup>> resolve(String target) {
+        List<StatusOr<List<EquivalentAddressGroup>>> results = new ArrayList<>();
+        NameResolver resolver = provider.newNameResolver(URI.create(target), args());
+        resolver.start(new NameResolver.Listener2() {
+            @Override
+            public void onResult(NameResolver.ResolutionResult resolutionResult) {
+                results.add(resolutionResult.getAddressesOrError());
+            }
+
+            @Override
+            public void onError(Status error) {
+                results.add(StatusOr.fromStatus(error));
+            }
+        });
+        resolver.shutdown();
+        assertThat(results).hasSize(1);
+        return results.get(0);
+    }
+
+    private static NameResolver.Args args() {
+        return NameResolver.Args.newBuilder()
+                .setDefaultPort(9000)
+                .setProxyDetector(address -> null)
+                .setSynchronizationContext(new SynchronizationContext((thread, e) -> {
+                    throw new AssertionError(e);
+                }))
+                .setServiceConfigParser(new NameResolver.ServiceConfigParser() {
+                    @Override
+                    public NameResolver.ConfigOrError parseServiceConfig(Map<String, ?> rawServiceConfig) {
+                        return NameResolver.ConfigOrError.fromConfig(rawServiceConfig);
+                    }
+                })
+                // Runs the host lookups on the calling thread
+                .setOffloadExecutor(Runnable::run)
+                .build();
+    }
+}
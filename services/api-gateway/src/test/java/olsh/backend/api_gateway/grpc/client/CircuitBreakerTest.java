@@ -0,0 +1,136 @@
+package olsh.backend.api_gateway.grpc.client;
+
+import olsh.backend.api_gateway.config.BackendResilienceConfiguration;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static olsh.backend.api_gateway.grpc.client.CircuitBreaker.REJECTED;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTest {
+
+    @Test
+    void staysClosedBelowTheMinimumNumberOfCalls() {
+        CircuitBreaker breaker = breaker(Duration.ofMinutes(1));
+
+        fail(breaker, 3);
+
+        assertThat(breaker.tryAcquire()).isNotEqualTo(REJECTED);
+    }
+
+    @Test
+    void opensOnceTheFailureRateReachesTheThreshold() {
+        CircuitBreaker breaker = breaker(Duration.ofMinutes(1));
+
+        succeed(breaker, 2);
+        fail(breaker, 1);
+        assertThat(breaker.tryAcquire()).isNotEqualTo(REJECTED);
+        fail(breaker, 1);
+
+        assertThat(breaker.tryAcquire()).isEqualTo(REJECTED);
+    }
+
+    @Test
+    void forgetsOutcomesThatLeftTheSlidingWindow() {
+        CircuitBreaker breaker = breaker(Duration.ofMinutes(1));
+
+        fail(breaker, 1);
+        succeed(breaker, 4);
+        fail(breaker, 1);
+
+        // The first failure has left the window of 4, which holds a single failure now
+        assertThat(breaker.tryAcquire()).isNotEqualTo(REJECTED);
+    }
+
+    @Test
+    void closesAfterAllProbesSucceed() {
+        CircuitBreaker breaker = breaker(Duration.ZERO);
+        fail(breaker, 4);
+
+        long firstProbe = breaker.tryAcquire();
+        long secondProbe = breaker.tryAcquire();
+        assertThat(breaker.tryAcquire()).as("probes beyond halfOpenProbes").isEqualTo(REJECTED);
+
+        breaker.onSuccess(firstProbe);
+        assertThat(breaker.tryAcquire()).as("still half-open").isEqualTo(REJECTED);
+        breaker.onSuccess(secondProbe);
+
+        assertThat(breaker.tryAcquire()).isNotEqualTo(REJECTED);
+        assertThat(breaker.tryAcquire()).isNotEqualTo(REJECTED);
+        assertThat(breaker.tryAcquire()).isNotEqualTo(REJECTED);
+    }
+
+    @Test
+    void reopensOnAFailedProbe() {
+        CircuitBreaker breaker = breaker(Duration.ZERO);
+        fail(breaker, 4);
+
+        long failedProbe = breaker.tryAcquire();
+        breaker.onFailure(failedProbe);
+
+        // The zero open duration has passed at once, the next probes belong to a new half-open epoch
+        long probe = breaker.tryAcquire();
+        assertThat(probe).isGreaterThan(failedProbe);
+        assertThat(breaker.tryAcquire()).isEqualTo(probe);
+        assertThat(breaker.tryAcquire()).isEqualTo(REJECTED);
+    }
+
+    @Test
+    void givesBackTheProbesOfIgnoredCalls() {
+        CircuitBreaker breaker = breaker(Duration.ZERO);
+        fail(breaker, 4);
+
+        long cancelled = breaker.tryAcquire();
+        breaker.tryAcquire();
+        assertThat(breaker.tryAcquire()).isEqualTo(REJECTED);
+
+        breaker.onIgnored(cancelled);
+
+        assertThat(breaker.tryAcquire()).isNotEqualTo(REJECTED);
+    }
+
+    @Test
+    void ignoresOutcomesOfCallsFromAnEarlierEpoch() {
+        CircuitBreaker breaker = breaker(Duration.ZERO);
+        long staleSuccess = breaker.tryAcquire();
+        long staleFailure = breaker.tryAcquire();
+        fail(breaker, 4);
+
+        long probe = breaker.tryAcquire();
+        assertThat(probe).isNotEqualTo(staleFailure);
+
+        // Neither reopens the half-open circuit nor counts as a successful probe
+        breaker.onFailure(staleFailure);
+        breaker.onSuccess(staleSuccess);
+        breaker.onSuccess(staleSuccess);
+        assertThat(breaker.tryAcquire()).isEqualTo(probe);
+        assertThat(breaker.tryAcquire()).isEqualTo(REJECTED);
+
+        breaker.onSuccess(probe);
+        breaker.onSuccess(probe);
+        assertThat(breaker.tryAcquire()).isGreaterThan(probe);
+    }
+
+    private static CircuitBreaker breaker(Duration openDuration) {
+        BackendResilienceConfiguration.Limits limits = new BackendResilienceConfiguration.Limits();
+        limits.setSlidingWindowSize(4);
+        limits.setMinimumCalls(4);
+        limits.setFailureRateThreshold(0.5);
+        limits.setOpenDuration(openDuration);
+        limits.setHalfOpenProbes(2);
+        return new CircuitBreaker("lab-service", limits);
+    }
+
+    private static void succeed(CircuitBreaker breaker, int calls) {
+        for (int i = 0; i < calls; i++) {
+            breaker.onSuccess(breaker.tryAcquire());
+        }
+    }
+
+    private static void fail(CircuitBreaker breaker, int calls) {
+        for (int i = 0; i < calls; i++) {
+            breaker.onFailure(breaker.tryAcquire());
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package olsh.backend.api_gateway.grpc.client;
+
+import io.grpc.Attributes;
+import io.grpc.CallOptions;
+import io.grpc.ChannelLogger;
+import io.grpc.ClientStreamTracer;
+import io.grpc.ConnectivityState;
+import io.grpc.ConnectivityStateInfo;
+import io.grpc.EquivalentAddressGroup;
+import io.grpc.LoadBalancer;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import io.grpc.SynchronizationContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LeastRequestLoadBalancerProviderTest {
+
+    private static final EquivalentAddressGroup FIRST = new EquivalentAddressGroup(new InetSocketAddress("10.0.0.1", 9093));
+    private static final EquivalentAddressGroup SECOND = new EquivalentAddressGroup(new InetSocketAddress("10.0.0.2", 9093));
+
+    private final SynchronizationContext syncContext = new SynchronizationContext((thread, e) -> {
+        throw new AssertionError(e);
+    });
+    private ScheduledExecutorService scheduler;
+    private FakeHelper helper;
+    private LoadBalancer loadBalancer;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        helper = new FakeHelper();
+        loadBalancer = new LeastRequestLoadBalancerProvider().newLoadBalancer(helper);
+        syncContext.execute(() -> loadBalancer.acceptResolvedAddresses(LoadBalancer.ResolvedAddresses.newBuilder()
+                .setAddresses(List.of(FIRST, SECOND))
+                .build()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        syncContext.execute(loadBalancer::shutdown);
+        scheduler.shutdownNow();
+    }
+
+    @Test
+    void picksTheBackendWithFewerCallsInFlight() {
+        setState(FIRST, ConnectivityState.READY);
+        setState(SECOND, ConnectivityState.READY);
+        assertThat(helper.state).isEqualTo(ConnectivityState.READY);
+
+        ClientStreamTracer first = startCall(FIRST);
+        for (int i = 0; i < 20; i++) {
+            assertThat(pick().getSubchannel()).isSameAs(helper.subchannel(SECOND));
+        }
+
+        startCall(SECOND);
+        startCall(SECOND);
+        assertThat(pick().getSubchannel()).isSameAs(helper.subchannel(FIRST));
+
+        // A stream is counted down once, however often it reports being closed
+        first.streamClosed(Status.OK);
+        first.streamClosed(Status.CANCELLED);
+        for (int i = 0; i < 3; i++) {
+            startCall(FIRST);
+        }
+        for (int i = 0; i < 20; i++) {
+            assertThat(pick().getSubchannel()).isSameAs(helper.subchannel(SECOND));
+        }
+    }
+
+    @Test
+    void picksOnlyReadyBackends() {
+        setState(FIRST, ConnectivityState.READY);
+        setState(SECOND, ConnectivityState.CONNECTING);
+
+        for (int i = 0; i < 20; i++) {
+            assertThat(pick().getSubchannel()).isSameAs(helper.subchannel(FIRST));
+        }
+    }
+
+    @Test
+    void waitsWhileBackendsAreConnecting() {
+        setState(FIRST, ConnectivityState.CONNECTING);
+        setState(SECOND, ConnectivityState.CONNECTING);
+
+        assertThat(helper.state).isEqualTo(ConnectivityState.CONNECTING);
+        LoadBalancer.PickResult result = pick();
+        assertThat(result.getSubchannel()).isNull();
+        assertThat(result.getStatus().isOk()).isTrue();
+    }
+
+    @Test
+    void failsCallsWhenNoBackendIsReachable() {
+        setState(FIRST, ConnectivityState.TRANSIENT_FAILURE);
+        setState(SECOND, ConnectivityState.TRANSIENT_FAILURE);
+
+        assertThat(helper.state).isEqualTo(ConnectivityState.TRANSIENT_FAILURE);
+        assertThat(pick().getStatus().getCode()).isEqualTo(Status.Code.UNAVAILABLE);
+    }
+
+    private void setState(EquivalentAddressGroup address, ConnectivityState state) {
+        ConnectivityStateInfo info = state == ConnectivityState.TRANSIENT_FAILURE
+                ? ConnectivityStateInfo.forTransientFailure(Status.UNAVAILABLE.withDescription("connection refused"))
+                : ConnectivityStateInfo.forNonError(state);
+        syncContext.execute(() -> helper.subchannel(address).listener.onSubchannelState(info));
+    }
+
+    private LoadBalancer.PickResult pick() {
+        return helper.picker.pickSubchannel(new FakePickArgs());
+    }
+
+    private ClientStreamTracer startCall(EquivalentAddressGroup address) {
+        LoadBalancer.PickResult result;
+        do {
+            result = pick();
+        } while (result.getSubchannel() != helper.subchannel(address));
+        return result.getStreamTracerFactory()
+                .newClientStreamTracer(ClientStreamTracer.StreamInfo.newBuilder().build(), new Metadata());
+    }
+
+    private class FakeHelper extends LoadBalancer.Helper {
+
+        private final Map<EquivalentAddressGroup, FakeSubchannel> subchannels = new HashMap<>();
+        private ConnectivityState state;
+        private LoadBalancer.SubchannelPicker picker;
+
+        FakeSubchannel subchannel(EquivalentAddressGroup address) {
+            return subchannels.get(address);
+        }
+
+        @Override
+        public LoadBalancer.Subchannel createSubchannel(LoadBalancer.CreateSubchannelArgs args) {
+            FakeSubchannel subchannel = new FakeSubchannel(args);
+            args.getAddresses().forEach(address -> subchannels.put(address, subchannel));
+            return subchannel;
+        }
+
+        @Override
+        public void updateBalancingState(ConnectivityState newState, LoadBalancer.SubchannelPicker newPicker) {
+            state = newState;
+            picker = newPicker;
+        }
+
+        @Override
+        public void refreshNameResolution() {
+        }
+
+        @Override
+        public SynchronizationContext getSynchronizationContext() {
+            return syncContext;
+        }
+
+        @Override
+        public ScheduledExecutorService getScheduledExecutorService() {
+            return scheduler;
+        }
+
+        @Override
+        public ChannelLogger getChannelLogger() {
+            return new ChannelLogger() {
+                @Override
+                public void log(ChannelLogLevel level, String message) {
+                }
+
+                @Override
+                public void log(ChannelLogLevel level, String messageFormat, Object... args) {
+                }
+            };
+        }
+
+        @Override
+        public ManagedChannel createOobChannel(EquivalentAddressGroup address, String authority) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String getAuthority() {
+            return "users-service";
+        }
+    }
+
+    private static class FakeSubchannel extends LoadBalancer.Subchannel {
+
+        private final LoadBalancer.CreateSubchannelArgs args;
+        private LoadBalancer.SubchannelStateListener listener;
+
+        FakeSubchannel(LoadBalancer.CreateSubchannelArgs args) {
+            this.args = args;
+        }
+
+        @Override
+        public void start(LoadBalancer.SubchannelStateListener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public void shutdown() {
+        }
+
+        @Override
+        public void requestConnection() {
+        }
+
+        @Override
+        public List<EquivalentAddressGroup> getAllAddresses() {
+            return new ArrayList<>(args.getAddresses());
+        }
+
+        @Override
+        public Attributes getAttributes() {
+            return args.getAttributes();
+        }
+
+        @Override
+        public void updateAddresses(List<EquivalentAddressGroup> addresses) {
+        }
+    }
+
+    private static class FakePickArgs extends LoadBalancer.PickSubchannelArgs {
+
+        @Override
+        public CallOptions getCallOptions() {
+            return CallOptions.DEFAULT;
+        }
+
+        @Override
+        public Metadata getHeaders() {
+            return new Metadata();
+        }
+
+        @Override
+        public MethodDescriptor<?, ?> getMethodDescriptor() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package olsh.backend.api_gateway.service;
+
+import olsh.backend.api_gateway.cache.AssetContentCache;
+import olsh.backend.api_gateway.config.UploadFileConfiguration;
+import olsh.backend.api_gateway.grpc.client.LabServiceClient;
+import olsh.backend.api_gateway.grpc.proto.LabProto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LabServiceStreamingTest {
+
+    private static final String BOUNDARY = "lab-boundary";
+
+    private LabServiceClient labServiceClient;
+    private LabService labService;
+
+    @BeforeEach
+    void setUp() {
+        labServiceClient = mock(LabServiceClient.class);
+        UploadFileConfiguration uploadConfig = new UploadFileConfiguration();
+        labService = new LabService(labServiceClient, uploadConfig, mock(UserService.class),
+                mock(AssetContentCache.class), new MultipartStreamReader(uploadConfig));
+        when(labServiceClient.createLab(any())).thenReturn(LabProto.Lab.newBuilder().setLabId(7).build());
+    }
+
+    @Test
+    void forwardsMarkdownAndAssets() {
+        labService.createLabStreaming(request(
+                field("title", "Lab"), field("short_desc", "About"),
+                file("md_file", "lab.md", "# Lab"), file("assets", "data.csv", "a,b")), 1L);
+
+        verify(labServiceClient).uploadAsset(eq(7L), eq("lab.md"), any(InputStream.class));
+        verify(labServiceClient).uploadAsset(eq(7L), eq("data.csv"), any(InputStream.class));
+    }
+
+    @Test
+    void rejectsEmptyMarkdownBeforeCreatingTheLab() {
+        assertThatThrownBy(() -> labService.createLabStreaming(request(
+                field("title", "Lab"), field("short_desc", "About"), file("md_file", "lab.md", "")), 1L))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Markdown file is required");
+
+        verify(labServiceClient, never()).createLab(any());
+    }
+
+    @Test
+    void rejectsMarkdownPartWithoutFilename() {
+        assertThatThrownBy(() -> labService.createLabStreaming(request(
+                field("title", "Lab"), field("short_desc", "About"), file("md_file", "", "# Lab")), 1L))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Markdown file is required");
+
+        verify(labServiceClient, never()).createLab(any());
+    }
+
+    @Test
+    void rejectsEmptyAssetWithoutForwardingIt() {
+        assertThatThrownBy(() -> labService.createLabStreaming(request(
+                field("title", "Lab"), field("short_desc", "About"),
+                file("md_file", "lab.md", "# Lab"), file("assets", "data.csv", "")), 1L))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Asset file for lab is empty or null arrived");
+
+        verify(labServiceClient, never()).uploadAsset(anyLong(), eq("data.csv"), any(InputStream.class));
+        // The lab created for the Markdown file is removed again
+        verify(labServiceClient).deleteLab(7L);
+    }
+
+    @Test
+    void rejectsAssetWithoutFilename() {
+        assertThatThrownBy(() -> labService.createLabStreaming(request(
+                field("title", "Lab"), field("short_desc", "About"),
+                file("md_file", "lab.md", "# Lab"), file("assets", "", "")), 1L))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Asset name cannot be empty.");
+    }
+
+    @Test
+    void forwardedMarkdownStillStartsWithItsFirstByte() {
+        when(labServiceClient.uploadAsset(anyLong(), anyString(), any(InputStream.class))).thenAnswer(invocation -> {
+            InputStream content = invocation.getArgument(2);
+            assertThat(new String(content.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("# Lab");
+            return null;
+        });
+
+        labService.createLabStreaming(request(
+                field("title", "Lab"), field("short_desc", "About"), file("md_file", "lab.md", "# Lab")), 1L);
+    }
+
+    private static String field(String name, String value) {
+        return "--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"" + name + "\"\r\n\r\n" + value + "\r\n";
+    }
+
+    private static String file(String name, String filename, String content) {
+        return "--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"" + name + "\"; filename=\"" + filename +
+                "\"\r\nContent-Type: application/octet-stream\r\n\r\n" + content + "\r\n";
+    }
+
+    private static MockHttpServletRequest request(String... parts) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/labs/stream");
+        request.setContentType("multipart/form-data; boundary=" + BOUNDARY);
+        request.setContent((String.join("", parts) + "--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+}
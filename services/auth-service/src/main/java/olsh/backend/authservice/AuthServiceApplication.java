@@ -1,9 +1,13 @@
 package olsh.backend.authservice;
 
+import olsh.backend.shared.grpc.GrpcRequestLoggingInterceptor;
+import olsh.backend.shared.grpc.GrpcServerMetricsInterceptor;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Import;
 
 @SpringBootApplication
+@Import({GrpcRequestLoggingInterceptor.class, GrpcServerMetricsInterceptor.class})
 public class AuthServiceApplication {
     public static void main(String[] args) {
         SpringApplication.run(AuthServiceApplication.class, args);
@@ -9,9 +9,11 @@ import olsh.backend.authservice.exception.BadRequestException;
 import olsh.backend.authservice.exception.ErrorResponse;
 import olsh.backend.authservice.exception.NotFoundException;
 import olsh.backend.authservice.exception.RequestValidationException;
+import olsh.backend.authservice.exception.ServiceBusyException;
 import org.springframework.context.support.DefaultMessageSourceResolvable;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -57,6 +59,15 @@ public class RestExceptionHandler {
         return ResponseEntity.badRequest().body(errorResponse);
     }
 
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<Object> handleServiceBusyException(ServiceBusyException ex) {
+        ErrorResponse errorResponse =
+            new ErrorResponse(HttpStatus.SERVICE_UNAVAILABLE.value(), ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .body(errorResponse);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Object> handleMethodArgumentValidationException(
         MethodArgumentNotValidException ex) {
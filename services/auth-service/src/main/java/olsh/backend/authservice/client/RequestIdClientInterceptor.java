@@ -0,0 +1,34 @@
+package olsh.backend.authservice.client;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ForwardingClientCall;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import olsh.backend.shared.grpc.GrpcRequestLoggingInterceptor;
+import org.slf4j.MDC;
+
+/**
+ * Passes the request id of the gRPC call being served on to users-service.
+ */
+class RequestIdClientInterceptor implements ClientInterceptor {
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method,
+                                                               CallOptions callOptions,
+                                                               Channel next) {
+        String requestId = MDC.get(GrpcRequestLoggingInterceptor.MDC_REQUEST_ID);
+        if (requestId == null) {
+            return next.newCall(method, callOptions);
+        }
+        return new ForwardingClientCall.SimpleForwardingClientCall<>(next.newCall(method, callOptions)) {
+            @Override
+            public void start(Listener<RespT> responseListener, Metadata headers) {
+                headers.put(GrpcRequestLoggingInterceptor.REQUEST_ID_HEADER, requestId);
+                super.start(responseListener, headers);
+            }
+        };
+    }
+}
@@ -1,5 +1,6 @@
 package olsh.backend.authservice.client;
 
+import java.time.Duration;
 import java.util.concurrent.TimeUnit;
 
 import com.olsh.users.proto.AuthenticateUserRequest;
@@ -21,8 +22,12 @@ import com.olsh.users.proto.UpdateUserProfileRequest;
 import com.olsh.users.proto.UserInfoResponse;
 import com.olsh.users.proto.UserProfileResponse;
 import com.olsh.users.proto.UsersServiceGrpc;
+import io.grpc.Context;
+import io.grpc.Deadline;
 import io.grpc.ManagedChannel;
 import io.grpc.ManagedChannelBuilder;
+import io.micrometer.core.instrument.binder.grpc.ObservationGrpcClientInterceptor;
+import io.micrometer.observation.ObservationRegistry;
 import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -34,25 +39,48 @@ public class UsersServiceClient {
 
     private final ManagedChannel channel;
     private final UsersServiceGrpc.UsersServiceBlockingStub blockingStub;
+    private final Duration callTimeout;
+    private final Duration callMargin;
 
     public UsersServiceClient(
         @Value("${grpc.users-service.host}") String host,
-        @Value("${grpc.users-service.port}") int port) {
+        @Value("${grpc.users-service.port}") int port,
+        @Value("${grpc.users-service.call-timeout:5s}") Duration callTimeout,
+        @Value("${grpc.users-service.call-margin:50ms}") Duration callMargin,
+        ObservationRegistry observationRegistry) {
         this.channel = ManagedChannelBuilder.forAddress(host, port)
             .usePlaintext()
+            // Times the nested hop as grpc.client, next to the grpc.server timer of the call being served
+            .intercept(new ObservationGrpcClientInterceptor(observationRegistry), new RequestIdClientInterceptor())
             .build();
 
         this.blockingStub = UsersServiceGrpc.newBlockingStub(channel);
+        this.callTimeout = callTimeout;
+        this.callMargin = callMargin;
         log.info("Initialized UsersServiceClient with connection to {}:{}", host, port);
     }
 
+    /**
+     * Stub with the deadline for the next call. When serving a gRPC call the remaining deadline
+     * of the caller minus a margin is used, so the gateway's request budget also bounds
+     * the calls to users-service.
+     */
+    private UsersServiceGrpc.UsersServiceBlockingStub stub() {
+        Deadline deadline = Deadline.after(callTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        Deadline callerDeadline = Context.current().getDeadline();
+        if (callerDeadline != null) {
+            deadline = deadline.minimum(callerDeadline.offset(-callMargin.toMillis(), TimeUnit.MILLISECONDS));
+        }
+        return blockingStub.withDeadline(deadline);
+    }
+
     public UserProfileResponse getUserProfile(Long userId) {
         log.debug("Sending getUserProfile request for userId: {}", userId);
         GetUserProfileRequest request = GetUserProfileRequest.newBuilder()
             .setUserId(userId)
             .build();
 
-        return blockingStub.withDeadlineAfter(5, TimeUnit.SECONDS).getUserProfile(request);
+        return stub().getUserProfile(request);
     }
 
     public UserProfileResponse updateUserProfile(Long userId,
@@ -73,7 +101,7 @@ public class UsersServiceClient {
             builder.setPassword(password);
         }
 
-        return blockingStub.withDeadlineAfter(5, TimeUnit.SECONDS)
+        return stub()
             .updateUserProfile(builder.build());
     }
 
@@ -85,7 +113,7 @@ public class UsersServiceClient {
             .setSize(size)
             .build();
 
-        return blockingStub.withDeadlineAfter(5, TimeUnit.SECONDS).searchUsers(request);
+        return stub().searchUsers(request);
     }
 
     public UserInfoResponse getUserInfo(Long userId) {
@@ -94,7 +122,7 @@ public class UsersServiceClient {
             .setUserId(userId)
             .build();
 
-        return blockingStub.withDeadlineAfter(5, TimeUnit.SECONDS).getUserInfo(request);
+        return stub().getUserInfo(request);
     }
 
     public UserInfoResponse findUserByEmail(String email) {
@@ -103,7 +131,7 @@ public class UsersServiceClient {
             .setEmail(email)
             .build();
 
-        return blockingStub.withDeadlineAfter(5, TimeUnit.SECONDS).findUserByEmail(request);
+        return stub().findUserByEmail(request);
     }
 
     public UserInfoResponse findUserByUsername(String username) {
@@ -112,7 +140,7 @@ public class UsersServiceClient {
             .setUsername(username)
             .build();
 
-        return blockingStub.withDeadlineAfter(5, TimeUnit.SECONDS).findUserByUsername(request);
+        return stub().findUserByUsername(request);
     }
 
     public UserInfoResponse authenticateUser(String usernameOrEmail,
@@ -125,7 +153,7 @@ public class UsersServiceClient {
             .setUsingEmail(usingEmail)
             .build();
 
-        return blockingStub.withDeadlineAfter(5, TimeUnit.SECONDS).authenticateUser(request);
+        return stub().authenticateUser(request);
     }
 
     public UpdatePasswordResponse updatePassword(Long userId,
@@ -138,7 +166,7 @@ public class UsersServiceClient {
             .setNewPassword(newPassword)
             .build();
 
-        return blockingStub.withDeadlineAfter(5, TimeUnit.SECONDS).updatePassword(request);
+        return stub().updatePassword(request);
     }
 
     public UpdateUserLastLoginResponse updateUserLastLogin(Long userId) {
@@ -147,7 +175,7 @@ public class UsersServiceClient {
             .setUserId(userId)
             .build();
 
-        return blockingStub.withDeadlineAfter(5, TimeUnit.SECONDS).updateUserLastLogin(request);
+        return stub().updateUserLastLogin(request);
     }
 
     public UserProfileResponse createUser(
@@ -167,7 +195,7 @@ public class UsersServiceClient {
             .setPassword(password)
             .build();
 
-        return blockingStub.withDeadlineAfter(5, TimeUnit.SECONDS).createUser(request);
+        return stub().createUser(request);
     }
 
     /**
@@ -186,7 +214,7 @@ public class UsersServiceClient {
                 .build();
                 
             // Use the dedicated RPC endpoint for checking username existence
-            ExistsResponse response = blockingStub.withDeadlineAfter(5, TimeUnit.SECONDS)
+            ExistsResponse response = stub()
                 .checkUsernameExists(request);
             
             log.debug("Username '{}' exists: {}", username, response.getExists());
@@ -213,7 +241,7 @@ public class UsersServiceClient {
                 .build();
                 
             // Use the dedicated RPC endpoint for checking email existence
-            ExistsResponse response = blockingStub.withDeadlineAfter(5, TimeUnit.SECONDS)
+            ExistsResponse response = stub()
                 .checkEmailExists(request);
             
             log.debug("Email '{}' exists: {}", email, response.getExists());
@@ -238,7 +266,7 @@ public class UsersServiceClient {
                 .setUserId(userId)
                 .build();
                 
-            DeleteUserResponse response = blockingStub.withDeadlineAfter(5, TimeUnit.SECONDS)
+            DeleteUserResponse response = stub()
                 .deleteUser(request);
             
             log.debug("Delete user response success: {}, message: {}", 
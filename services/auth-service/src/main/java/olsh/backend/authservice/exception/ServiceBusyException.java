@@ -0,0 +1,7 @@
+package olsh.backend.authservice.exception;
+
+public class ServiceBusyException extends RuntimeException {
+    public ServiceBusyException(String message) {
+        super(message);
+    }
+}
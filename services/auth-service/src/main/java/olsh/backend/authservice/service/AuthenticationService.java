@@ -6,6 +6,8 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import olsh.backend.authservice.client.UsersServiceClient;
@@ -22,7 +24,9 @@ import olsh.backend.authservice.dto.UserProfileResponseWithUserInfo;
 import olsh.backend.authservice.dto.ValidateTokenRequest;
 import olsh.backend.authservice.entity.Role;
 import olsh.backend.authservice.entity.User;
+import olsh.backend.authservice.exception.AlreadyExistsException;
 import olsh.backend.authservice.exception.AuthenticationException;
+import olsh.backend.authservice.exception.ServiceBusyException;
 import olsh.backend.authservice.exception.ValidationException;
 
 @Slf4j
@@ -39,13 +43,8 @@ public class AuthenticationService {
 
     public AuthenticationResponse signUp(SignUpRequest request) {
         try {
-            // Check if username already exists
-            checkUsernameAvailability(request.getUsername());
-
-            // Check if email already exists
-            checkEmailAvailability(request.getEmail());
-
-            // Create user in users-service (this is the single source of truth)
+            // Create user in users-service (this is the single source of truth),
+            // which rejects a taken username or email with ALREADY_EXISTS
             var userProfileResponse = usersServiceClient.createUser(
                 request.getUsername(),
                 request.getFirstName(),
@@ -73,6 +72,17 @@ public class AuthenticationService {
             log.info("User {} registered successfully with ID: {}", user.getUsername(), user.getUserId());
             return buildAuthenticationResponse(user, accessToken, refreshToken);
             
+        } catch (StatusRuntimeException e) {
+            if (e.getStatus().getCode() == Status.Code.ALREADY_EXISTS) {
+                log.debug("Sign-up rejected: {}", e.getStatus().getDescription());
+                throw new AlreadyExistsException(e.getStatus().getDescription());
+            }
+            if (e.getStatus().getCode() == Status.Code.RESOURCE_EXHAUSTED) {
+                log.warn("Users service is too busy to create user: {}", request.getUsername());
+                throw new ServiceBusyException("Too many sign-ups in progress, retry later");
+            }
+            log.error("Failed to create user: {}", e.getMessage(), e);
+            throw new ValidationException("Failed to create user: " + e.getStatus().getDescription());
         } catch (Exception e) {
             log.error("Failed to create user: {}", e.getMessage(), e);
             throw new ValidationException("Failed to create user: " + e.getMessage());
@@ -100,14 +110,22 @@ public class AuthenticationService {
                 .role(Role.valueOf(userInfo.getRole()))
                 .build();
 
-            // Update last login time in users-service
-            usersServiceClient.updateUserLastLogin(userInfo.getUserId());
+            // users-service notes the login time itself while authenticating
 
             String accessToken = jwtService.generateToken(user);
             String refreshToken = jwtService.generateRefreshToken(user);
 
             log.info("User {} logged in successfully", user.getUsername());
             return buildAuthenticationResponse(user, accessToken, refreshToken);
+        } catch (StatusRuntimeException e) {
+            if (e.getStatus().getCode() == Status.Code.RESOURCE_EXHAUSTED) {
+                // users-service sheds password checks it cannot start soon, the credentials were not checked
+                log.warn("Users service is too busy to check the credentials of user: {}",
+                    request.getUsernameOrEmail());
+                throw new ServiceBusyException("Too many sign-ins in progress, retry later");
+            }
+            log.warn("Failed login attempt for user: {}", request.getUsernameOrEmail(), e);
+            throw new AuthenticationException("Invalid credentials");
         } catch (Exception e) {
             log.warn("Failed login attempt for user: {}", request.getUsernameOrEmail(), e);
             throw new AuthenticationException("Invalid credentials");
@@ -240,16 +258,4 @@ public class AuthenticationService {
             .tokenType("Bearer")
             .build();
     }
-
-    private void checkUsernameAvailability(String username) throws ValidationException {
-        if (usersServiceClient.isUsernameExists(username)) {
-            throw new ValidationException("Username already exists");
-        }
-    }
-
-    private void checkEmailAvailability(String email) throws ValidationException {
-        if (usersServiceClient.isEmailExists(email)) {
-            throw new ValidationException("Email already exists");
-        }
-    }
 }
\ No newline at end of file
@@ -18,6 +18,10 @@ class Config:
     MINIO_ACCESS_KEY = os.getenv("MINIO_ACCESS_KEY", "minioadmin")
     MINIO_SECRET_KEY = os.getenv("MINIO_SECRET_KEY", "minioadmin")
 
+    # Resumable uploads idle for longer are deleted with their received bytes, checked every sweep interval
+    UPLOAD_SESSION_TTL_SECONDS = int(os.getenv("UPLOAD_SESSION_TTL_SECONDS", "86400"))
+    UPLOAD_SESSION_SWEEP_INTERVAL_SECONDS = int(os.getenv("UPLOAD_SESSION_SWEEP_INTERVAL_SECONDS", "600"))
+
     # DB config
     DB_USER = os.getenv("DB_USER", "postgres")
     DB_PASSWORD = os.getenv("DB_PASSWORD", "password")
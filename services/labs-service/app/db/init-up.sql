@@ -33,7 +33,8 @@ CREATE TABLE lab_assets (
     lab_id BIGINT NOT NULL REFERENCES labs(id) ON DELETE CASCADE,
     filename VARCHAR(255) NOT NULL,
     filesize BIGINT NOT NULL,
-    upload_date TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+    upload_date TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    stored_compressed BOOLEAN NOT NULL DEFAULT FALSE
 );
 
 CREATE TABLE submission_assets (
@@ -1,18 +1,37 @@
 # Import downloaded modules
 import grpc
-from sqlalchemy import create_engine, select
+from sqlalchemy import create_engine, select, text, update
+from sqlalchemy.exc import IntegrityError
 from sqlalchemy.orm import Session
 import minio
 
 # Import built-in modules
+from datetime import datetime, timedelta, timezone
+import gzip
 import os
+import re
+import shutil
+import threading
+import time
 from concurrent import futures
 
 # Import project files
 from config import Config
 import proto.labs_pb2 as stub # Generated from labs.proto
 import proto.labs_pb2_grpc as service # Generated from labs.proto
-from utils.models import Lab, LabAsset
+from utils.models import Lab, LabAsset, LabUploadSession
+
+# Session ids become file names, so only allow UUID-like values
+UPLOAD_SESSION_ID_PATTERN = re.compile(r"[A-Za-z0-9-]{1,64}")
+
+# Text assets compress several times over, so they are stored gzip-compressed in MinIO
+TEXT_ASSET_EXTENSIONS = {
+    ".md", ".txt", ".csv", ".tsv", ".json", ".xml", ".html", ".css", ".js", ".ts", ".svg",
+    ".yaml", ".yml", ".tex", ".ipynb", ".py", ".java", ".c", ".cpp", ".h", ".hpp", ".go", ".rs", ".sql"
+}
+
+def is_text_asset(filename: str) -> bool:
+    return os.path.splitext(filename)[1].lower() in TEXT_ASSET_EXTENSIONS
 
 class LabService(service.LabServiceServicer):
     def __init__(self):
@@ -28,6 +47,12 @@ class LabService(service.LabServiceServicer):
         # Create tables if they don't exist
         from utils.models import Base
         Base.metadata.create_all(self.engine)
+
+        # create_all does not touch existing tables
+        with self.engine.begin() as connection:
+            connection.execute(text(
+                "ALTER TABLE lab_assets ADD COLUMN IF NOT EXISTS stored_compressed BOOLEAN NOT NULL DEFAULT FALSE"
+            ))
         
         self.minio_client = minio.Minio(
             endpoint=Config.MINIO_ENDPOINT,
@@ -43,6 +68,15 @@ class LabService(service.LabServiceServicer):
         if not os.path.exists('files'):
             os.makedirs('files')
 
+        # Resumable uploads keep received bytes in files/sessions until the file is complete,
+        # the sessions themselves are rows of lab_upload_sessions and survive a restart
+        if not os.path.exists('files/sessions'):
+            os.makedirs('files/sessions')
+        # One lock per session lets only one stream at a time append to it
+        self.upload_stream_locks = {}
+        self.upload_stream_locks_lock = threading.Lock()
+        threading.Thread(target=self._sweep_upload_sessions, name="upload-session-sweeper", daemon=True).start()
+
     # Labs Management
     def CreateLab(self, request, context) -> stub.Lab:
         data: dict = {
@@ -157,6 +191,9 @@ class LabService(service.LabServiceServicer):
         # Check for metadata being the first request
         metadata_request = next(request_iterator)
 
+        if metadata_request.HasField('metadata') and metadata_request.metadata.session_id:
+            return self._upload_asset_session(metadata_request.metadata, request_iterator, context)
+
         if metadata_request.HasField('metadata'):
             data: dict = {
                 "lab_id": metadata_request.metadata.lab_id,
@@ -185,18 +222,22 @@ class LabService(service.LabServiceServicer):
             # Put file in minio bucket
             try:
                 # Download the file to a local path
+                received = 0
                 with open(f'files/{new_asset.filename}', 'wb') as f:
                     for request in request_iterator:
                         if request.HasField('chunk'):
                             f.write(request.chunk)
+                            received += len(request.chunk)
                         else:
                             context.set_code(grpc.StatusCode.INVALID_ARGUMENT)
                             context.set_details("Subsequent requests must contain chunk data")
                             return stub.Asset()
 
+                # Streamed uploads do not know their size in advance
+                new_asset.filesize = received
+
                 # Put the file in MinIO
-                self.minio_client.fput_object(
-                    "labs",
+                new_asset.stored_compressed = self._put_asset_file(
                     f"{new_asset.lab_id}/{new_asset.filename}",
                     f'files/{new_asset.filename}'
                 )
@@ -248,6 +289,8 @@ class LabService(service.LabServiceServicer):
 
             lab_asset.filename = data["filename"]
             lab_asset.filesize = data["filesize"]
+            # The gateway builds the asset's ETag and Last-Modified from it, new content needs a new date
+            lab_asset.upload_date = datetime.now(timezone.utc)
 
 
             with open(f'files/{lab_asset.filename}', 'wb') as f:
@@ -260,8 +303,7 @@ class LabService(service.LabServiceServicer):
                         return stub.Asset()
 
             # Put the file in MinIO
-            self.minio_client.fput_object(
-                "labs",
+            lab_asset.stored_compressed = self._put_asset_file(
                 f"{lab_asset.lab_id}/{lab_asset.filename}",
                 f'files/{lab_asset.filename}'
             )
@@ -288,33 +330,68 @@ class LabService(service.LabServiceServicer):
                     context.set_details("Asset not found")
                     return stub.DownloadAssetResponse()
 
+                # A compressed object can be sent as is only when the whole file is requested
+                send_stored = not lab_asset.stored_compressed or (
+                    request.accept_compressed and request.offset == 0 and request.length == 0
+                )
+                if not send_stored:
+                    # Decompressed text still shrinks a lot on the wire
+                    context.set_compression(grpc.Compression.Gzip)
+
                 yield stub.DownloadAssetResponse(asset=stub.Asset(**lab_asset.get_attrs()))
 
-                # Download the file from MinIO
+                # Stream only the requested byte range from MinIO (length 0 means until the end)
                 try:
-                    self.minio_client.fget_object(
-                        "labs",
-                        f"{lab_asset.lab_id}/{lab_asset.filename}",
-                        f'files/{lab_asset.filename}'
-                    )
+                    if send_stored:
+                        minio_response = self.minio_client.get_object(
+                            "labs",
+                            f"{lab_asset.lab_id}/{lab_asset.filename}",
+                            offset=request.offset,
+                            length=request.length
+                        )
+                    else:
+                        minio_response = self.minio_client.get_object(
+                            "labs",
+                            f"{lab_asset.lab_id}/{lab_asset.filename}"
+                        )
                 except Exception as e:
                     context.set_code(grpc.StatusCode.INTERNAL)
                     context.set_details(f"Failed to download asset from MinIO: {str(e)}")
                     return stub.DownloadAssetResponse()
 
-                with open(f'files/{lab_asset.filename}', 'rb') as f:
-                    while True:
-                        chunk = f.read(8 * 1024)
+                try:
+                    if send_stored:
+                        for chunk in minio_response.stream(8 * 1024):
+                            yield stub.DownloadAssetResponse(chunk=chunk)
+                    else:
+                        for chunk in self._decompressed_range(minio_response, request.offset, request.length):
+                            yield stub.DownloadAssetResponse(chunk=chunk)
+                finally:
+                    minio_response.close()
+                    minio_response.release_conn()
 
-                        if not chunk:
-                            break
+        return response_messages()
 
-                        yield stub.DownloadAssetResponse(chunk=chunk)
 
-                # Clean up local file after download
-                os.remove(f'files/{lab_asset.filename}')
+    @staticmethod
+    def _decompressed_range(compressed, offset: int, length: int, chunk_size: int = 8 * 1024):
+        """Yields bytes [offset, offset + length) of a gzip stream, length 0 meaning until the end."""
+        with gzip.GzipFile(fileobj=compressed) as content:
+            to_skip = offset
+            while to_skip > 0:
+                skipped = content.read(min(chunk_size, to_skip))
+                if not skipped:
+                    return
+                to_skip -= len(skipped)
 
-        return response_messages()
+            remaining = length if length > 0 else None
+            while remaining is None or remaining > 0:
+                chunk = content.read(chunk_size if remaining is None else min(chunk_size, remaining))
+                if not chunk:
+                    return
+                if remaining is not None:
+                    remaining -= len(chunk)
+                yield chunk
 
 
     def DeleteAsset(self, request, context) -> stub.DeleteAssetResponse:
@@ -372,6 +449,247 @@ class LabService(service.LabServiceServicer):
             return asset_list
 
 
+    def _put_asset_file(self, object_name: str, path: str) -> bool:
+        """Puts a received file into MinIO, gzip-compressing text assets. Returns whether the stored object is compressed."""
+        if not is_text_asset(object_name):
+            self.minio_client.fput_object("labs", object_name, path)
+            return False
+
+        compressed_path = f"{path}.gz"
+        try:
+            with open(path, 'rb') as source, gzip.open(compressed_path, 'wb', compresslevel=6) as target:
+                shutil.copyfileobj(source, target)
+            self.minio_client.fput_object("labs", object_name, compressed_path, content_type="application/gzip")
+        finally:
+            if os.path.exists(compressed_path):
+                os.remove(compressed_path)
+        return True
+
+
+    def ResumeUpload(self, request, context) -> stub.UploadSession:
+        with Session(self.engine) as db_session:
+            upload = db_session.get(LabUploadSession, request.session_id) \
+                if UPLOAD_SESSION_ID_PATTERN.fullmatch(request.session_id) else None
+
+            if upload is None:
+                context.set_code(grpc.StatusCode.NOT_FOUND)
+                context.set_details("Upload session not found")
+                return stub.UploadSession()
+
+            return stub.UploadSession(
+                session_id=upload.id,
+                lab_id=upload.lab_id,
+                filename=upload.filename,
+                filesize=upload.filesize,
+                committed_offset=self._committed_offset(upload.id)
+            )
+
+
+    def _upload_asset_session(self, metadata, request_iterator, context) -> stub.Asset:
+        session_id = metadata.session_id
+        if not UPLOAD_SESSION_ID_PATTERN.fullmatch(session_id):
+            context.set_code(grpc.StatusCode.INVALID_ARGUMENT)
+            context.set_details("Invalid upload session id")
+            return stub.Asset()
+
+        session = self._open_upload_session(metadata, context)
+        if session is None:
+            return stub.Asset()
+
+        # Only one stream at a time may append to a session
+        stream_lock = self._upload_stream_lock(session_id)
+        if not stream_lock.acquire(blocking=False):
+            context.set_code(grpc.StatusCode.ABORTED)
+            context.set_details("Upload session is already in progress")
+            return stub.Asset()
+
+        try:
+            path = self._upload_session_path(session_id)
+            # A new session starts empty. Bytes received by a replica that does not share files/sessions
+            # are not here, the client is told to start over
+            if session["created"] or not os.path.exists(path):
+                open(path, 'wb').close()
+
+            committed = os.path.getsize(path)
+            if metadata.offset != committed:
+                context.set_code(grpc.StatusCode.FAILED_PRECONDITION)
+                context.set_details(f"Upload session expects offset {committed}")
+                return stub.Asset()
+
+            # Flush every chunk, bytes received before a dropped connection stay committed
+            try:
+                with open(path, 'ab') as f:
+                    for request in request_iterator:
+                        if not request.HasField('chunk'):
+                            context.set_code(grpc.StatusCode.INVALID_ARGUMENT)
+                            context.set_details("Subsequent requests must contain chunk data")
+                            return stub.Asset()
+
+                        if committed + len(request.chunk) > session["filesize"]:
+                            context.set_code(grpc.StatusCode.INVALID_ARGUMENT)
+                            context.set_details("Uploaded data exceeds the declared file size")
+                            return stub.Asset()
+
+                        f.write(request.chunk)
+                        f.flush()
+                        committed += len(request.chunk)
+            except Exception as e:
+                print(f"Upload session {session_id} interrupted at offset {committed}: {str(e)}")
+                return stub.Asset()
+
+            if committed < session["filesize"]:
+                return stub.Asset()
+
+            with Session(self.engine) as db_session:
+                new_asset = LabAsset(
+                    lab_id=session["lab_id"],
+                    filename=session["filename"],
+                    filesize=session["filesize"]
+                )
+                db_session.add(new_asset)
+
+                try:
+                    new_asset.stored_compressed = self._put_asset_file(
+                        f"{new_asset.lab_id}/{new_asset.filename}",
+                        path
+                    )
+                except Exception as e:
+                    context.set_code(grpc.StatusCode.INTERNAL)
+                    context.set_details(f"Failed to upload asset to MinIO: {str(e)}")
+                    return stub.Asset()
+
+                upload = db_session.get(LabUploadSession, session_id)
+                if upload is not None:
+                    db_session.delete(upload)
+                db_session.commit()
+                os.remove(path)
+                # The session is gone, a later stream with its id starts a new one with a new lock
+                with self.upload_stream_locks_lock:
+                    self.upload_stream_locks.pop(session_id, None)
+
+                return stub.Asset(**new_asset.get_attrs())
+        finally:
+            stream_lock.release()
+
+
+    def _open_upload_session(self, metadata, context):
+        """Returns the session of the metadata, registering it when the first stream starts at offset 0."""
+        session_id = metadata.session_id
+        with Session(self.engine) as db_session:
+            upload = db_session.get(LabUploadSession, session_id)
+
+            if upload is None:
+                if metadata.offset != 0:
+                    context.set_code(grpc.StatusCode.NOT_FOUND)
+                    context.set_details("Upload session not found")
+                    return None
+
+                if db_session.get(Lab, metadata.lab_id) is None:
+                    context.set_code(grpc.StatusCode.NOT_FOUND)
+                    context.set_details("Lab not found")
+                    return None
+
+                upload = LabUploadSession(
+                    id=session_id,
+                    lab_id=metadata.lab_id,
+                    filename=metadata.filename,
+                    filesize=metadata.filesize
+                )
+                db_session.add(upload)
+                try:
+                    db_session.commit()
+                except IntegrityError:
+                    # Registered by a concurrent first stream, or the lab was deleted meanwhile
+                    db_session.rollback()
+                    upload = db_session.get(LabUploadSession, session_id)
+                    if upload is None:
+                        context.set_code(grpc.StatusCode.NOT_FOUND)
+                        context.set_details("Lab not found")
+                        return None
+                    created = False
+                else:
+                    created = True
+            else:
+                created = False
+                # Keeps an active session from expiring
+                db_session.execute(
+                    update(LabUploadSession)
+                    .where(LabUploadSession.id == session_id)
+                    .values(updated_at=datetime.now(timezone.utc))
+                )
+                db_session.commit()
+
+            return {
+                "lab_id": upload.lab_id,
+                "filename": upload.filename,
+                "filesize": upload.filesize,
+                "created": created
+            }
+
+
+    def _upload_stream_lock(self, session_id) -> threading.Lock:
+        with self.upload_stream_locks_lock:
+            return self.upload_stream_locks.setdefault(session_id, threading.Lock())
+
+
+    @staticmethod
+    def _upload_session_path(session_id) -> str:
+        return f'files/sessions/{session_id}.part'
+
+
+    def _committed_offset(self, session_id) -> int:
+        path = self._upload_session_path(session_id)
+        return os.path.getsize(path) if os.path.exists(path) else 0
+
+
+    def _sweep_upload_sessions(self):
+        while True:
+            time.sleep(Config.UPLOAD_SESSION_SWEEP_INTERVAL_SECONDS)
+            try:
+                self._expire_upload_sessions()
+            except Exception as e:
+                print(f"Failed to expire upload sessions: {str(e)}")
+
+
+    def _expire_upload_sessions(self):
+        """Deletes sessions idle for longer than the TTL and part files no session refers to."""
+        cutoff = datetime.now(timezone.utc) - timedelta(seconds=Config.UPLOAD_SESSION_TTL_SECONDS)
+        expired = []
+        with Session(self.engine) as db_session:
+            stale = db_session.execute(
+                select(LabUploadSession).where(LabUploadSession.updated_at < cutoff)
+            ).scalars().all()
+            for upload in stale:
+                stream_lock = self._upload_stream_lock(upload.id)
+                # A stream still running here is not interrupted
+                if not stream_lock.acquire(blocking=False):
+                    continue
+                try:
+                    session_id = upload.id
+                    db_session.delete(upload)
+                    db_session.commit()
+                    expired.append(session_id)
+                    if os.path.exists(self._upload_session_path(session_id)):
+                        os.remove(self._upload_session_path(session_id))
+                finally:
+                    stream_lock.release()
+
+            # Left behind by deleted labs or sessions removed by another replica
+            known = set(db_session.execute(select(LabUploadSession.id)).scalars().all())
+        for name in os.listdir('files/sessions'):
+            path = os.path.join('files/sessions', name)
+            session_id = name.removesuffix('.part')
+            if session_id not in known and os.path.getmtime(path) < cutoff.timestamp():
+                os.remove(path)
+                expired.append(session_id)
+
+        with self.upload_stream_locks_lock:
+            for session_id in expired:
+                self.upload_stream_locks.pop(session_id, None)
+        if expired:
+            print(f"Expired {len(expired)} upload sessions")
+
+
 if __name__ == "__main__":
     server = grpc.server(futures.ThreadPoolExecutor(max_workers=10))
     service.add_LabServiceServicer_to_server(LabService(), server)
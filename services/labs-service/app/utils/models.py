@@ -3,7 +3,7 @@ from datetime import datetime
 from typing import List, Optional
 
 # Import built-in modules
-from sqlalchemy import BigInteger, ForeignKey, String, Text, Integer, DateTime, TIMESTAMP
+from sqlalchemy import BigInteger, Boolean, ForeignKey, String, Text, Integer, DateTime, TIMESTAMP
 from sqlalchemy.orm import Mapped, mapped_column, relationship
 from sqlalchemy.sql import func
 from sqlalchemy.ext.declarative import declarative_base
@@ -104,6 +104,7 @@ class LabAsset(Base, SerializerMixin):
     filename: Mapped[str] = mapped_column(String(255), nullable=False)
     filesize: Mapped[int] = mapped_column(BigInteger, nullable=False)
     upload_date: Mapped[datetime] = mapped_column(DateTime(timezone=True), nullable=False, server_default=func.now())
+    stored_compressed: Mapped[bool] = mapped_column(Boolean, nullable=False, default=False, server_default="false")
 
     # Relationships
     lab = relationship("Lab", back_populates="assets")
@@ -117,10 +118,26 @@ class LabAsset(Base, SerializerMixin):
             "lab_id": self.lab_id,
             "filename": self.filename,
             "filesize": self.filesize,
-            "upload_date": self.upload_date
+            "upload_date": self.upload_date,
+            "stored_compressed": self.stored_compressed
         }
 
 
+class LabUploadSession(Base, SerializerMixin):
+    __tablename__ = "lab_upload_sessions"
+
+    # Chosen by the client, the received bytes are kept in files/sessions/<id>.part
+    id: Mapped[str] = mapped_column(String(64), primary_key=True)
+    lab_id: Mapped[int] = mapped_column(BigInteger, ForeignKey("labs.id", ondelete="CASCADE"), nullable=False)
+    filename: Mapped[str] = mapped_column(String(255), nullable=False)
+    filesize: Mapped[int] = mapped_column(BigInteger, nullable=False)
+    # Last stream of the session, sessions idle for longer than UPLOAD_SESSION_TTL_SECONDS are removed
+    updated_at: Mapped[datetime] = mapped_column(DateTime(timezone=True), nullable=False, server_default=func.now())
+
+    def __repr__(self):
+        return f"<LabUploadSession(id={self.id}, lab_id={self.lab_id}, filename={self.filename})>"
+
+
 class SubmissionAsset(Base, SerializerMixin):
     __tablename__ = "submission_assets"
 
@@ -0,0 +1,108 @@
+package olsh.backend.shared.grpc;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import io.grpc.ForwardingServerCall;
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+import lombok.extern.slf4j.Slf4j;
+import olsh.backend.shared.logging.RequestIds;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.grpc.server.GlobalServerInterceptor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Request id and access log of every RPC served by this service.
+ * <p>
+ * The id sent by the caller in {@code x-request-id}, or a new one when it is missing or malformed, is put
+ * into the MDC while the call runs, so every log line of the call carries it without repeating it in the
+ * messages. One access line is written per
+ * call when it ends, for failed calls always and for successful calls only for a sample of them.
+ */
+@Slf4j
+@Component
+@GlobalServerInterceptor
+public class GrpcRequestLoggingInterceptor implements ServerInterceptor {
+
+    public static final String MDC_REQUEST_ID = RequestIds.MDC_KEY;
+    public static final Metadata.Key<String> REQUEST_ID_HEADER =
+        Metadata.Key.of("x-request-id", Metadata.ASCII_STRING_MARSHALLER);
+
+    private final double sampleRate;
+
+    public GrpcRequestLoggingInterceptor(@Value("${grpc.request-logging.sample-rate:0.01}") double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call,
+                                                                 Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> next) {
+        String requestId = RequestIds.acceptOrGenerate(headers.get(REQUEST_ID_HEADER));
+        String method = call.getMethodDescriptor().getFullMethodName();
+        long startNanos = System.nanoTime();
+
+        ServerCall<ReqT, RespT> loggedCall = new ForwardingServerCall.SimpleForwardingServerCall<>(call) {
+            @Override
+            public void close(Status status, Metadata trailers) {
+                if (!status.isOk() || ThreadLocalRandom.current().nextDouble() < sampleRate) {
+                    log.info("{} {} in {} ms", method, status.getCode(),
+                        (System.nanoTime() - startNanos) / 1_000_000);
+                }
+                super.close(status, trailers);
+            }
+        };
+
+        return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(
+            withRequestId(requestId, () -> next.startCall(loggedCall, headers))) {
+            @Override
+            public void onMessage(ReqT message) {
+                withRequestId(requestId, () -> super.onMessage(message));
+            }
+
+            @Override
+            public void onHalfClose() {
+                // Unary and server streaming handlers run here
+                withRequestId(requestId, super::onHalfClose);
+            }
+
+            @Override
+            public void onCancel() {
+                withRequestId(requestId, super::onCancel);
+            }
+
+            @Override
+            public void onComplete() {
+                withRequestId(requestId, super::onComplete);
+            }
+
+            @Override
+            public void onReady() {
+                withRequestId(requestId, super::onReady);
+            }
+        };
+    }
+
+    private static void withRequestId(String requestId, Runnable action) {
+        withRequestId(requestId, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    private static <T> T withRequestId(String requestId, Supplier<T> action) {
+        // Callbacks of one call may run on different executor threads, so the id is set for each of them
+        MDC.put(MDC_REQUEST_ID, requestId);
+        try {
+            return action.get();
+        } finally {
+            MDC.remove(MDC_REQUEST_ID);
+        }
+    }
+}
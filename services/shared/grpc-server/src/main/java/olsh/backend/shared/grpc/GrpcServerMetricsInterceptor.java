@@ -0,0 +1,127 @@
+package olsh.backend.shared.grpc;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.protobuf.MessageLite;
+
+import io.grpc.ForwardingServerCall;
+import io.grpc.ForwardingServerCallListener;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.grpc.server.GlobalServerInterceptor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the in-flight calls and the message sizes of every RPC served by this service.
+ * <p>
+ * Latency and status codes of the same calls are recorded by the observation interceptor of Spring gRPC
+ * as the {@code grpc.server} timer, the meters here use its {@code rpc.service} and {@code rpc.method} tags
+ * so both can be joined per method.
+ */
+@Component
+@GlobalServerInterceptor
+public class GrpcServerMetricsInterceptor implements ServerInterceptor {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, MethodMeters> meters = new ConcurrentHashMap<>();
+
+    public GrpcServerMetricsInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call,
+                                                                 Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> next) {
+        MethodDescriptor<ReqT, RespT> method = call.getMethodDescriptor();
+        MethodMeters methodMeters = meters.computeIfAbsent(method.getFullMethodName(),
+            name -> new MethodMeters(meterRegistry, method));
+        methodMeters.inFlight.incrementAndGet();
+        AtomicBoolean finished = new AtomicBoolean();
+        Runnable finish = () -> {
+            if (finished.compareAndSet(false, true)) {
+                methodMeters.inFlight.decrementAndGet();
+            }
+        };
+
+        ServerCall<ReqT, RespT> measuredCall = new ForwardingServerCall.SimpleForwardingServerCall<>(call) {
+            @Override
+            public void sendMessage(RespT message) {
+                methodMeters.sent.record(serializedSize(message));
+                super.sendMessage(message);
+            }
+
+            @Override
+            public void close(Status status, Metadata trailers) {
+                finish.run();
+                super.close(status, trailers);
+            }
+        };
+
+        ServerCall.Listener<ReqT> listener;
+        try {
+            listener = next.startCall(measuredCall, headers);
+        } catch (RuntimeException e) {
+            finish.run();
+            throw e;
+        }
+        return new ForwardingServerCallListener.SimpleForwardingServerCallListener<>(listener) {
+            @Override
+            public void onMessage(ReqT message) {
+                methodMeters.received.record(serializedSize(message));
+                super.onMessage(message);
+            }
+
+            @Override
+            public void onCancel() {
+                // A cancelled call is never closed by the service
+                finish.run();
+                super.onCancel();
+            }
+        };
+    }
+
+    private static int serializedSize(Object message) {
+        // Protobuf caches the size it computed for serialization, so this is cheap for responses
+        return message instanceof MessageLite messageLite ? messageLite.getSerializedSize() : 0;
+    }
+
+    private static class MethodMeters {
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final DistributionSummary received;
+        private final DistributionSummary sent;
+
+        MethodMeters(MeterRegistry registry, MethodDescriptor<?, ?> method) {
+            Tags tags = Tags.of(
+                "rpc.service", String.valueOf(method.getServiceName()),
+                "rpc.method", String.valueOf(method.getBareMethodName()));
+            Gauge.builder("grpc.server.calls.active", inFlight, AtomicInteger::get)
+                .description("Calls currently being served")
+                .tags(tags)
+                .register(registry);
+            this.received = DistributionSummary.builder("grpc.server.message.size")
+                .description("Serialized size of the messages of a call")
+                .baseUnit("bytes")
+                .tags(tags)
+                .tag("direction", "received")
+                .register(registry);
+            this.sent = DistributionSummary.builder("grpc.server.message.size")
+                .description("Serialized size of the messages of a call")
+                .baseUnit("bytes")
+                .tags(tags)
+                .tag("direction", "sent")
+                .register(registry);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package olsh.backend.shared.logging;
+
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Request ids as they are kept in the MDC and passed between the services.
+ * <p>
+ * An id sent by a caller ends up in every log line of the request and in the headers of the calls it
+ * makes, so only short ids of plain characters are taken over. Anything else is replaced by a new id.
+ */
+public final class RequestIds {
+
+    public static final String MDC_KEY = "requestId";
+
+    private static final Pattern ACCEPTED = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+    private RequestIds() {
+    }
+
+    public static String acceptOrGenerate(String sentRequestId) {
+        return sentRequestId != null && ACCEPTED.matcher(sentRequestId).matches()
+            ? sentRequestId
+            : UUID.randomUUID().toString();
+    }
+}
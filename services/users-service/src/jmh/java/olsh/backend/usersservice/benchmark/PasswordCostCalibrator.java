@@ -0,0 +1,86 @@
+package olsh.backend.usersservice.benchmark;
+
+import java.time.Duration;
+import java.util.function.IntFunction;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.openjdk.jmh.runner.options.VerboseMode;
+import org.springframework.boot.convert.DurationStyle;
+
+/**
+ * Picks the password hashing cost for this machine: raises the cost of each algorithm step by step and
+ * recommends the highest one whose verification still fits the target time.
+ * <p>
+ * Run with {@code gradle calibratePasswordCost} on the hardware the service is deployed to. Properties:
+ * {@code calibrate.target} (verification time to meet, default 100ms) and {@code calibrate.argon2-memory-kib}
+ * (Argon2 memory, default 19456, the iterations are raised).
+ */
+public class PasswordCostCalibrator {
+
+    private static final int MAX_BCRYPT_STRENGTH = 16;
+    private static final int MAX_ARGON2_ITERATIONS = 10;
+
+    public static void main(String[] args) throws RunnerException {
+        Duration target = DurationStyle.detectAndParse(System.getProperty("calibrate.target", "100ms"));
+        int argon2MemoryKib = Integer.parseInt(System.getProperty("calibrate.argon2-memory-kib", "19456"));
+        double targetMillis = target.toNanos() / 1e6;
+
+        System.out.printf("Target verification time: %.0f ms%n", targetMillis);
+        Integer strength = highestWithin(targetMillis, 8, MAX_BCRYPT_STRENGTH,
+            value -> "bcrypt:" + value);
+        Integer iterations = highestWithin(targetMillis, 1, MAX_ARGON2_ITERATIONS,
+            value -> "argon2:" + argon2MemoryKib + ":" + value + ":1");
+
+        System.out.println();
+        if (strength != null) {
+            System.out.printf("BCrypt: PASSWORD_HASHING_ALGORITHM=bcrypt PASSWORD_BCRYPT_STRENGTH=%d%n", strength);
+        } else {
+            System.out.println("BCrypt: even the lowest strength is slower than the target");
+        }
+        if (iterations != null) {
+            System.out.printf("Argon2: PASSWORD_HASHING_ALGORITHM=argon2 PASSWORD_ARGON2_MEMORY_KIB=%d "
+                + "PASSWORD_ARGON2_ITERATIONS=%d PASSWORD_ARGON2_PARALLELISM=1%n", argon2MemoryKib, iterations);
+        } else {
+            System.out.printf("Argon2: one iteration over %d KiB is slower than the target%n", argon2MemoryKib);
+        }
+    }
+
+    /**
+     * Measures increasing values of one cost parameter until the target is exceeded.
+     *
+     * @return the highest value measured within the target, null when the lowest one already exceeds it
+     */
+    private static Integer highestWithin(double targetMillis, int from, int to, IntFunction<String> cost)
+            throws RunnerException {
+        Integer highest = null;
+        for (int value = from; value <= to; value++) {
+            double millis = verifyMillis(cost.apply(value));
+            System.out.printf("%-24s %8.1f ms%n", cost.apply(value), millis);
+            if (millis > targetMillis) {
+                break;
+            }
+            highest = value;
+        }
+        return highest;
+    }
+
+    private static double verifyMillis(String cost) throws RunnerException {
+        // Slow costs need few invocations for a stable mean, short iterations keep the whole run in minutes
+        RunResult result = new Runner(new OptionsBuilder()
+            .include(PasswordHashingBenchmark.class.getName() + ".verify")
+            .param("cost", cost)
+            .warmupIterations(1)
+            .warmupTime(TimeValue.seconds(2))
+            .measurementIterations(3)
+            .measurementTime(TimeValue.seconds(2))
+            .forks(1)
+            .verbosity(VerboseMode.SILENT)
+            .build())
+            .runSingle();
+        return result.getPrimaryResult().getScore();
+    }
+}
@@ -0,0 +1,68 @@
+package olsh.backend.usersservice.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import olsh.backend.usersservice.config.SecurityConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Time of one password verification, the work of a sign-in, and of one hash, the work of a sign-up or a
+ * password change, per algorithm and cost.
+ * <p>
+ * The encoder is built by {@link SecurityConfig} exactly as in production. Costs are written as
+ * {@code bcrypt:<strength>} or {@code argon2:<memory KiB>:<iterations>:<parallelism>}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class PasswordHashingBenchmark {
+
+    private static final String PASSWORD = "correct horse battery staple";
+
+    @Param({"bcrypt:10", "bcrypt:12", "argon2:19456:2:1"})
+    public String cost;
+
+    private PasswordEncoder encoder;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        encoder = encoder(cost);
+        hash = encoder.encode(PASSWORD);
+    }
+
+    @Benchmark
+    public boolean verify() {
+        return encoder.matches(PASSWORD, hash);
+    }
+
+    @Benchmark
+    public String hash() {
+        return encoder.encode(PASSWORD);
+    }
+
+    static PasswordEncoder encoder(String cost) {
+        String[] parts = cost.split(":");
+        SecurityConfig config = new SecurityConfig();
+        return switch (parts[0]) {
+            case "bcrypt" -> config.passwordEncoder("bcrypt", Integer.parseInt(parts[1]), 19456, 2, 1);
+            case "argon2" -> config.passwordEncoder("argon2", 10, Integer.parseInt(parts[1]),
+                Integer.parseInt(parts[2]), Integer.parseInt(parts[3]));
+            default -> throw new IllegalArgumentException("Unknown password hashing cost '" + cost + "'");
+        };
+    }
+}
@@ -0,0 +1,192 @@
+package olsh.backend.usersservice.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import com.olsh.users.proto.GetUserInfoRequest;
+import com.olsh.users.proto.UserInfo;
+import com.olsh.users.proto.UserInfoResponse;
+import com.olsh.users.proto.UsersServiceGrpc;
+import io.grpc.Attributes;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.Status;
+import olsh.backend.shared.grpc.GrpcRequestLoggingInterceptor;
+import olsh.backend.usersservice.grpc.UsersServiceGrpcImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Latency the logging of one GetUserInfo call adds to the thread serving it, with 16 calls in parallel.
+ * <p>
+ * {@code sync-info} is the logging before request ids: a synchronous appender and an INFO line per call.
+ * {@code async-sampled} is the current setup of {@code services/shared}: the call passes
+ * {@link GrpcRequestLoggingInterceptor} with its default sample rate, its "Received" line is DEBUG, and the
+ * appender is the non-blocking {@link AsyncAppender} of {@code logback-spring.xml}. Both write to a
+ * temporary file with the production pattern, the number of lines written is printed at the end.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Threads(16)
+@Fork(1)
+public class RequestLoggingBenchmark {
+
+    private static final org.slf4j.Logger SERVICE_LOG = LoggerFactory.getLogger(UsersServiceGrpcImpl.class);
+    private static final MethodDescriptor<GetUserInfoRequest, UserInfoResponse> METHOD =
+        UsersServiceGrpc.getGetUserInfoMethod();
+    private static final String PATTERN =
+        "%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p [%X{requestId:-}] --- [users-service] [%15.15t] " +
+        "%-40.40logger{39} : %m%n";
+
+    @Param({"sync-info", "async-sampled"})
+    public String logging;
+
+    private Path logFile;
+    private LoggerContext loggerContext;
+    private GrpcRequestLoggingInterceptor interceptor;
+
+    @Setup(Level.Trial)
+    public void configureLogging() throws IOException {
+        logFile = Files.createTempFile("request-logging", ".log");
+        loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
+        loggerContext.reset();
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(loggerContext);
+        encoder.setPattern(PATTERN);
+        encoder.start();
+
+        FileAppender<ILoggingEvent> file = new FileAppender<>();
+        file.setContext(loggerContext);
+        file.setFile(logFile.toString());
+        file.setEncoder(encoder);
+        file.start();
+
+        Appender<ILoggingEvent> appender = file;
+        if (logging.equals("async-sampled")) {
+            AsyncAppender async = new AsyncAppender();
+            async.setContext(loggerContext);
+            async.setQueueSize(8192);
+            async.setNeverBlock(true);
+            async.addAppender(file);
+            async.start();
+            appender = async;
+        }
+        Logger root = loggerContext.getLogger(Logger.ROOT_LOGGER_NAME);
+        root.setLevel(ch.qos.logback.classic.Level.INFO);
+        root.addAppender(appender);
+
+        interceptor = new GrpcRequestLoggingInterceptor(0.01);
+    }
+
+    @TearDown(Level.Trial)
+    public void countLines() throws IOException {
+        // Flushes the queue of the async appender
+        loggerContext.stop();
+        try (var lines = Files.lines(logFile)) {
+            System.out.println(logging + ": " + lines.count() + " lines written");
+        }
+        Files.delete(logFile);
+    }
+
+    @Benchmark
+    public void getUserInfo() {
+        long userId = ThreadLocalRandom.current().nextLong(1, 100_000);
+        if (logging.equals("sync-info")) {
+            SERVICE_LOG.info("Received GetUserInfo request for user ID: {}", userId);
+            return;
+        }
+
+        Metadata headers = new Metadata();
+        headers.put(GrpcRequestLoggingInterceptor.REQUEST_ID_HEADER, "4f1c2a9e-0b7d-4e53-9a61-2d8c3e5f7a10");
+        ServerCall.Listener<GetUserInfoRequest> listener =
+            interceptor.interceptCall(new AnsweredCall(), headers, answeringHandler());
+        listener.onMessage(GetUserInfoRequest.newBuilder().setUserId(userId).build());
+        listener.onHalfClose();
+        listener.onComplete();
+    }
+
+    /** Logs the received request and answers it on half close, as the unary handler does. */
+    private static ServerCallHandler<GetUserInfoRequest, UserInfoResponse> answeringHandler() {
+        return (call, headers) -> new ServerCall.Listener<>() {
+            private GetUserInfoRequest request;
+
+            @Override
+            public void onMessage(GetUserInfoRequest message) {
+                request = message;
+            }
+
+            @Override
+            public void onHalfClose() {
+                SERVICE_LOG.debug("Received GetUserInfo request for user ID: {}", request.getUserId());
+                call.sendMessage(UserInfoResponse.newBuilder()
+                    .setUserInfo(UserInfo.newBuilder().setUserId(request.getUserId()))
+                    .build());
+                call.close(Status.OK, new Metadata());
+            }
+        };
+    }
+
+    /** Call without transport, the response goes nowhere. */
+    private static class AnsweredCall extends ServerCall<GetUserInfoRequest, UserInfoResponse> {
+
+        @Override
+        public void request(int numMessages) {
+        }
+
+        @Override
+        public void sendHeaders(Metadata headers) {
+        }
+
+        @Override
+        public void sendMessage(UserInfoResponse message) {
+        }
+
+        @Override
+        public void close(Status status, Metadata trailers) {
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public Attributes getAttributes() {
+            return Attributes.EMPTY;
+        }
+
+        @Override
+        public MethodDescriptor<GetUserInfoRequest, UserInfoResponse> getMethodDescriptor() {
+            return METHOD;
+        }
+    }
+}
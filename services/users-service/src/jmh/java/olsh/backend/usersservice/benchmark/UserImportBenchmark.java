@@ -0,0 +1,110 @@
+package olsh.backend.usersservice.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import olsh.backend.usersservice.UsersServiceApplication;
+import olsh.backend.usersservice.entity.Role;
+import olsh.backend.usersservice.entity.User;
+import olsh.backend.usersservice.repository.UserRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Users inserted per second when a roster is saved in one transaction, with and without JDBC batching.
+ * <p>
+ * The whole service runs against a PostgreSQL started by the benchmark, with the production mapping and
+ * settings apart from the parameters. Passwords are hashed once up front, hashing is measured by
+ * {@link PasswordHashingBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class UserImportBenchmark {
+
+    private static final int ROSTER_SIZE = 1000;
+
+    /** hibernate.jdbc.batch_size, 0 sends one statement per user. */
+    @Param({"0", "50"})
+    public int batchSize;
+
+    /** PgJDBC rewrites a batch into multi-row INSERT statements. */
+    @Param({"false", "true"})
+    public boolean reWriteBatchedInserts;
+
+    private EmbeddedPostgres postgres;
+    private ConfigurableApplicationContext context;
+    private UserRepository userRepository;
+    private TransactionTemplate transactionTemplate;
+    private String passwordHash;
+    private long nextStudent;
+
+    @Setup(Level.Trial)
+    public void startService() throws IOException {
+        postgres = EmbeddedPostgres.builder().start();
+        context = SpringApplication.run(UsersServiceApplication.class,
+            "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+            "--spring.datasource.username=postgres",
+            "--spring.datasource.password=",
+            "--spring.datasource.hikari.data-source-properties.reWriteBatchedInserts=" + reWriteBatchedInserts,
+            "--spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize,
+            "--spring.grpc.server.port=0",
+            "--spring.main.banner-mode=off");
+        userRepository = context.getBean(UserRepository.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        passwordHash = context.getBean(PasswordEncoder.class).encode("correct horse battery staple");
+    }
+
+    @TearDown(Level.Iteration)
+    public void clearUsers() {
+        context.getBean(JdbcTemplate.class).execute("TRUNCATE users");
+    }
+
+    @TearDown(Level.Trial)
+    public void stopService() throws IOException {
+        context.close();
+        postgres.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROSTER_SIZE)
+    public List<User> importRoster() {
+        List<User> roster = new ArrayList<>(ROSTER_SIZE);
+        for (int i = 0; i < ROSTER_SIZE; i++) {
+            long student = nextStudent++;
+            roster.add(User.builder()
+                .username("student" + student)
+                .email("student" + student + "@university.example")
+                .firstName("Student")
+                .lastName("No. " + student)
+                .role(Role.ROLE_USER)
+                .password(passwordHash)
+                .build());
+        }
+        return transactionTemplate.execute(status -> userRepository.saveAll(roster));
+    }
+}
@@ -0,0 +1,215 @@
+package olsh.backend.usersservice.benchmark;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import olsh.backend.usersservice.UsersServiceApplication;
+import olsh.backend.usersservice.entity.User;
+import olsh.backend.usersservice.repository.UserRepository;
+import olsh.backend.usersservice.repository.UserSummary;
+import olsh.backend.usersservice.service.LastLoginRecorder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Latency of the repository queries on a populated users table, and their query plans.
+ * <p>
+ * The service starts against an embedded PostgreSQL, so the schema is the one the Flyway migrations create.
+ * The second-level cache is off, every call reaches the database. Before measuring, the plan of each query
+ * is printed with {@code EXPLAIN (ANALYZE, BUFFERS)}; a sequential scan on {@code users} in any of them
+ * means an index is missing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class UserQueryBenchmark {
+
+    private static final int IMPORT_CHUNK_SIZE = 500;
+    private static final int EXPORT_PAGE_SIZE = 1000;
+    private static final int LOGINS_PER_FLUSH = 100;
+
+    // Fills the table with students named after a few common first and last names, ids from the sequence
+    private static final String SEED_SQL =
+        "INSERT INTO users (id, username, email, password, first_name, last_name, role, created_at) " +
+        "SELECT nextval('users_id_seq'), 'student' || i, 'student' || i || '@university.example', " +
+        "'{bcrypt}$2a$10$benchmarkbenchmarkbenchmarkbenchmarkbenchmarkbenchmar', " +
+        "(ARRAY['Anna', 'Ivan', 'Maria', 'Pavel', 'Olga', 'Dmitry', 'Elena', 'Sergey'])[1 + i % 8], " +
+        "(ARRAY['Ivanov', 'Petrov', 'Sidorov', 'Smirnov', 'Kuznetsov', 'Popov', 'Volkov', 'Sokolov', " +
+        "'Lebedev', 'Kozlov'])[1 + i / 8 % 10], " +
+        "'ROLE_USER', now() - i * interval '1 minute' " +
+        "FROM generate_series(1, ?) AS i";
+
+    /** Users in the table. */
+    @Param({"100000"})
+    public int users;
+
+    private EmbeddedPostgres postgres;
+    private ConfigurableApplicationContext context;
+    private UserRepository userRepository;
+    private LastLoginRecorder lastLoginRecorder;
+    private JdbcTemplate jdbcTemplate;
+    private List<Long> userIds;
+
+    @Setup(Level.Trial)
+    public void startService() throws IOException {
+        postgres = EmbeddedPostgres.builder().start();
+        context = SpringApplication.run(UsersServiceApplication.class,
+            "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+            "--spring.datasource.username=postgres",
+            "--spring.datasource.password=",
+            "--spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+            "--spring.jpa.properties.hibernate.cache.use_query_cache=false",
+            // Flushed by the benchmark only
+            "--last-login.flush-interval=PT1H",
+            "--spring.grpc.server.port=0",
+            "--spring.main.banner-mode=off");
+        userRepository = context.getBean(UserRepository.class);
+        lastLoginRecorder = context.getBean(LastLoginRecorder.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        jdbcTemplate.update(SEED_SQL, users);
+        jdbcTemplate.execute("VACUUM ANALYZE users");
+        userIds = jdbcTemplate.queryForList("SELECT id FROM users ORDER BY id", Long.class);
+        printQueryPlans();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopService() throws IOException {
+        // Share of last-login updates that stayed on their page and touched no index
+        Map<String, Object> updates = jdbcTemplate.queryForMap(
+            "SELECT n_tup_upd, n_tup_hot_upd FROM pg_stat_user_tables WHERE relname = 'users'");
+        System.out.println("users updates: " + updates.get("n_tup_upd") + ", HOT: " + updates.get("n_tup_hot_upd"));
+        context.close();
+        postgres.close();
+    }
+
+    @Benchmark
+    public Optional<User> findByUsername() {
+        return userRepository.findByUsername("student" + randomStudent());
+    }
+
+    @Benchmark
+    public Optional<User> findByEmail() {
+        return userRepository.findByEmail("student" + randomStudent() + "@university.example");
+    }
+
+    @Benchmark
+    public boolean existsByEmail() {
+        return userRepository.existsByEmail("student" + randomStudent() + "@university.example");
+    }
+
+    /** A few matches: the username of one student and the usernames it is a prefix of. */
+    @Benchmark
+    public List<UserSummary> searchByUsername() {
+        String query = "student" + randomStudent();
+        return userRepository.searchByText("%" + query + "%", query, 10, 0);
+    }
+
+    /** A tenth of the users match, the first page of them is ranked and returned. */
+    @Benchmark
+    public List<UserSummary> searchByLastName() {
+        return userRepository.searchByText("%kuznetsov%", "kuznetsov", 10, 0);
+    }
+
+    @Benchmark
+    public long countByLastName() {
+        return userRepository.countByText("%kuznetsov%");
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EXPORT_PAGE_SIZE)
+    public List<UserSummary> exportPage() {
+        return userRepository.findByIdGreaterThanOrderById(randomUserId(), Limit.of(EXPORT_PAGE_SIZE));
+    }
+
+    /** The duplicate check of one import chunk, half of the emails are taken. */
+    @Benchmark
+    public List<String> findTakenEmails() {
+        List<String> emails = new ArrayList<>(IMPORT_CHUNK_SIZE);
+        int first = randomStudent();
+        for (int i = 0; i < IMPORT_CHUNK_SIZE; i++) {
+            emails.add("student" + (first + i * 2) + "@university.example");
+        }
+        return userRepository.findTakenEmails(emails);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOGINS_PER_FLUSH)
+    public void flushLastLogins() {
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < LOGINS_PER_FLUSH; i++) {
+            lastLoginRecorder.record(randomUserId(), now);
+        }
+        lastLoginRecorder.flush();
+    }
+
+    private void printQueryPlans() {
+        String student = "student" + users / 2;
+        String email = student + "@university.example";
+        Map<String, String> queries = new LinkedHashMap<>();
+        queries.put("findByUsername", "SELECT * FROM users WHERE username = '" + student + "'");
+        queries.put("findByEmail", "SELECT * FROM users WHERE email = '" + email + "'");
+        queries.put("searchByText, few matches", searchSql(student));
+        queries.put("searchByText, many matches", searchSql("kuznetsov"));
+        queries.put("countByText", "SELECT count(*) FROM users u WHERE " + UserRepository.SEARCH_TEXT +
+                                   " LIKE '%kuznetsov%'");
+        queries.put("findByIdGreaterThanOrderById", "SELECT id, username, first_name, last_name, role, email " +
+                                                    "FROM users WHERE id > " + userIds.get(users / 2) +
+                                                    " ORDER BY id LIMIT " + EXPORT_PAGE_SIZE);
+        queries.put("findTakenEmails", "SELECT email FROM users WHERE email IN ('" + email + "', " +
+                                       "'student1@university.example', 'new@university.example')");
+        queries.put("LastLoginRecorder flush", "UPDATE users u SET last_login_at = logins.at " +
+                                               "FROM (SELECT unnest(ARRAY[" + userIds.get(0) + ", " +
+                                               userIds.get(users / 2) + "]::bigint[]) AS id, now() AS at) logins " +
+                                               "WHERE u.id = logins.id " +
+                                               "AND (u.last_login_at IS NULL OR u.last_login_at < logins.at)");
+        queries.forEach((name, sql) -> {
+            System.out.println("--- " + name);
+            jdbcTemplate.queryForList("EXPLAIN (ANALYZE, BUFFERS) " + sql, String.class)
+                .forEach(System.out::println);
+        });
+    }
+
+    private static String searchSql(String query) {
+        return "SELECT u.id, u.username, u.first_name, u.last_name, u.role, u.email FROM users u " +
+               "WHERE " + UserRepository.SEARCH_TEXT + " LIKE '%" + query + "%' " +
+               "ORDER BY lower(u.username) = '" + query + "' DESC, " +
+               "starts_with(lower(u.username), '" + query + "') DESC, " +
+               "word_similarity('" + query + "', " + UserRepository.SEARCH_TEXT + ") DESC, u.id LIMIT 10";
+    }
+
+    private int randomStudent() {
+        return ThreadLocalRandom.current().nextInt(1, users + 1);
+    }
+
+    private Long randomUserId() {
+        return userIds.get(ThreadLocalRandom.current().nextInt(users));
+    }
+}
@@ -1,9 +1,15 @@
 package olsh.backend.usersservice;
 
+import olsh.backend.shared.grpc.GrpcRequestLoggingInterceptor;
+import olsh.backend.shared.grpc.GrpcServerMetricsInterceptor;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@Import({GrpcRequestLoggingInterceptor.class, GrpcServerMetricsInterceptor.class})
+@EnableScheduling
 public class UsersServiceApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,38 @@
+package olsh.backend.usersservice.config;
+
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.grpc.server.ServerBuilderCustomizer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Fixed pool running the gRPC handlers.
+ * <p>
+ * By default grpc-java starts a thread for every call in flight. Under load, most of them would only wait for
+ * one of the pooled database connections. The pool has as many threads as there are connections set aside for
+ * it, and further calls wait in its queue. Its meters are published as {@code executor.*} with
+ * {@code name=grpcServerExecutor}.
+ */
+@Configuration
+public class GrpcServerConfig {
+
+    @Bean
+    public ThreadPoolTaskExecutor grpcServerExecutor(@Value("${grpc.executor.threads:16}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix("grpc-server-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        return executor;
+    }
+
+    @Bean
+    public ServerBuilderCustomizer<NettyServerBuilder> grpcServerExecutorCustomizer(
+            @Qualifier("grpcServerExecutor") ThreadPoolTaskExecutor executor) {
+        return builder -> builder.executor(executor);
+    }
+}
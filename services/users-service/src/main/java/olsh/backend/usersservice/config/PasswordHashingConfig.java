@@ -0,0 +1,63 @@
+package olsh.backend.usersservice.config;
+
+import java.util.Map;
+
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Pool running the RPCs that hash or verify a password.
+ * <p>
+ * A BCrypt check keeps a CPU busy for around 100 ms, on the shared gRPC executor a login burst would occupy
+ * every thread and cheap reads like {@code GetUserInfo} would queue behind it. The pool is bounded in threads
+ * and queue, calls beyond both are rejected right away. Spring Boot publishes its {@code executor.*} meters
+ * tagged with {@code name=passwordHashingExecutor}.
+ */
+@Configuration
+public class PasswordHashingConfig {
+
+    @Bean
+    public ThreadPoolTaskExecutor passwordHashingExecutor(
+            @Value("${password-hashing.threads:2}") int threads,
+            @Value("${password-hashing.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("password-hashing-");
+        executor.setTaskDecorator(task -> {
+            // Keeps the request id of the calling RPC in the log lines written by the pool
+            Map<String, String> context = MDC.getCopyOfContextMap();
+            return () -> {
+                if (context != null) {
+                    MDC.setContextMap(context);
+                }
+                try {
+                    task.run();
+                } finally {
+                    MDC.clear();
+                }
+            };
+        });
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        return executor;
+    }
+
+    /**
+     * Hashes the passwords of {@code ImportUsers}, apart from the sign-in pool so that a roster of thousands
+     * does not fill its queue. Imports running at the same time share the threads.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor userImportHashingExecutor(
+            @Value("${user-import.hashing-threads:4}") int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix("user-import-hashing-");
+        return executor;
+    }
+}
@@ -1,15 +1,42 @@
 package olsh.backend.usersservice.config;
 
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 @Configuration
 public class SecurityConfig {
 
+    /**
+     * Hashes new passwords with the configured algorithm and cost and stores them as {@code {id}hash}, so
+     * hashes of every algorithm can be verified side by side. Hashes that are older or cheaper than the
+     * configuration are replaced on the next successful sign-in. Pick the cost with the
+     * {@code calibratePasswordCost} task on the production hardware.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            @Value("${password-hashing.algorithm:bcrypt}") String algorithm,
+            @Value("${password-hashing.bcrypt.strength:10}") int bcryptStrength,
+            @Value("${password-hashing.argon2.memory-kib:19456}") int argon2MemoryKib,
+            @Value("${password-hashing.argon2.iterations:2}") int argon2Iterations,
+            @Value("${password-hashing.argon2.parallelism:1}") int argon2Parallelism) {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+        Map<String, PasswordEncoder> encoders = Map.of(
+            "bcrypt", bcrypt,
+            "argon2", new Argon2PasswordEncoder(16, 32, argon2Parallelism, argon2MemoryKib, argon2Iterations));
+        if (!encoders.containsKey(algorithm)) {
+            throw new IllegalArgumentException(
+                "Unknown password hashing algorithm '" + algorithm + "', expected one of " + encoders.keySet());
+        }
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(algorithm, encoders);
+        // Hashes written before the {id} prefix was introduced are plain BCrypt
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,7 @@
+package olsh.backend.usersservice.exception;
+
+public class AlreadyExistsException extends RuntimeException {
+    public AlreadyExistsException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,61 @@
+package olsh.backend.usersservice.grpc;
+
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs the handlers of the password RPCs on the password hashing pool instead of the gRPC executor.
+ * <p>
+ * The gRPC thread only hands the call over and is free again at once. A call that does not fit into the
+ * pool fails with {@code RESOURCE_EXHAUSTED}, so callers back off instead of piling up, and one whose
+ * client gave up while it was queued is dropped without hashing anything.
+ */
+@Slf4j
+@Component
+public class PasswordMethodExecutor {
+
+    private final ThreadPoolTaskExecutor executor;
+    private final Counter rejected;
+    private final Counter abandoned;
+
+    public PasswordMethodExecutor(@Qualifier("passwordHashingExecutor") ThreadPoolTaskExecutor executor,
+                                  MeterRegistry meterRegistry) {
+        this.executor = executor;
+        this.rejected = Counter.builder("password.hashing.rejected")
+            .description("Password RPCs refused because the hashing pool and its queue were full")
+            .register(meterRegistry);
+        this.abandoned = Counter.builder("password.hashing.abandoned")
+            .description("Password RPCs dropped from the queue because the caller had cancelled them")
+            .register(meterRegistry);
+    }
+
+    public void execute(StreamObserver<?> responseObserver, Runnable handler) {
+        ServerCallStreamObserver<?> call = (ServerCallStreamObserver<?>) responseObserver;
+        // Without a handler, answering a cancelled call throws
+        call.setOnCancelHandler(() -> { });
+        try {
+            executor.execute(() -> {
+                if (call.isCancelled()) {
+                    abandoned.increment();
+                    log.debug("Skipping password call cancelled while queued");
+                    return;
+                }
+                handler.run();
+            });
+        } catch (TaskRejectedException e) {
+            rejected.increment();
+            log.debug("Password hashing pool is full, rejecting call");
+            responseObserver.onError(Status.RESOURCE_EXHAUSTED
+                .withDescription("Too many password checks in progress, retry later")
+                .asException());
+        }
+    }
+}
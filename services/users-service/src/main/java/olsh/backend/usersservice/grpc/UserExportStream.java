@@ -0,0 +1,69 @@
+package olsh.backend.usersservice.grpc;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import com.olsh.users.proto.UserInfo;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import lombok.extern.slf4j.Slf4j;
+import olsh.backend.usersservice.service.UserService;
+
+/**
+ * Streams the users of an {@code ExportUsers} call as fast as the client reads them.
+ * <p>
+ * Users are read one page at a time, ordered by id, and the next page is only read once the client took the
+ * previous one. A slow client therefore never makes the whole table pile up in memory. The stream is driven by
+ * the call's ready callbacks, which gRPC runs one at a time.
+ */
+@Slf4j
+class UserExportStream implements Runnable {
+
+    private final UserService userService;
+    private final ServerCallStreamObserver<UserInfo> call;
+    private final int pageSize;
+    private final Deque<UserInfo> page = new ArrayDeque<>();
+    private long lastUserId;
+    private long exported;
+    private boolean finished;
+
+    UserExportStream(UserService userService, ServerCallStreamObserver<UserInfo> call,
+                     long afterUserId, int pageSize) {
+        this.userService = userService;
+        this.call = call;
+        this.pageSize = pageSize;
+        this.lastUserId = afterUserId;
+    }
+
+    void start() {
+        call.setOnCancelHandler(() -> log.debug("User export cancelled after {} users", exported));
+        call.setOnReadyHandler(this);
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (!finished && !call.isCancelled() && call.isReady()) {
+                if (page.isEmpty()) {
+                    page.addAll(userService.exportUsers(lastUserId, pageSize));
+                    if (page.isEmpty()) {
+                        finished = true;
+                        log.debug("Exported {} users", exported);
+                        call.onCompleted();
+                        return;
+                    }
+                }
+                UserInfo user = page.poll();
+                lastUserId = user.getUserId();
+                exported++;
+                call.onNext(user);
+            }
+        } catch (Exception e) {
+            finished = true;
+            log.error("User export failed after {} users", exported, e);
+            call.onError(Status.INTERNAL
+                .withDescription("Internal server error: " + e.getMessage())
+                .asException());
+        }
+    }
+}
@@ -1,18 +1,22 @@
 package olsh.backend.usersservice.grpc;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 
 import com.olsh.users.proto.AuthenticateUserRequest;
 import com.olsh.users.proto.CreateUserRequest;
 import com.olsh.users.proto.DeleteUserRequest;
 import com.olsh.users.proto.DeleteUserResponse;
 import com.olsh.users.proto.ExistsResponse;
+import com.olsh.users.proto.ExportUsersRequest;
 import com.olsh.users.proto.FindUserByEmailRequest;
 import com.olsh.users.proto.FindUserByUsernameRequest;
 import com.olsh.users.proto.GetUserInfoRequest;
 import com.olsh.users.proto.GetUserProfileRequest;
 import com.olsh.users.proto.HealthCheckRequest;
 import com.olsh.users.proto.HealthCheckResponse;
+import com.olsh.users.proto.ImportUsersResponse;
 import com.olsh.users.proto.SearchUsersRequest;
 import com.olsh.users.proto.SearchUsersResponse;
 import com.olsh.users.proto.UpdatePasswordRequest;
@@ -20,34 +24,54 @@ import com.olsh.users.proto.UpdatePasswordResponse;
 import com.olsh.users.proto.UpdateUserLastLoginRequest;
 import com.olsh.users.proto.UpdateUserLastLoginResponse;
 import com.olsh.users.proto.UpdateUserProfileRequest;
+import com.olsh.users.proto.UserInfo;
 import com.olsh.users.proto.UserInfoResponse;
 import com.olsh.users.proto.UserProfileResponse;
 import com.olsh.users.proto.UsersServiceGrpc;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import olsh.backend.usersservice.exception.AlreadyExistsException;
 import olsh.backend.usersservice.exception.AuthenticationException;
 import olsh.backend.usersservice.exception.NotFoundException;
+import olsh.backend.usersservice.service.UserImportService;
 import olsh.backend.usersservice.service.UserService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 @Service
 @Slf4j
-@RequiredArgsConstructor
 public class UsersServiceGrpcImpl extends UsersServiceGrpc.UsersServiceImplBase {
 
     private final UserService userService;
+    private final UserImportService userImportService;
+    // Handlers that hash or check a password run there, the other RPCs stay on the gRPC executor
+    private final PasswordMethodExecutor passwordMethodExecutor;
+    private final int importMaxUsers;
+    private final int exportPageSize;
+
+    public UsersServiceGrpcImpl(UserService userService,
+                                UserImportService userImportService,
+                                PasswordMethodExecutor passwordMethodExecutor,
+                                @Value("${user-import.max-users:20000}") int importMaxUsers,
+                                @Value("${user-export.page-size:1000}") int exportPageSize) {
+        this.userService = userService;
+        this.userImportService = userImportService;
+        this.passwordMethodExecutor = passwordMethodExecutor;
+        this.importMaxUsers = importMaxUsers;
+        this.exportPageSize = exportPageSize;
+    }
 
     @Override
     public void getUserProfile(GetUserProfileRequest request,
                                StreamObserver<UserProfileResponse> responseObserver) {
         try {
-            log.info("Received GetUserProfile request for user ID: {}", request.getUserId());
+            log.debug("Received GetUserProfile request for user ID: {}", request.getUserId());
             UserProfileResponse response = userService.getUserProfile(request);
             responseObserver.onNext(response);
             responseObserver.onCompleted();
         } catch (NotFoundException e) {
-            log.error("User not found with ID: {}", request.getUserId(), e);
+            log.debug("User not found with ID: {}", request.getUserId());
             responseObserver.onError(io.grpc.Status.NOT_FOUND
                                          .withDescription(
                                              "User not found with ID: " + request.getUserId())
@@ -64,13 +88,22 @@ public class UsersServiceGrpcImpl extends UsersServiceGrpc.UsersServiceImplBase
     @Override
     public void updateUserProfile(UpdateUserProfileRequest request,
                                   StreamObserver<UserProfileResponse> responseObserver) {
+        if (!request.getPassword().isEmpty()) {
+            passwordMethodExecutor.execute(responseObserver, () -> doUpdateUserProfile(request, responseObserver));
+        } else {
+            doUpdateUserProfile(request, responseObserver);
+        }
+    }
+
+    private void doUpdateUserProfile(UpdateUserProfileRequest request,
+                                     StreamObserver<UserProfileResponse> responseObserver) {
         try {
-            log.info("Received UpdateUserProfile request for user ID: {}", request.getUserId());
+            log.debug("Received UpdateUserProfile request for user ID: {}", request.getUserId());
             UserProfileResponse response = userService.updateUserProfile(request);
             responseObserver.onNext(response);
             responseObserver.onCompleted();
         } catch (NotFoundException e) {
-            log.error("User not found with ID: {}", request.getUserId(), e);
+            log.debug("User not found with ID: {}", request.getUserId());
             responseObserver.onError(io.grpc.Status.NOT_FOUND
                                          .withDescription(
                                              "User not found with ID: " + request.getUserId())
@@ -93,7 +126,7 @@ public class UsersServiceGrpcImpl extends UsersServiceGrpc.UsersServiceImplBase
     public void searchUsers(SearchUsersRequest request,
                             StreamObserver<SearchUsersResponse> responseObserver) {
         try {
-            log.info("Received SearchUsers request with query: {}", request.getQuery());
+            log.debug("Received SearchUsers request with query: {}", request.getQuery());
             SearchUsersResponse response = userService.searchUsers(request);
             responseObserver.onNext(response);
             responseObserver.onCompleted();
@@ -110,12 +143,12 @@ public class UsersServiceGrpcImpl extends UsersServiceGrpc.UsersServiceImplBase
     public void getUserInfo(GetUserInfoRequest request,
                             StreamObserver<UserInfoResponse> responseObserver) {
         try {
-            log.info("Received GetUserInfo request for user ID: {}", request.getUserId());
+            log.debug("Received GetUserInfo request for user ID: {}", request.getUserId());
             UserInfoResponse response = userService.getUserInfo(request);
             responseObserver.onNext(response);
             responseObserver.onCompleted();
         } catch (NotFoundException e) {
-            log.error("User not found with ID: {}", request.getUserId(), e);
+            log.debug("User not found with ID: {}", request.getUserId());
             responseObserver.onError(io.grpc.Status.NOT_FOUND
                                          .withDescription(
                                              "User not found with ID: " + request.getUserId())
@@ -133,12 +166,12 @@ public class UsersServiceGrpcImpl extends UsersServiceGrpc.UsersServiceImplBase
     public void findUserByEmail(FindUserByEmailRequest request,
                                 StreamObserver<UserInfoResponse> responseObserver) {
         try {
-            log.info("Received FindUserByEmail request for email: {}", request.getEmail());
+            log.debug("Received FindUserByEmail request for email: {}", request.getEmail());
             UserInfoResponse response = userService.findUserByEmail(request);
             responseObserver.onNext(response);
             responseObserver.onCompleted();
         } catch (NotFoundException e) {
-            log.error("User not found with email: {}", request.getEmail(), e);
+            log.debug("User not found with email: {}", request.getEmail());
             responseObserver.onError(io.grpc.Status.NOT_FOUND
                                          .withDescription(
                                              "User not found with email: " + request.getEmail())
@@ -156,12 +189,12 @@ public class UsersServiceGrpcImpl extends UsersServiceGrpc.UsersServiceImplBase
     public void findUserByUsername(FindUserByUsernameRequest request,
                                    StreamObserver<UserInfoResponse> responseObserver) {
         try {
-            log.info("Received FindUserByUsername request for username: {}", request.getUsername());
+            log.debug("Received FindUserByUsername request for username: {}", request.getUsername());
             UserInfoResponse response = userService.findUserByUsername(request);
             responseObserver.onNext(response);
             responseObserver.onCompleted();
         } catch (NotFoundException e) {
-            log.error("User not found with username: {}", request.getUsername(), e);
+            log.debug("User not found with username: {}", request.getUsername());
             responseObserver.onError(io.grpc.Status.NOT_FOUND
                                          .withDescription(
                                              "User not found with username: "
@@ -179,13 +212,18 @@ public class UsersServiceGrpcImpl extends UsersServiceGrpc.UsersServiceImplBase
     @Override
     public void authenticateUser(AuthenticateUserRequest request,
                                  StreamObserver<UserInfoResponse> responseObserver) {
+        passwordMethodExecutor.execute(responseObserver, () -> doAuthenticateUser(request, responseObserver));
+    }
+
+    private void doAuthenticateUser(AuthenticateUserRequest request,
+                                    StreamObserver<UserInfoResponse> responseObserver) {
         try {
-            log.info("Received AuthenticateUser request");
+            log.debug("Received AuthenticateUser request");
             UserInfoResponse response = userService.authenticateUser(request);
             responseObserver.onNext(response);
             responseObserver.onCompleted();
         } catch (NotFoundException e) {
-            log.error("Authentication failed: user not found", e);
+            log.debug("Authentication failed: user not found");
             responseObserver.onError(io.grpc.Status.NOT_FOUND
                                          .withDescription("User not found")
                                          .asException());
@@ -206,13 +244,18 @@ public class UsersServiceGrpcImpl extends UsersServiceGrpc.UsersServiceImplBase
     @Override
     public void updatePassword(UpdatePasswordRequest request,
                                StreamObserver<UpdatePasswordResponse> responseObserver) {
+        passwordMethodExecutor.execute(responseObserver, () -> doUpdatePassword(request, responseObserver));
+    }
+
+    private void doUpdatePassword(UpdatePasswordRequest request,
+                                  StreamObserver<UpdatePasswordResponse> responseObserver) {
         try {
-            log.info("Received UpdatePassword request for user ID: {}", request.getUserId());
+            log.debug("Received UpdatePassword request for user ID: {}", request.getUserId());
             UpdatePasswordResponse response = userService.updatePassword(request);
             responseObserver.onNext(response);
             responseObserver.onCompleted();
         } catch (NotFoundException e) {
-            log.error("User not found with ID: {}", request.getUserId(), e);
+            log.debug("User not found with ID: {}", request.getUserId());
             responseObserver.onError(io.grpc.Status.NOT_FOUND
                                          .withDescription(
                                              "User not found with ID: " + request.getUserId())
@@ -230,12 +273,12 @@ public class UsersServiceGrpcImpl extends UsersServiceGrpc.UsersServiceImplBase
     public void updateUserLastLogin(UpdateUserLastLoginRequest request,
                                     StreamObserver<UpdateUserLastLoginResponse> responseObserver) {
         try {
-            log.info("Received UpdateUserLastLogin request for user ID: {}", request.getUserId());
+            log.debug("Received UpdateUserLastLogin request for user ID: {}", request.getUserId());
             UpdateUserLastLoginResponse response = userService.updateUserLastLogin(request);
             responseObserver.onNext(response);
             responseObserver.onCompleted();
         } catch (NotFoundException e) {
-            log.error("User not found with ID: {}", request.getUserId(), e);
+            log.debug("User not found with ID: {}", request.getUserId());
             responseObserver.onError(io.grpc.Status.NOT_FOUND
                                          .withDescription(
                                              "User not found with ID: " + request.getUserId())
@@ -252,11 +295,21 @@ public class UsersServiceGrpcImpl extends UsersServiceGrpc.UsersServiceImplBase
     @Override
     public void createUser(CreateUserRequest request,
                            StreamObserver<UserProfileResponse> responseObserver) {
+        passwordMethodExecutor.execute(responseObserver, () -> doCreateUser(request, responseObserver));
+    }
+
+    private void doCreateUser(CreateUserRequest request,
+                              StreamObserver<UserProfileResponse> responseObserver) {
         try {
-            log.info("Received CreateUser request for username: {}", request.getUsername());
+            log.debug("Received CreateUser request for username: {}", request.getUsername());
             UserProfileResponse response = userService.createUser(request);
             responseObserver.onNext(response);
             responseObserver.onCompleted();
+        } catch (AlreadyExistsException e) {
+            log.debug("Rejected create user request: {}", e.getMessage());
+            responseObserver.onError(io.grpc.Status.ALREADY_EXISTS
+                                         .withDescription(e.getMessage())
+                                         .asException());
         } catch (IllegalArgumentException e) {
             log.error("Invalid create user request: {}", e.getMessage(), e);
             responseObserver.onError(io.grpc.Status.INVALID_ARGUMENT
@@ -271,10 +324,71 @@ public class UsersServiceGrpcImpl extends UsersServiceGrpc.UsersServiceImplBase
         }
     }
 
+    @Override
+    public StreamObserver<CreateUserRequest> importUsers(StreamObserver<ImportUsersResponse> responseObserver) {
+        ServerCallStreamObserver<ImportUsersResponse> call =
+            (ServerCallStreamObserver<ImportUsersResponse>) responseObserver;
+        call.setOnCancelHandler(() -> log.debug("User import cancelled by the caller"));
+        return new StreamObserver<>() {
+            private final List<CreateUserRequest> rows = new ArrayList<>();
+            private boolean rejected;
+
+            @Override
+            public void onNext(CreateUserRequest row) {
+                if (rejected) {
+                    return;
+                }
+                if (rows.size() == importMaxUsers) {
+                    rejected = true;
+                    log.warn("Rejected user import of more than {} users", importMaxUsers);
+                    responseObserver.onError(io.grpc.Status.INVALID_ARGUMENT
+                                                 .withDescription("An import may contain at most "
+                                                                  + importMaxUsers + " users")
+                                                 .asException());
+                    return;
+                }
+                rows.add(row);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                log.debug("User import stream failed: {}", t.getMessage());
+            }
+
+            @Override
+            public void onCompleted() {
+                if (rejected) {
+                    return;
+                }
+                try {
+                    log.debug("Received ImportUsers request with {} users", rows.size());
+                    ImportUsersResponse response = userImportService.importUsers(rows, call::isCancelled);
+                    if (!call.isCancelled()) {
+                        responseObserver.onNext(response);
+                        responseObserver.onCompleted();
+                    }
+                } catch (Exception e) {
+                    log.error("Error importing {} users", rows.size(), e);
+                    responseObserver.onError(io.grpc.Status.INTERNAL
+                                                 .withDescription(
+                                                     "Internal server error: " + e.getMessage())
+                                                 .asException());
+                }
+            }
+        };
+    }
+
+    @Override
+    public void exportUsers(ExportUsersRequest request, StreamObserver<UserInfo> responseObserver) {
+        log.debug("Received ExportUsers request after user ID: {}", request.getAfterUserId());
+        new UserExportStream(userService, (ServerCallStreamObserver<UserInfo>) responseObserver,
+            request.getAfterUserId(), exportPageSize).start();
+    }
+
     @Override
     public void healthCheck(HealthCheckRequest request,
                             StreamObserver<HealthCheckResponse> responseObserver) {
-        log.info("Received HealthCheck request");
+        log.debug("Received HealthCheck request");
         HealthCheckResponse.Builder responseBuilder = HealthCheckResponse.newBuilder()
             .setSuccess(true)
             .setMessage("Users service is healthy");
@@ -294,10 +408,10 @@ public class UsersServiceGrpcImpl extends UsersServiceGrpc.UsersServiceImplBase
     public void checkUsernameExists(FindUserByUsernameRequest request,
                                     StreamObserver<ExistsResponse> responseObserver) {
         try {
-            log.info("Received CheckUsernameExists request for username: {}",
+            log.debug("Received CheckUsernameExists request for username: {}",
                      request.getUsername());
             boolean exists = userService.usernameExists(request.getUsername());
-            log.info("Username '{}' exists: {}", request.getUsername(), exists);
+            log.debug("Username '{}' exists: {}", request.getUsername(), exists);
 
             // Create and return a proper ExistsResponse now that the stubs are regenerated
             ExistsResponse response = ExistsResponse.newBuilder()
@@ -320,9 +434,9 @@ public class UsersServiceGrpcImpl extends UsersServiceGrpc.UsersServiceImplBase
     public void checkEmailExists(FindUserByEmailRequest request,
                                  StreamObserver<ExistsResponse> responseObserver) {
         try {
-            log.info("Received CheckEmailExists request for email: {}", request.getEmail());
+            log.debug("Received CheckEmailExists request for email: {}", request.getEmail());
             boolean exists = userService.emailExists(request.getEmail());
-            log.info("Email '{}' exists: {}", request.getEmail(), exists);
+            log.debug("Email '{}' exists: {}", request.getEmail(), exists);
 
             // Create and return a proper ExistsResponse now that the stubs are regenerated
             ExistsResponse response = ExistsResponse.newBuilder()
@@ -344,7 +458,7 @@ public class UsersServiceGrpcImpl extends UsersServiceGrpc.UsersServiceImplBase
     public void deleteUser(DeleteUserRequest request,
                            StreamObserver<DeleteUserResponse> responseObserver) {
         try {
-            log.info("Received DeleteUser request for user ID: {}", request.getUserId());
+            log.debug("Received DeleteUser request for user ID: {}", request.getUserId());
             boolean success = userService.deleteUser(request.getUserId());
             
             DeleteUserResponse response = DeleteUserResponse.newBuilder()
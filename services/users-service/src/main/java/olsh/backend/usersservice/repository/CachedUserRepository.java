@@ -0,0 +1,24 @@
+package olsh.backend.usersservice.repository;
+
+import java.util.Optional;
+
+import olsh.backend.usersservice.entity.User;
+
+/**
+ * Operations of {@link UserRepository} written against the Hibernate session, so that they are served from
+ * and keep up the second-level cache of users.
+ */
+public interface CachedUserRepository {
+
+    /**
+     * Looks the user up by its natural id, a cached username resolves without querying the database.
+     */
+    Optional<User> findByUsername(String username);
+
+    /**
+     * Replaces the password hash unless it changed since it was read, a password set meanwhile is kept.
+     *
+     * @return true if the hash was replaced, false when it had changed or the user is gone
+     */
+    boolean replacePasswordHash(Long id, String oldHash, String newHash);
+}
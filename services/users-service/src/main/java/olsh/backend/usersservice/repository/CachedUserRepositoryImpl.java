@@ -0,0 +1,36 @@
+package olsh.backend.usersservice.repository;
+
+import java.util.Optional;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import olsh.backend.usersservice.entity.User;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+class CachedUserRepositoryImpl implements CachedUserRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<User> findByUsername(String username) {
+        return entityManager.unwrap(Session.class)
+            .bySimpleNaturalId(User.class)
+            .loadOptional(username);
+    }
+
+    @Override
+    @Transactional
+    public boolean replacePasswordHash(Long id, String oldHash, String newHash) {
+        // A bulk UPDATE would drop every cached user, updating the locked entity refreshes just this one
+        User user = entityManager.find(User.class, id, LockModeType.PESSIMISTIC_WRITE);
+        if (user == null || !user.getPassword().equals(oldHash)) {
+            return false;
+        }
+        user.setPassword(newHash);
+        return true;
+    }
+}
@@ -1,26 +1,69 @@
 package olsh.backend.usersservice.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import jakarta.persistence.QueryHint;
 import olsh.backend.usersservice.entity.User;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
-public interface UserRepository extends JpaRepository<User, Long> {
-    Optional<User> findByUsername(String username);
+public interface UserRepository extends JpaRepository<User, Long>, CachedUserRepository {
 
+    // Hibernate caches one natural id per entity, the username. Email lookups use the query cache instead,
+    // which is cleared whenever a user is written through Hibernate
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = User.EMAIL_CACHE_REGION)
+    })
     Optional<User> findByEmail(String email);
 
+    Page<UserSummary> findAllBy(Pageable pageable);
+
+    List<UserSummary> findByIdGreaterThanOrderById(Long id, Limit limit);
+
+    @Query("SELECT u.username FROM User u WHERE u.username IN :usernames")
+    List<String> findTakenUsernames(@Param("usernames") Collection<String> usernames);
+
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    List<String> findTakenEmails(@Param("emails") Collection<String> emails);
+
     boolean existsByUsername(String username);
 
     boolean existsByEmail(String email);
-    
-    @Query("SELECT u FROM User u WHERE " +
-           "LOWER(u.username) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-           "LOWER(u.firstName) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
-           "LOWER(u.lastName) LIKE LOWER(CONCAT('%', :query, '%'))")
-    Page<User> findByUsernameOrNameContainingIgnoreCase(@Param("query") String query, Pageable pageable);
+
+    /**
+     * Lower-cased text searched by {@link #searchByText}. Apart from the alias it must stay identical to the
+     * expression of the trigram index in {@code V2__create_users_search_index.sql}, otherwise the index is not used.
+     */
+    String SEARCH_TEXT = "lower(u.username || ' ' || u.first_name || ' ' || u.last_name)";
+
+    /**
+     * Users whose username or name contains the query, best matches first: the exact username, then usernames
+     * starting with the query, then by how closely a word of the name matches.
+     *
+     * @param pattern lower-cased query escaped for LIKE and wrapped in {@code %}
+     * @param query   lower-cased query
+     */
+    @Query(value = "SELECT u.id, u.username, u.first_name AS \"firstName\", u.last_name AS \"lastName\", " +
+                   "u.role, u.email " +
+                   "FROM users u WHERE " + SEARCH_TEXT + " LIKE :pattern " +
+                   "ORDER BY lower(u.username) = :query DESC, " +
+                   "starts_with(lower(u.username), :query) DESC, " +
+                   "word_similarity(:query, " + SEARCH_TEXT + ") DESC, " +
+                   "u.id " +
+                   "LIMIT :limit OFFSET :offset",
+           nativeQuery = true)
+    List<UserSummary> searchByText(@Param("pattern") String pattern, @Param("query") String query,
+                                   @Param("limit") int limit, @Param("offset") long offset);
+
+    @Query(value = "SELECT count(*) FROM users u WHERE " + SEARCH_TEXT + " LIKE :pattern", nativeQuery = true)
+    long countByText(@Param("pattern") String pattern);
 }
@@ -0,0 +1,22 @@
+package olsh.backend.usersservice.repository;
+
+import olsh.backend.usersservice.entity.Role;
+
+/**
+ * The columns of a user that read RPCs return. Queries listing users select only these, not the password
+ * hash and timestamps, and their rows are not managed by the persistence context.
+ */
+public interface UserSummary {
+
+    Long getId();
+
+    String getUsername();
+
+    String getFirstName();
+
+    String getLastName();
+
+    Role getRole();
+
+    String getEmail();
+}
@@ -0,0 +1,81 @@
+package olsh.backend.usersservice.service;
+
+import java.sql.Connection;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Write-behind store of last-login timestamps.
+ * <p>
+ * Sign-ins only note the time in memory, several sign-ins of one user between two flushes keep the latest.
+ * A scheduled flush writes all noted times with a single {@code UPDATE}, so a login storm costs one statement
+ * every few seconds instead of a row write per sign-in. Times noted since the last flush are lost if the
+ * process dies without shutting down, which is acceptable for this informational field.
+ */
+@Slf4j
+@Component
+public class LastLoginRecorder {
+
+    // Sets every listed user's last_login_at, unless a later time is already stored
+    private static final String FLUSH_SQL =
+        "UPDATE users u SET last_login_at = logins.at " +
+        "FROM (SELECT unnest(?::bigint[]) AS id, unnest(?::timestamp[]) AS at) logins " +
+        "WHERE u.id = logins.id AND (u.last_login_at IS NULL OR u.last_login_at < logins.at)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<Long, LocalDateTime> pending = new ConcurrentHashMap<>();
+
+    public LastLoginRecorder(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void record(Long userId, LocalDateTime loginAt) {
+        pending.merge(userId, loginAt, (noted, added) -> added.isAfter(noted) ? added : noted);
+    }
+
+    @Scheduled(fixedDelayString = "${last-login.flush-interval:PT5S}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<Long> userIds = new ArrayList<>();
+        List<Timestamp> loginTimes = new ArrayList<>();
+        for (Map.Entry<Long, LocalDateTime> login : pending.entrySet()) {
+            // Removed only if unchanged, a sign-in noted meanwhile stays for the next flush
+            if (pending.remove(login.getKey(), login.getValue())) {
+                userIds.add(login.getKey());
+                loginTimes.add(Timestamp.valueOf(login.getValue()));
+            }
+        }
+        try {
+            int updated = jdbcTemplate.update(FLUSH_SQL, statement -> {
+                Connection connection = statement.getConnection();
+                statement.setArray(1, connection.createArrayOf("bigint", userIds.toArray()));
+                statement.setArray(2, connection.createArrayOf("timestamp", loginTimes.toArray()));
+            });
+            log.debug("Flushed {} last-login times, {} rows updated", userIds.size(), updated);
+        } catch (RuntimeException e) {
+            // Put the batch back for the next flush without overwriting newer sign-ins
+            for (int i = 0; i < userIds.size(); i++) {
+                record(userIds.get(i), loginTimes.get(i).toLocalDateTime());
+            }
+            log.warn("Failed to flush {} last-login times, retrying with the next flush: {}",
+                userIds.size(), e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+}
@@ -0,0 +1,203 @@
+package olsh.backend.usersservice.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BooleanSupplier;
+
+import com.olsh.users.proto.CreateUserRequest;
+import com.olsh.users.proto.ImportUserResult;
+import com.olsh.users.proto.ImportUsersResponse;
+import lombok.extern.slf4j.Slf4j;
+import olsh.backend.usersservice.entity.Role;
+import olsh.backend.usersservice.entity.User;
+import olsh.backend.usersservice.exception.AlreadyExistsException;
+import olsh.backend.usersservice.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Creates the users of an {@code ImportUsers} call.
+ * <p>
+ * Users are handled in chunks. The usernames and emails of a chunk that are already taken are found with one
+ * query each, the passwords of the rest are hashed in parallel, and the new users are inserted in one
+ * transaction as JDBC batches. If a concurrent sign-up takes a value in the meantime, the chunk is inserted
+ * again user by user so that only the conflicting user fails. Password hashing takes most of the time.
+ */
+@Slf4j
+@Service
+public class UserImportService {
+
+    private final UserRepository userRepository;
+    private final UserService userService;
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolTaskExecutor hashingExecutor;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public UserImportService(UserRepository userRepository,
+                             UserService userService,
+                             PasswordEncoder passwordEncoder,
+                             @Qualifier("userImportHashingExecutor") ThreadPoolTaskExecutor hashingExecutor,
+                             TransactionTemplate transactionTemplate,
+                             @Value("${user-import.chunk-size:500}") int chunkSize) {
+        this.userRepository = userRepository;
+        this.userService = userService;
+        this.passwordEncoder = passwordEncoder;
+        this.hashingExecutor = hashingExecutor;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Creates the given users and reports the outcome of each.
+     *
+     * @param cancelled checked between chunks, the import stops once it returns true
+     */
+    public ImportUsersResponse importUsers(List<CreateUserRequest> rows, BooleanSupplier cancelled) {
+        ImportUserResult.Builder[] results = new ImportUserResult.Builder[rows.size()];
+        List<Integer> accepted = new ArrayList<>();
+        Set<String> usernames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        for (int index = 0; index < rows.size(); index++) {
+            CreateUserRequest row = rows.get(index);
+            results[index] = ImportUserResult.newBuilder().setIndex(index).setUsername(row.getUsername());
+            String invalid = validate(row);
+            if (invalid == null && !usernames.add(row.getUsername())) {
+                invalid = "Username appears more than once in the import";
+            }
+            if (invalid == null && !emails.add(row.getEmail())) {
+                invalid = "Email appears more than once in the import";
+            }
+            if (invalid != null) {
+                results[index].setSuccess(false).setMessage(invalid);
+            } else {
+                accepted.add(index);
+            }
+        }
+
+        for (int from = 0; from < accepted.size(); from += chunkSize) {
+            if (cancelled.getAsBoolean()) {
+                log.info("User import cancelled by the caller after {} of {} users", from, rows.size());
+                break;
+            }
+            importChunk(rows, accepted.subList(from, Math.min(from + chunkSize, accepted.size())), results);
+        }
+
+        ImportUsersResponse.Builder response = ImportUsersResponse.newBuilder();
+        for (ImportUserResult.Builder result : results) {
+            response.addResults(result);
+        }
+        int created = (int) response.getResultsList().stream().filter(ImportUserResult::getSuccess).count();
+        log.info("Imported {} of {} users", created, rows.size());
+        return response.setCreated(created).setFailed(rows.size() - created).build();
+    }
+
+    private void importChunk(List<CreateUserRequest> rows, List<Integer> chunk,
+                             ImportUserResult.Builder[] results) {
+        Set<String> takenUsernames = new HashSet<>(userRepository.findTakenUsernames(
+            chunk.stream().map(index -> rows.get(index).getUsername()).toList()));
+        Set<String> takenEmails = new HashSet<>(userRepository.findTakenEmails(
+            chunk.stream().map(index -> rows.get(index).getEmail()).toList()));
+
+        List<Integer> inserted = new ArrayList<>();
+        List<CompletableFuture<String>> hashes = new ArrayList<>();
+        for (int index : chunk) {
+            CreateUserRequest row = rows.get(index);
+            if (takenUsernames.contains(row.getUsername())) {
+                results[index].setSuccess(false).setMessage("User with this username already exists");
+            } else if (takenEmails.contains(row.getEmail())) {
+                results[index].setSuccess(false).setMessage("User with this email already exists");
+            } else {
+                inserted.add(index);
+                hashes.add(CompletableFuture.supplyAsync(() -> passwordEncoder.encode(row.getPassword()),
+                    hashingExecutor));
+            }
+        }
+        List<String> passwordHashes = hashes.stream().map(CompletableFuture::join).toList();
+
+        try {
+            List<User> users = new ArrayList<>();
+            for (int i = 0; i < inserted.size(); i++) {
+                users.add(toUser(rows.get(inserted.get(i)), passwordHashes.get(i)));
+            }
+            transactionTemplate.executeWithoutResult(status -> userRepository.saveAll(users));
+            for (int i = 0; i < inserted.size(); i++) {
+                results[inserted.get(i)].setSuccess(true).setUserId(users.get(i).getId());
+            }
+        } catch (DataIntegrityViolationException e) {
+            // Taken since the check above, only the conflicting users should fail
+            log.debug("Batch insert of {} imported users conflicted, inserting them one by one", inserted.size());
+            for (int i = 0; i < inserted.size(); i++) {
+                int index = inserted.get(i);
+                try {
+                    User user = userService.insertUser(toUser(rows.get(index), passwordHashes.get(i)));
+                    results[index].setSuccess(true).setUserId(user.getId());
+                } catch (AlreadyExistsException conflict) {
+                    results[index].setSuccess(false).setMessage(conflict.getMessage());
+                } catch (DataIntegrityViolationException rejected) {
+                    // Any other row the database refuses fails alone, the rows before it are already committed
+                    log.debug("Imported user at index {} was rejected by the database: {}", index,
+                        rejected.getMessage());
+                    results[index].setSuccess(false).setMessage("User was rejected by the database");
+                }
+            }
+        }
+    }
+
+    private static String validate(CreateUserRequest row) {
+        if (row.getUsername().isBlank()) {
+            return "Username is required";
+        }
+        if (row.getEmail().isBlank()) {
+            return "Email is required";
+        }
+        if (row.getFirstName().isBlank() || row.getLastName().isBlank()) {
+            return "First and last name are required";
+        }
+        if (tooLong(row.getUsername()) || tooLong(row.getEmail())
+            || tooLong(row.getFirstName()) || tooLong(row.getLastName())) {
+            return "Username, email and names may have at most " + User.MAX_TEXT_LENGTH + " characters";
+        }
+        if (row.getPassword().isEmpty()) {
+            return "Password is required";
+        }
+        if (!row.getRole().isEmpty() && !isRole(row.getRole())) {
+            return "Unknown role: " + row.getRole();
+        }
+        return null;
+    }
+
+    private static boolean tooLong(String value) {
+        return value.codePointCount(0, value.length()) > User.MAX_TEXT_LENGTH;
+    }
+
+    private static boolean isRole(String role) {
+        for (Role known : Role.values()) {
+            if (known.name().equals(role)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static User toUser(CreateUserRequest row, String passwordHash) {
+        // Rosters are students, the role may be left out
+        Role role = row.getRole().isEmpty() ? Role.ROLE_USER : Role.valueOf(row.getRole());
+        return User.builder()
+            .username(row.getUsername())
+            .firstName(row.getFirstName())
+            .lastName(row.getLastName())
+            .email(row.getEmail())
+            .role(role)
+            .password(passwordHash)
+            .build();
+    }
+}
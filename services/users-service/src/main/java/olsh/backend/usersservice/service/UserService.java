@@ -1,6 +1,8 @@
 package olsh.backend.usersservice.service;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
 
 import com.olsh.users.proto.AuthenticateUserRequest;
@@ -23,13 +25,21 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import olsh.backend.usersservice.entity.Role;
 import olsh.backend.usersservice.entity.User;
+import olsh.backend.usersservice.exception.AlreadyExistsException;
 import olsh.backend.usersservice.exception.AuthenticationException;
 import olsh.backend.usersservice.exception.NotFoundException;
 import olsh.backend.usersservice.repository.UserRepository;
+import olsh.backend.usersservice.repository.UserSummary;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @Slf4j
@@ -38,15 +48,19 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final LastLoginRecorder lastLoginRecorder;
 
     public User findById(Long id) {
         return userRepository.findById(id)
             .orElseThrow(() -> new NotFoundException("User not found with ID: " + id));
     }
 
+    // Read RPCs looking up one user load it from the entity cache, a projection query would bypass it.
+    // Their read-only transactions keep no snapshot of the entity for dirty checking and never flush
+    @Transactional(readOnly = true)
     public UserProfileResponse getUserProfile(GetUserProfileRequest request) {
         User user = findById(request.getUserId());
-        log.info("Fetching profile for user with ID: {}", request.getUserId());
+        log.debug("Fetching profile for user with ID: {}", request.getUserId());
         return buildUserProfileResponse(user);
     }
 
@@ -92,7 +106,7 @@ public class UserService {
 
         if (usernameChanged) {
             // This keeps the usernameChanged variable used
-            log.info("Username changed flag is set to: {}", usernameChanged);
+            log.debug("Username changed flag is set to: {}", usernameChanged);
         }
 
         // The password handling is now done directly here, not via auth-service
@@ -114,12 +128,22 @@ public class UserService {
         return buildUserProfileResponse(updatedUser);
     }
 
+    @Transactional(readOnly = true)
     public SearchUsersResponse searchUsers(SearchUsersRequest request) {
         int page = Math.max(0, request.getPage() - 1); // Convert 1-based page to 0-based
         int size = request.getSize() > 0 ? request.getSize() : 10;
 
-        Page<User> userPage = userRepository.findByUsernameOrNameContainingIgnoreCase(
-            request.getQuery(), PageRequest.of(page, size));
+        String query = request.getQuery().trim().toLowerCase(Locale.ROOT);
+        Page<UserSummary> userPage;
+        if (query.isEmpty()) {
+            userPage = userRepository.findAllBy(PageRequest.of(page, size, Sort.by("id")));
+        } else {
+            // Served by the trigram index, so the cost follows the number of matches, not of users
+            String pattern = "%" + escapeLikePattern(query) + "%";
+            PageRequest pageRequest = PageRequest.of(page, size);
+            List<UserSummary> users = userRepository.searchByText(pattern, query, size, pageRequest.getOffset());
+            userPage = new PageImpl<>(users, pageRequest, userRepository.countByText(pattern));
+        }
 
         SearchUsersResponse.Builder responseBuilder = SearchUsersResponse.newBuilder();
 
@@ -131,6 +155,7 @@ public class UserService {
         return responseBuilder.build();
     }
 
+    @Transactional(readOnly = true)
     public UserInfoResponse getUserInfo(GetUserInfoRequest request) {
         User user = findById(request.getUserId());
         return UserInfoResponse.newBuilder()
@@ -138,6 +163,7 @@ public class UserService {
             .build();
     }
 
+    @Transactional(readOnly = true)
     public UserInfoResponse findUserByEmail(FindUserByEmailRequest request) {
         Optional<User> userOpt = userRepository.findByEmail(request.getEmail());
 
@@ -151,6 +177,7 @@ public class UserService {
             .build();
     }
 
+    @Transactional(readOnly = true)
     public UserInfoResponse findUserByUsername(FindUserByUsernameRequest request) {
         Optional<User> userOpt = userRepository.findByUsername(request.getUsername());
 
@@ -165,16 +192,7 @@ public class UserService {
     }
 
     public UserProfileResponse createUser(CreateUserRequest request) {
-        Optional<User> existingUserWithUsername =
-            userRepository.findByUsername(request.getUsername());
-        if (existingUserWithUsername.isPresent()) {
-            throw new IllegalArgumentException("User with this username already exists");
-        }
-
-        Optional<User> existingUserWithEmail = userRepository.findByEmail(request.getEmail());
-        if (existingUserWithEmail.isPresent()) {
-            throw new IllegalArgumentException("User with this email already exists");
-        }        // Encode the password
+        // No lookups before the insert, the unique constraints reject a taken username or email
         String encodedPassword = passwordEncoder.encode(request.getPassword());
 
         // Build user without explicitly setting ID - let JPA/database auto-generate it
@@ -188,12 +206,32 @@ public class UserService {
             .password(encodedPassword)
             .build();
 
-        User createdUser = userRepository.save(user);
+        User createdUser = insertUser(user);
         log.info("Created user profile for username: {}", request.getUsername());
 
         return buildUserProfileResponse(createdUser);
     }
 
+    /**
+     * Inserts a new user. A taken username or email fails with {@link AlreadyExistsException}.
+     */
+    public User insertUser(User user) {
+        try {
+            return userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            throw takenFieldOf(e, user.getUsername(), user.getEmail());
+        }
+    }
+
+    /**
+     * Users with an id greater than the given one, ordered by id, one page of an export.
+     */
+    public List<UserInfo> exportUsers(long afterUserId, int limit) {
+        return userRepository.findByIdGreaterThanOrderById(afterUserId, Limit.of(limit)).stream()
+            .map(this::buildUserInfo)
+            .toList();
+    }
+
     public UserInfoResponse authenticateUser(AuthenticateUserRequest request) {
         Optional<User> userOpt;
         if (request.getUsingEmail()) {
@@ -213,9 +251,12 @@ public class UserService {
             throw new AuthenticationException("Invalid credentials");
         }
 
-        // Update last login time
-        user.setLastLoginAt(LocalDateTime.now());
-        userRepository.save(user);
+        if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+            upgradePasswordHash(user, request.getPassword());
+        }
+
+        // Written with the next batch of the recorder, the sign-in itself does not write the row
+        lastLoginRecorder.record(user.getId(), LocalDateTime.now());
 
         return UserInfoResponse.newBuilder()
             .setUserInfo(buildUserInfo(user))
@@ -246,9 +287,9 @@ public class UserService {
     }
 
     public UpdateUserLastLoginResponse updateUserLastLogin(UpdateUserLastLoginRequest request) {
-        User user = findById(request.getUserId());
-        user.setLastLoginAt(LocalDateTime.now());
-        userRepository.save(user);
+        // Checked through the entity cache, an existence query would go to the database every time
+        findById(request.getUserId());
+        lastLoginRecorder.record(request.getUserId(), LocalDateTime.now());
 
         return UpdateUserLastLoginResponse.newBuilder()
             .setSuccess(true)
@@ -261,7 +302,7 @@ public class UserService {
      */
     public boolean usernameExists(String username) {
         log.debug("Checking if username exists: {}", username);
-        return userRepository.findByUsername(username).isPresent();
+        return userRepository.existsByUsername(username);
     }
 
     /**
@@ -272,7 +313,7 @@ public class UserService {
      */
     public boolean emailExists(String email) {
         log.debug("Checking if email exists: {}", email);
-        return userRepository.findByEmail(email).isPresent();
+        return userRepository.existsByEmail(email);
     }
 
     /**
@@ -298,6 +339,42 @@ public class UserService {
         }
     }
 
+    private void upgradePasswordHash(User user, String rawPassword) {
+        // The raw password is only known while signing in, so that is when an outdated hash can be replaced
+        try {
+            boolean replaced = userRepository.replacePasswordHash(user.getId(), user.getPassword(),
+                passwordEncoder.encode(rawPassword));
+            log.debug("Upgraded password hash of user ID: {}, replaced: {}", user.getId(), replaced);
+        } catch (Exception e) {
+            // The old hash still verifies, the upgrade is retried on the next sign-in
+            log.warn("Failed to upgrade password hash of user ID: {}: {}", user.getId(), e.getMessage());
+        }
+    }
+
+    private RuntimeException takenFieldOf(DataIntegrityViolationException e, String username, String email) {
+        String constraint = e.getCause() instanceof ConstraintViolationException violation
+            ? violation.getConstraintName() : null;
+        if (User.USERNAME_CONSTRAINT.equalsIgnoreCase(constraint)) {
+            return new AlreadyExistsException("User with this username already exists");
+        }
+        if (User.EMAIL_CONSTRAINT.equalsIgnoreCase(constraint)) {
+            return new AlreadyExistsException("User with this email already exists");
+        }
+        // Tables created before the constraints were named, find out which value is taken
+        if (userRepository.existsByUsername(username)) {
+            return new AlreadyExistsException("User with this username already exists");
+        }
+        if (userRepository.existsByEmail(email)) {
+            return new AlreadyExistsException("User with this email already exists");
+        }
+        return e;
+    }
+
+    private static String escapeLikePattern(String query) {
+        // Wildcards typed by the user are searched for literally
+        return query.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
     private UserInfo buildUserInfo(User user) {
         return UserInfo.newBuilder()
             .setUserId(user.getId())
@@ -309,6 +386,17 @@ public class UserService {
             .build();
     }
 
+    private UserInfo buildUserInfo(UserSummary user) {
+        return UserInfo.newBuilder()
+            .setUserId(user.getId())
+            .setUsername(user.getUsername())
+            .setFirstName(user.getFirstName())
+            .setLastName(user.getLastName())
+            .setRole(user.getRole().name())
+            .setEmail(user.getEmail())
+            .build();
+    }
+
     private UserProfileResponse buildUserProfileResponse(User user) {
         return UserProfileResponse.newBuilder()
             .setUserInfo(buildUserInfo(user))
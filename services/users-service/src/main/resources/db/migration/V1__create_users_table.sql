@@ -0,0 +1,18 @@
+-- Users table as mapped by the User entity, Hibernate validates the mapping against it at startup
+
+-- Hibernate takes 50 ids per call, so inserts can be sent in JDBC batches
+CREATE SEQUENCE users_id_seq INCREMENT BY 50;
+
+CREATE TABLE users (
+    id            BIGINT       NOT NULL PRIMARY KEY,
+    username      VARCHAR(255) NOT NULL CONSTRAINT uk_users_username UNIQUE,
+    email         VARCHAR(255) NOT NULL CONSTRAINT uk_users_email UNIQUE,
+    password      VARCHAR(255) NOT NULL,
+    first_name    VARCHAR(255) NOT NULL,
+    last_name     VARCHAR(255) NOT NULL,
+    role          VARCHAR(50)  NOT NULL,
+    created_at    TIMESTAMP(6),
+    last_login_at TIMESTAMP(6)
+);
+
+ALTER SEQUENCE users_id_seq OWNED BY users.id;
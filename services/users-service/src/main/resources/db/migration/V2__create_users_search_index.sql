@@ -0,0 +1,8 @@
+-- Trigram index serving the substring search of SearchUsers, a LIKE '%query%' on the indexed expression
+-- reads the matching rows only instead of scanning the table. The expression must stay identical to
+-- UserRepository.SEARCH_TEXT.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- IF NOT EXISTS: databases baselined at V1 may already have it from the former schema.sql
+CREATE INDEX IF NOT EXISTS idx_users_search_text_trgm
+    ON users USING gin (lower(username || ' ' || first_name || ' ' || last_name) gin_trgm_ops);
@@ -0,0 +1,5 @@
+-- Every sign-in ends up as an update of last_login_at by LastLoginRecorder. A row updated in place on its
+-- own page is a HOT update and touches no index, otherwise the new row version is added to all four indexes,
+-- the trigram one included. Leaving 10% of each page free keeps these updates HOT; it applies to pages
+-- written from now on. For the same reason last_login_at has no index, no query filters on it.
+ALTER TABLE users SET (fillfactor = 90);
@@ -0,0 +1,144 @@
+package olsh.backend.usersservice.service;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LastLoginRecorderTest {
+
+    private static final LocalDateTime NOON = LocalDateTime.of(2025, 3, 1, 12, 0);
+
+    private JdbcTemplate jdbcTemplate;
+    private LastLoginRecorder recorder;
+    // Login times written by each flush, by user id
+    private final List<Map<Long, LocalDateTime>> flushes = new ArrayList<>();
+    private boolean databaseDown;
+    private Runnable duringStatement = () -> { };
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        recorder = new LastLoginRecorder(jdbcTemplate);
+        when(jdbcTemplate.update(anyString(), any(PreparedStatementSetter.class))).thenAnswer(call -> {
+            duringStatement.run();
+            if (databaseDown) {
+                throw new DataAccessResourceFailureException("Connection refused");
+            }
+            flushes.add(bind(call.getArgument(1)));
+            return flushes.get(flushes.size() - 1).size();
+        });
+    }
+
+    @Test
+    void writesAllNotedLoginsWithOneStatement() {
+        recorder.record(1L, NOON);
+        recorder.record(2L, NOON.plusMinutes(1));
+
+        recorder.flush();
+
+        assertThat(flushes).containsExactly(Map.of(1L, NOON, 2L, NOON.plusMinutes(1)));
+    }
+
+    @Test
+    void keepsTheLatestLoginOfAUser() {
+        recorder.record(1L, NOON);
+        recorder.record(1L, NOON.plusMinutes(5));
+        recorder.record(1L, NOON.plusMinutes(2));
+
+        recorder.flush();
+
+        assertThat(flushes).containsExactly(Map.of(1L, NOON.plusMinutes(5)));
+    }
+
+    @Test
+    void skipsTheStatementWhenNothingIsNoted() {
+        recorder.flush();
+        recorder.record(1L, NOON);
+        recorder.flush();
+        recorder.flush();
+
+        assertThat(flushes).hasSize(1);
+    }
+
+    @Test
+    void retriesAFailedFlushWithTheNextOne() {
+        recorder.record(1L, NOON);
+        recorder.record(2L, NOON);
+        databaseDown = true;
+
+        recorder.flush();
+        assertThat(flushes).isEmpty();
+
+        databaseDown = false;
+        recorder.flush();
+
+        assertThat(flushes).containsExactly(Map.of(1L, NOON, 2L, NOON));
+    }
+
+    @Test
+    void requeuedLoginsDoNotOverwriteNewerOnes() {
+        recorder.record(1L, NOON);
+        recorder.record(2L, NOON);
+        databaseDown = true;
+        duringStatement = () -> {
+            recorder.record(1L, NOON.plusMinutes(1));
+            recorder.record(2L, NOON.minusMinutes(1));
+        };
+
+        recorder.flush();
+        databaseDown = false;
+        duringStatement = () -> { };
+        recorder.flush();
+
+        assertThat(flushes).containsExactly(Map.of(1L, NOON.plusMinutes(1), 2L, NOON));
+    }
+
+    @Test
+    void keepsLoginsNotedDuringAFlushForTheNextOne() {
+        recorder.record(1L, NOON);
+        duringStatement = () -> recorder.record(1L, NOON.plusMinutes(1));
+
+        recorder.flush();
+        duringStatement = () -> { };
+        recorder.flush();
+
+        assertThat(flushes).containsExactly(Map.of(1L, NOON), Map.of(1L, NOON.plusMinutes(1)));
+    }
+
+    private static Map<Long, LocalDateTime> bind(PreparedStatementSetter setter) throws Exception {
+        PreparedStatement statement = mock(PreparedStatement.class);
+        Connection connection = mock(Connection.class);
+        when(statement.getConnection()).thenReturn(connection);
+        List<Object[]> arrays = new ArrayList<>();
+        when(connection.createArrayOf(anyString(), any(Object[].class))).thenAnswer(call -> {
+            arrays.add(call.getArgument(1));
+            return mock(Array.class);
+        });
+
+        setter.setValues(statement);
+
+        Map<Long, LocalDateTime> logins = new HashMap<>();
+        for (int i = 0; i < arrays.get(0).length; i++) {
+            logins.put((Long) arrays.get(0)[i], ((Timestamp) arrays.get(1)[i]).toLocalDateTime());
+        }
+        return logins;
+    }
+}
@@ -0,0 +1,167 @@
+package olsh.backend.usersservice.service;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.olsh.users.proto.CreateUserRequest;
+import com.olsh.users.proto.ImportUserResult;
+import com.olsh.users.proto.ImportUsersResponse;
+import olsh.backend.usersservice.entity.Role;
+import olsh.backend.usersservice.entity.User;
+import olsh.backend.usersservice.exception.AlreadyExistsException;
+import olsh.backend.usersservice.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserImportServiceTest {
+
+    private UserRepository userRepository;
+    private UserService userService;
+    private ThreadPoolTaskExecutor hashingExecutor;
+    private final AtomicLong nextId = new AtomicLong(100);
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        userService = mock(UserService.class);
+        hashingExecutor = new ThreadPoolTaskExecutor();
+        hashingExecutor.setCorePoolSize(2);
+        hashingExecutor.initialize();
+        when(userRepository.findTakenUsernames(anyCollection())).thenReturn(List.of());
+        when(userRepository.findTakenEmails(anyCollection())).thenReturn(List.of());
+        when(userRepository.saveAll(any())).thenAnswer(call -> {
+            Iterable<User> users = call.getArgument(0);
+            users.forEach(user -> user.setId(nextId.getAndIncrement()));
+            return users;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        hashingExecutor.shutdown();
+    }
+
+    @Test
+    void reportsTheOutcomeOfEveryRow() {
+        when(userRepository.findTakenUsernames(anyCollection())).thenReturn(List.of("taken"));
+        when(userRepository.findTakenEmails(anyCollection())).thenReturn(List.of("taken@example.com"));
+
+        ImportUsersResponse response = service(500).importUsers(List.of(
+            row("alice", "alice@example.com"),
+            row("", "blank@example.com"),
+            row("alice", "other@example.com"),
+            row("bob", "alice@example.com"),
+            row("carol", "carol@example.com").toBuilder().setRole("ROLE_KING").build(),
+            row("taken", "dave@example.com"),
+            row("erin", "taken@example.com"),
+            row("frank", "frank@example.com").toBuilder().setRole("ROLE_ADMIN").build()), () -> false);
+
+        assertThat(response.getCreated()).isEqualTo(2);
+        assertThat(response.getFailed()).isEqualTo(6);
+        assertThat(response.getResultsList()).extracting(ImportUserResult::getIndex)
+            .containsExactly(0, 1, 2, 3, 4, 5, 6, 7);
+        assertThat(response.getResultsList()).extracting(ImportUserResult::getSuccess)
+            .containsExactly(true, false, false, false, false, false, false, true);
+        assertThat(response.getResultsList()).extracting(ImportUserResult::getMessage).containsExactly(
+            "",
+            "Username is required",
+            "Username appears more than once in the import",
+            "Email appears more than once in the import",
+            "Unknown role: ROLE_KING",
+            "User with this username already exists",
+            "User with this email already exists",
+            "");
+        assertThat(response.getResults(0).getUserId()).isEqualTo(100);
+        assertThat(response.getResults(7).getUserId()).isEqualTo(101);
+        verify(userRepository).saveAll(argThat(users -> {
+            List<User> saved = (List<User>) users;
+            return saved.size() == 2
+                && saved.get(0).getPassword().equals("hashed:secret")
+                && saved.get(0).getRole() == Role.ROLE_USER
+                && saved.get(1).getRole() == Role.ROLE_ADMIN;
+        }));
+    }
+
+    @Test
+    void insertsUserByUserAfterABatchConflict() {
+        doThrow(new DataIntegrityViolationException("duplicate key")).when(userRepository).saveAll(any());
+        when(userService.insertUser(any())).thenAnswer(call -> {
+            User user = call.getArgument(0);
+            switch (user.getUsername()) {
+                case "bob" -> throw new AlreadyExistsException("User with this username already exists");
+                case "carol" -> throw new DataIntegrityViolationException("value too long");
+                default -> {
+                    user.setId(nextId.getAndIncrement());
+                    return user;
+                }
+            }
+        });
+
+        ImportUsersResponse response = service(500).importUsers(List.of(
+            row("alice", "alice@example.com"),
+            row("bob", "bob@example.com"),
+            row("carol", "carol@example.com"),
+            row("dave", "dave@example.com")), () -> false);
+
+        assertThat(response.getCreated()).isEqualTo(2);
+        assertThat(response.getResultsList()).extracting(ImportUserResult::getSuccess)
+            .containsExactly(true, false, false, true);
+        assertThat(response.getResultsList()).extracting(ImportUserResult::getMessage).containsExactly(
+            "", "User with this username already exists", "User was rejected by the database", "");
+        assertThat(response.getResults(0).getUserId()).isEqualTo(100);
+        assertThat(response.getResults(3).getUserId()).isEqualTo(101);
+        verify(userService, times(4)).insertUser(any());
+    }
+
+    @Test
+    void stopsBetweenChunksOnceCancelled() {
+        AtomicInteger checks = new AtomicInteger();
+
+        ImportUsersResponse response = service(2).importUsers(List.of(
+            row("alice", "alice@example.com"),
+            row("bob", "bob@example.com"),
+            row("carol", "carol@example.com")), () -> checks.incrementAndGet() > 1);
+
+        assertThat(response.getCreated()).isEqualTo(2);
+        assertThat(response.getFailed()).isEqualTo(1);
+        assertThat(response.getResultsList()).extracting(ImportUserResult::getSuccess)
+            .containsExactly(true, true, false);
+        verify(userRepository, times(1)).saveAll(any());
+    }
+
+    private UserImportService service(int chunkSize) {
+        PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+        when(passwordEncoder.encode(anyString())).thenAnswer(call -> "hashed:" + call.getArgument(0));
+        TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+        return new UserImportService(userRepository, userService, passwordEncoder, hashingExecutor,
+            transactionTemplate, chunkSize);
+    }
+
+    private static CreateUserRequest row(String username, String email) {
+        return CreateUserRequest.newBuilder()
+            .setUsername(username)
+            .setEmail(email)
+            .setFirstName("First")
+            .setLastName("Last")
+            .setPassword("secret")
+            .build();
+    }
+}